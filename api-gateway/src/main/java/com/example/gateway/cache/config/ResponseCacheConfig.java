@@ -0,0 +1,57 @@
+package com.example.gateway.cache.config;
+
+import com.example.gateway.cache.event.FoodCatalogChangedEventHandler;
+import com.example.gateway.cache.filter.ResponseCache;
+import com.example.gateway.cache.filter.ResponseCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网关响应缓存配置类
+ * 在网关缓存不区分用户的目录类GET接口，按路由设置TTL，目录变更事件到达时整体失效。
+ * 失效依赖事件消费（app.event.consumer.enabled），未启用时缓存只能等TTL到期
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "app.response-cache")
+    public ResponseCacheProperties responseCacheProperties() {
+        return new ResponseCacheProperties();
+    }
+
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties responseCacheProperties,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        ResponseCache responseCache = new ResponseCache(responseCacheProperties.getMaxEntries());
+        meterRegistry.ifAvailable(registry ->
+                CaffeineCacheMetrics.monitor(registry, responseCache.nativeCache(), "gateway-response-cache"));
+        return responseCache;
+    }
+
+    /**
+     * 响应缓存过滤器
+     * 在写出响应之前执行，命中缓存时不再转发到上游服务
+     */
+    @Bean
+    public GlobalFilter responseCacheFilter(ResponseCache responseCache,
+                                            ResponseCacheProperties responseCacheProperties) {
+        return new ResponseCacheFilter(responseCache, responseCacheProperties);
+    }
+
+    /**
+     * 食物目录变更事件处理器
+     * 由事件监听容器自动注册
+     */
+    @Bean
+    public FoodCatalogChangedEventHandler foodCatalogChangedEventHandler(ResponseCache responseCache) {
+        return new FoodCatalogChangedEventHandler(responseCache);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.gateway.cache.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 网关响应缓存配置属性类
+ * 对应app.response-cache配置
+ */
+@Data
+public class ResponseCacheProperties {
+
+    /**
+     * 是否启用响应缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的响应数
+     */
+    private long maxEntries = 1000;
+
+    /**
+     * 单个响应体的最大字节数，超过的响应不缓存
+     */
+    private int maxBodyBytes = 256 * 1024;
+
+    /**
+     * 各路由的缓存规则，键为路由ID，未配置的路由不缓存
+     */
+    private Map<String, RouteCache> routes = new LinkedHashMap<>();
+
+    /**
+     * 路由缓存规则
+     */
+    @Data
+    public static class RouteCache {
+        /**
+         * 可缓存的请求路径，支持Ant风格通配符
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * 缓存有效期
+         */
+        private Duration ttl = Duration.ofSeconds(60);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.gateway.cache.event;
+
+import com.example.food.event.FoodCatalogChangedEvent;
+import com.example.gateway.cache.filter.ResponseCache;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.DomainEventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 食物目录变更事件处理器
+ * 食物或分类变更后使网关响应缓存整体失效，缓存的目录接口下次请求时重新回源
+ */
+public class FoodCatalogChangedEventHandler implements DomainEventHandler<FoodCatalogChangedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(FoodCatalogChangedEventHandler.class);
+
+    private final ResponseCache responseCache;
+
+    public FoodCatalogChangedEventHandler(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public boolean supports(Class<? extends DomainEvent> eventType) {
+        return FoodCatalogChangedEvent.class.isAssignableFrom(eventType);
+    }
+
+    @Override
+    public void handle(FoodCatalogChangedEvent event) {
+        responseCache.invalidateAll();
+        log.debug("食物目录变更，网关响应缓存已失效: scope={}, eventId={}", event.getScope(), event.getEventId());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.gateway.cache.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * 缓存的上游响应
+ * 只缓存200响应，命中时不需要保存状态码；响应头只保存上游返回的、与单次请求无关的部分
+ */
+class CachedResponse {
+
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final String etag;
+    private final long ttlNanos;
+
+    CachedResponse(HttpHeaders headers, byte[] body, String etag, long ttlNanos) {
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.etag = etag;
+        this.ttlNanos = ttlNanos;
+    }
+
+    HttpHeaders headers() {
+        return headers;
+    }
+
+    MediaType contentType() {
+        return headers.getContentType();
+    }
+
+    byte[] body() {
+        return body;
+    }
+
+    String etag() {
+        return etag;
+    }
+
+    long ttlNanos() {
+        return ttlNanos;
+    }
+}
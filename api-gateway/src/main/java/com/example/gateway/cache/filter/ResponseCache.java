@@ -0,0 +1,84 @@
+package com.example.gateway.cache.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 网关响应缓存
+ * 按缓存项各自的TTL过期，目录变更时整体失效。
+ * 每次失效递增代数，失效前发出、失效后才返回的上游响应属于旧数据，写入时按代数丢弃
+ */
+public class ResponseCache {
+
+    private final Cache<String, CachedResponse> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(long maxEntries) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime,
+                                                  long currentDuration) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * 当前缓存代数，转发上游请求前获取
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 写入缓存项
+     * @param generation 转发上游请求前获取的缓存代数，期间发生过失效时不写入
+     */
+    void put(String key, CachedResponse response, long generation) {
+        if (this.generation.get() != generation) {
+            return;
+        }
+        cache.put(key, response);
+        // 写入期间发生失效时撤销本次写入
+        if (this.generation.get() != generation) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * 使所有缓存项失效
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * 底层Caffeine缓存，用于注册缓存指标
+     */
+    public Cache<String, ?> nativeCache() {
+        return cache;
+    }
+}
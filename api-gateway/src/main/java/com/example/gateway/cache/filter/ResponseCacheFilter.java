@@ -0,0 +1,247 @@
+package com.example.gateway.cache.filter;
+
+import com.example.gateway.cache.config.ResponseCacheProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 网关响应缓存过滤器
+ * 缓存配置路由上GET请求的200响应，命中时不再转发到上游服务。
+ * 响应带ETag，客户端携带匹配的If-None-Match时直接返回304，不传输响应体。
+ * 缓存的内容与用户无关，只能配置不区分用户的目录类接口；认证在WebFilter中完成，命中缓存的请求同样经过认证和限流。
+ * 缓存上游返回的响应头，命中时原样带回；网关在转发前已设置的响应头（如traceId、CORS）属于单次请求，不缓存
+ */
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 缓存状态响应头：HIT或MISS
+     */
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    /**
+     * 客户端每次使用前都需要用ETag向网关确认，目录变更后能立即看到新数据
+     */
+    private static final String CACHE_CONTROL_VALUE = "no-cache";
+
+    /**
+     * 逐跳响应头、按响应重新计算或由缓存过滤器自己设置的响应头，不随缓存保存
+     */
+    private static final Set<String> UNCACHED_HEADERS = caseInsensitiveSet(Arrays.asList(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.DATE, HttpHeaders.SET_COOKIE, HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL,
+            CACHE_STATUS_HEADER));
+
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ResponseCacheFilter(ResponseCache responseCache, ResponseCacheProperties properties) {
+        this.responseCache = responseCache;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ResponseCacheProperties.RouteCache routeCache = routeCache(exchange);
+        if (routeCache == null) {
+            return chain.filter(exchange);
+        }
+
+        String key = cacheKey(exchange.getRequest());
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            return writeCached(exchange, cached);
+        }
+
+        long generation = responseCache.generation();
+        long ttlNanos = routeCache.getTtl().toNanos();
+        // 转发前已存在的响应头由网关为本次请求设置
+        Set<String> requestScopedHeaders = caseInsensitiveSet(exchange.getResponse().getHeaders().keySet());
+        ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!isCacheable(getDelegate())) {
+                    return super.writeWith(body);
+                }
+                return Flux.from(body).collectList().flatMap(buffers -> {
+                    int size = buffers.stream().mapToInt(DataBuffer::readableByteCount).sum();
+                    if (size > properties.getMaxBodyBytes()) {
+                        return super.writeWith(Flux.fromIterable(buffers));
+                    }
+                    byte[] bytes = new byte[size];
+                    int offset = 0;
+                    for (DataBuffer buffer : buffers) {
+                        int length = buffer.readableByteCount();
+                        buffer.read(bytes, offset, length);
+                        offset += length;
+                        DataBufferUtils.release(buffer);
+                    }
+                    CachedResponse response = new CachedResponse(
+                            upstreamHeaders(getDelegate().getHeaders(), requestScopedHeaders),
+                            bytes, etag(bytes), ttlNanos);
+                    responseCache.put(key, response, generation);
+                    return write(exchange, getDelegate(), response, "MISS");
+                }).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+            }
+        };
+        return chain.filter(exchange.mutate().response(decorated).build());
+    }
+
+    /**
+     * 获取当前请求适用的缓存规则
+     * @return 请求不可缓存时返回null
+     */
+    private ResponseCacheProperties.RouteCache routeCache(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return null;
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return null;
+        }
+        ResponseCacheProperties.RouteCache routeCache = properties.getRoutes().get(route.getId());
+        if (routeCache == null) {
+            return null;
+        }
+        String path = request.getPath().pathWithinApplication().value();
+        for (String pattern : routeCache.getPaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return routeCache;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 缓存键由路径和原始查询字符串组成，分页和筛选参数不同的请求分别缓存
+     */
+    private static String cacheKey(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        String query = request.getURI().getRawQuery();
+        return query == null ? path : path + "?" + query;
+    }
+
+    /**
+     * 只缓存不设置Cookie、未禁止缓存的200响应
+     */
+    private static boolean isCacheable(ServerHttpResponse response) {
+        if (response.getStatusCode() != HttpStatus.OK) {
+            return false;
+        }
+        HttpHeaders headers = response.getHeaders();
+        if (headers.containsKey(HttpHeaders.SET_COOKIE) || !response.getCookies().isEmpty()) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    /**
+     * 复制需要缓存的上游响应头
+     */
+    static HttpHeaders upstreamHeaders(HttpHeaders responseHeaders, Set<String> requestScopedHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        responseHeaders.forEach((name, values) -> {
+            if (!UNCACHED_HEADERS.contains(name) && !requestScopedHeaders.contains(name)) {
+                headers.put(name, new ArrayList<>(values));
+            }
+        });
+        return headers;
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        HttpHeaders headers = response.getHeaders();
+        cached.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.put(name, new ArrayList<>(values));
+            }
+        });
+        return write(exchange, response, cached, "HIT");
+    }
+
+    /**
+     * 写出响应，客户端缓存的ETag仍然有效时返回不带响应体的304
+     */
+    private static Mono<Void> write(ServerWebExchange exchange, ServerHttpResponse response,
+                                    CachedResponse cached, String cacheStatus) {
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.setCacheControl(CACHE_CONTROL_VALUE);
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+
+        if (etagMatches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+            return response.setComplete();
+        }
+
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * If-None-Match使用弱比较，忽略W/前缀
+     */
+    static boolean etagMatches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || stripWeak(candidate).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    static String etag(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private static Set<String> caseInsensitiveSet(Collection<String> names) {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(names);
+        return Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * 在写出响应的过滤器之前执行，装饰后的响应才能截获上游响应体
+     */
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.gateway.logging.accesslog;
+
+/**
+ * 访问日志记录
+ * 在请求结束时采集，只保存原始字段，格式化推迟到写日志线程中进行
+ */
+public final class AccessLogRecord {
+
+    final long timestamp;
+    final String traceId;
+    final String method;
+    final String path;
+    final String query;
+    final int status;
+    final long durationMillis;
+    final String clientIp;
+    final String userAgent;
+    final Object userId;
+    final String routeId;
+
+    public AccessLogRecord(long timestamp, String traceId, String method, String path, String query,
+                           int status, long durationMillis, String clientIp, String userAgent,
+                           Object userId, String routeId) {
+        this.timestamp = timestamp;
+        this.traceId = traceId;
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.status = status;
+        this.durationMillis = durationMillis;
+        this.clientIp = clientIp;
+        this.userAgent = userAgent;
+        this.userId = userId;
+        this.routeId = routeId;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Object getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.gateway.logging.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 无锁的有界多生产者环形缓冲区
+ * 每个槽位带有序号，生产者通过CAS抢占写入位置，消费者按序号判断槽位是否已写入，
+ * 请求线程写入时不会阻塞，缓冲区满时直接丢弃并计数。
+ * 消费者在缓冲区为空时挂起等待，生产者只在消费者挂起时唤醒它
+ */
+public class AccessLogRingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<AccessLogRecord> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * 挂起等待新记录的消费者线程，未挂起时为null
+     */
+    private volatile Thread waiter;
+
+    /**
+     * @param capacity 缓冲区容量，必须是2的幂
+     */
+    public AccessLogRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入一条记录，缓冲区满时丢弃
+     * @return 是否写入成功
+     */
+    public boolean offer(AccessLogRecord record) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, record);
+                    sequences.set(index, position + 1);
+                    Thread consumer = waiter;
+                    if (consumer != null) {
+                        LockSupport.unpark(consumer);
+                    }
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 取出一条记录，只能由单个消费者线程调用
+     * @return 记录，缓冲区为空或下一个槽位尚未写完时返回null
+     */
+    public AccessLogRecord poll() {
+        long position = head.get();
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        AccessLogRecord record = slots.get(index);
+        slots.lazySet(index, null);
+        head.lazySet(position + 1);
+        sequences.set(index, position + mask + 1);
+        return record;
+    }
+
+    /**
+     * 缓冲区为空时挂起消费者线程，直到有新记录写入、超时或线程被唤醒，只能由单个消费者线程调用
+     * 挂起前先登记再检查，检查之后写入的生产者必然看到登记并唤醒，不会错过新记录
+     *
+     * @param timeoutNanos 最长等待时间
+     */
+    public void awaitRecord(long timeoutNanos) {
+        waiter = Thread.currentThread();
+        try {
+            long position = head.get();
+            if (sequences.get((int) position & mask) != position + 1) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    /**
+     * 因缓冲区已满被丢弃的记录数
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.gateway.logging.accesslog;
+
+import net.logstash.logback.marker.Markers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 访问日志写入器
+ * 后台线程从环形缓冲区取出访问日志记录，以结构化字段写入ACCESS_LOG日志器，
+ * 由logback-spring.xml中的异步appender和LogstashEncoder输出为单行JSON
+ */
+public class AccessLogWriter implements InitializingBean, DisposableBean {
+
+    /**
+     * 访问日志专用日志器名称
+     */
+    public static final String LOGGER_NAME = "ACCESS_LOG";
+
+    private static final Logger accessLog = LoggerFactory.getLogger(LOGGER_NAME);
+    private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    /**
+     * 缓冲区为空时的最长等待时间，有新记录写入时立即唤醒，超时只用于定期报告丢弃数
+     */
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AccessLogRingBuffer buffer;
+    private final Thread drainer;
+    private volatile boolean running = true;
+    private long reportedDropped;
+
+    public AccessLogWriter(AccessLogRingBuffer buffer) {
+        this.buffer = buffer;
+        this.drainer = new Thread(this::drain, "access-log-writer");
+        this.drainer.setDaemon(true);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        drainer.start();
+    }
+
+    private void drain() {
+        while (running) {
+            if (drainOnce() == 0) {
+                reportDropped();
+                buffer.awaitRecord(IDLE_WAIT_NANOS);
+            }
+        }
+        // 停止前写出剩余记录
+        drainOnce();
+        reportDropped();
+    }
+
+    private int drainOnce() {
+        int written = 0;
+        AccessLogRecord record;
+        while ((record = buffer.poll()) != null) {
+            write(record);
+            written++;
+        }
+        return written;
+    }
+
+    private void write(AccessLogRecord record) {
+        try {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("traceId", record.traceId);
+            fields.put("method", record.method);
+            fields.put("path", record.path);
+            if (record.query != null) {
+                fields.put("query", record.query);
+            }
+            fields.put("status", record.status);
+            fields.put("durationMs", record.durationMillis);
+            fields.put("clientIp", record.clientIp);
+            if (record.userAgent != null) {
+                fields.put("userAgent", record.userAgent);
+            }
+            if (record.userId != null) {
+                fields.put("userId", record.userId);
+            }
+            if (record.routeId != null) {
+                fields.put("routeId", record.routeId);
+            }
+            fields.put("requestTime", record.timestamp);
+            accessLog.info(Markers.appendEntries(fields), "{} {} {}", record.method, record.path, record.status);
+        } catch (Exception e) {
+            log.warn("写入访问日志失败: {}", e.getMessage());
+        }
+    }
+
+    private void reportDropped() {
+        long dropped = buffer.dropped();
+        if (dropped > reportedDropped) {
+            log.warn("访问日志缓冲区已满，丢弃 {} 条记录", dropped - reportedDropped);
+            reportedDropped = dropped;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
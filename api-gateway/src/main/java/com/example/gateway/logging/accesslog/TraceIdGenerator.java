@@ -0,0 +1,25 @@
+package com.example.gateway.logging.accesslog;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 追踪ID生成器
+ * 生成16位十六进制的64位随机ID，使用ThreadLocalRandom避免UUID.randomUUID的SecureRandom开销和竞争
+ */
+public final class TraceIdGenerator {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private TraceIdGenerator() {
+    }
+
+    public static String next() {
+        long value = ThreadLocalRandom.current().nextLong();
+        char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX[(int) value & 0xF];
+            value >>>= 4;
+        }
+        return new String(chars);
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.gateway.logging.config;
 
+import com.example.gateway.logging.accesslog.AccessLogRingBuffer;
+import com.example.gateway.logging.accesslog.AccessLogWriter;
 import com.example.gateway.logging.filter.RequestLoggingFilter;
-import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.web.server.WebFilter;
 
 /**
  * 统一日志配置类
@@ -13,14 +15,37 @@ import org.springframework.core.annotation.Order;
 @Configuration
 public class LoggingConfig {
 
+    /**
+     * 访问日志环形缓冲区容量
+     */
+    private static final int ACCESS_LOG_BUFFER_SIZE = 8192;
+
+    /**
+     * 访问日志环形缓冲区
+     * 请求线程写入，访问日志写入器在后台线程读取
+     */
+    @Bean
+    public AccessLogRingBuffer accessLogRingBuffer() {
+        return new AccessLogRingBuffer(ACCESS_LOG_BUFFER_SIZE);
+    }
+
+    /**
+     * 访问日志写入器
+     * 将缓冲区中的访问日志以结构化格式写入ACCESS_LOG日志器
+     */
+    @Bean
+    public AccessLogWriter accessLogWriter(AccessLogRingBuffer accessLogRingBuffer) {
+        return new AccessLogWriter(accessLogRingBuffer);
+    }
+
     /**
      * 请求日志过滤器
      * 记录所有通过网关的请求和响应信息
-     * 在认证和授权之后执行，记录完整的请求信息
+     * 作为WebFilter在认证和流量保护之前执行，被拒绝的请求同样记录访问日志
      */
     @Bean
-    @Order(100) // 在认证授权之后执行，记录完整的用户信息
-    public GlobalFilter requestLoggingFilter() {
-        return new RequestLoggingFilter();
+    @Order(RequestLoggingFilter.ORDER)
+    public WebFilter requestLoggingFilter(AccessLogRingBuffer accessLogRingBuffer) {
+        return new RequestLoggingFilter(accessLogRingBuffer);
     }
 }
@@ -1,60 +1,89 @@
 package com.example.gateway.logging.filter;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
-import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.cloud.gateway.filter.GlobalFilter;
+import com.example.gateway.logging.accesslog.AccessLogRecord;
+import com.example.gateway.logging.accesslog.AccessLogRingBuffer;
+import com.example.gateway.logging.accesslog.TraceIdGenerator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
 
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 请求日志过滤器
  * 负责记录所有通过网关的请求和响应信息
- * 提供分布式追踪支持
+ * 提供分布式追踪支持，traceId通过响应头返回并写入Reactor Context，下游算子通过TRACE_ID_CONTEXT_KEY读取。
+ * 请求结束时只采集原始字段写入环形缓冲区，格式化和输出由AccessLogWriter在后台线程完成，不占用事件循环线程
  */
-public class RequestLoggingFilter implements GlobalFilter, Ordered {
+public class RequestLoggingFilter implements WebFilter, Ordered {
+
+    /**
+     * 紧接在请求延迟过滤器之后、安全认证和流量保护之前执行，
+     * 被认证拒绝（401）、被限流熔断拒绝（429/503）和缓存命中的请求同样记录访问日志；
+     * 用户信息和路由在请求结束时读取，此时认证和路由已经完成
+     */
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 1;
 
-    private static final Logger log = LoggerFactory.getLogger(RequestLoggingFilter.class);
     private static final String TRACE_ID_HEADER = "X-Trace-Id";
     private static final String TRACE_ID_ATTRIBUTE = "traceId";
 
+    /**
+     * Reactor Context中traceId的键
+     */
+    public static final String TRACE_ID_CONTEXT_KEY = "traceId";
+
+    private final AccessLogRingBuffer accessLogBuffer;
+
+    public RequestLoggingFilter(AccessLogRingBuffer accessLogBuffer) {
+        this.accessLogBuffer = accessLogBuffer;
+    }
+
     @Override
-    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
 
         // 生成或获取traceId
         String traceId = getOrGenerateTraceId(request);
 
-        // 设置MDC用于日志输出
-        MDC.put("traceId", traceId);
-
         // 将traceId存储到exchange attributes中
         exchange.getAttributes().put(TRACE_ID_ATTRIBUTE, traceId);
 
-        // 记录请求开始
         long startTime = System.currentTimeMillis();
-        logRequest(request, traceId);
+        long startNanos = System.nanoTime();
 
         // 添加traceId到响应头
         ServerHttpResponse response = exchange.getResponse();
         response.getHeaders().add(TRACE_ID_HEADER, traceId);
 
         return chain.filter(exchange)
+                .doOnError(error -> {
+                    // 限流、熔断等拒绝以异常结束过滤器链，状态码由WebExceptionHandler在过滤器链之外设置，
+                    // 响应尚未提交时推迟到提交前记录，才能取得最终状态码
+                    if (response.isCommitted()) {
+                        record(exchange, traceId, startTime, startNanos);
+                    } else {
+                        response.beforeCommit(() -> Mono.fromRunnable(() -> record(exchange, traceId, startTime, startNanos)));
+                    }
+                })
                 .doFinally(signalType -> {
-                    // 记录请求结束
-                    long endTime = System.currentTimeMillis();
-                    long duration = endTime - startTime;
-                    logResponse(request, response, traceId, duration);
-
-                    // 清理MDC
-                    MDC.clear();
-                });
+                    if (signalType != SignalType.ON_ERROR) {
+                        record(exchange, traceId, startTime, startNanos);
+                    }
+                })
+                .contextWrite(Context.of(TRACE_ID_CONTEXT_KEY, traceId));
+    }
+
+    private void record(ServerWebExchange exchange, String traceId, long startTime, long startNanos) {
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        accessLogBuffer.offer(toRecord(exchange, traceId, startTime, duration));
     }
 
     /**
@@ -63,34 +92,32 @@ public class RequestLoggingFilter implements GlobalFilter, Ordered {
     private String getOrGenerateTraceId(ServerHttpRequest request) {
         String traceId = request.getHeaders().getFirst(TRACE_ID_HEADER);
         if (traceId == null || traceId.trim().isEmpty()) {
-            traceId = UUID.randomUUID().toString().replace("-", "");
+            traceId = TraceIdGenerator.next();
         }
         return traceId;
     }
 
     /**
-     * 记录请求信息
+     * 采集访问日志字段
      */
-    private void logRequest(ServerHttpRequest request, String traceId) {
-        String method = request.getMethod().name();
-        String uri = request.getURI().toString();
-        String remoteAddress = getClientIpAddress(request);
-        String userAgent = request.getHeaders().getFirst("User-Agent");
-
-        log.info("Request started - Method: {}, URI: {}, RemoteAddr: {}, UserAgent: {}, TraceId: {}",
-                method, uri, remoteAddress, userAgent, traceId);
-    }
-
-    /**
-     * 记录响应信息
-     */
-    private void logResponse(ServerHttpRequest request, ServerHttpResponse response, String traceId, long duration) {
-        String method = request.getMethod().name();
-        String uri = request.getURI().getPath();
+    private AccessLogRecord toRecord(ServerWebExchange exchange, String traceId, long startTime, long duration) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
         int statusCode = response.getStatusCode() != null ? response.getStatusCode().value() : 0;
-
-        log.info("Request completed - Method: {}, URI: {}, Status: {}, Duration: {}ms, TraceId: {}",
-                method, uri, statusCode, duration, traceId);
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+
+        return new AccessLogRecord(
+                startTime,
+                traceId,
+                request.getMethodValue(),
+                request.getURI().getRawPath(),
+                request.getURI().getRawQuery(),
+                statusCode,
+                duration,
+                getClientIpAddress(request),
+                request.getHeaders().getFirst("User-Agent"),
+                exchange.getAttribute("userId"),
+                route != null ? route.getId() : null);
     }
 
     /**
@@ -113,6 +140,6 @@ public class RequestLoggingFilter implements GlobalFilter, Ordered {
 
     @Override
     public int getOrder() {
-        return 100; // 在认证授权之后执行，记录完整的用户信息
+        return ORDER;
     }
 }
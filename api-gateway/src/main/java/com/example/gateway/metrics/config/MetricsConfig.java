@@ -0,0 +1,41 @@
+package com.example.gateway.metrics.config;
+
+import com.example.gateway.metrics.filter.LatencyTimers;
+import com.example.gateway.metrics.filter.RequestLatencyFilter;
+import com.example.gateway.metrics.filter.UpstreamLatencyFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.server.WebFilter;
+
+/**
+ * 网关指标配置类
+ * 按路由和状态码记录请求总耗时、上游耗时和网关自身开销，通过actuator/Prometheus导出
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public LatencyTimers latencyTimers(MeterRegistry meterRegistry) {
+        return new LatencyTimers(meterRegistry);
+    }
+
+    /**
+     * 请求延迟过滤器
+     * 最外层WebFilter，覆盖认证在内的完整请求耗时
+     */
+    @Bean
+    public WebFilter requestLatencyFilter(LatencyTimers latencyTimers) {
+        return new RequestLatencyFilter(latencyTimers);
+    }
+
+    /**
+     * 上游延迟过滤器
+     * 在转发到上游服务之前执行
+     */
+    @Bean
+    public GlobalFilter upstreamLatencyFilter() {
+        return new UpstreamLatencyFilter();
+    }
+}
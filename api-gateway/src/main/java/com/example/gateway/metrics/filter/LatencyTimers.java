@@ -0,0 +1,99 @@
+package com.example.gateway.metrics.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关延迟计时器
+ * 按路由和响应状态码维护请求总耗时、上游耗时和网关自身开销三类计时器，
+ * 发布p50/p95/p99分位数和直方图桶，可通过/actuator/prometheus导出并按路由设置SLO
+ */
+public class LatencyTimers {
+
+    /**
+     * 请求总耗时，从进入网关到响应结束
+     */
+    public static final String REQUEST_TIMER = "gateway.request.latency";
+
+    /**
+     * 上游耗时，从转发请求到收到上游响应头
+     */
+    public static final String UPSTREAM_TIMER = "gateway.upstream.latency";
+
+    /**
+     * 网关自身开销，请求总耗时减去上游耗时
+     */
+    public static final String OVERHEAD_TIMER = "gateway.overhead.latency";
+
+    /**
+     * exchange属性：上游耗时（纳秒）
+     */
+    public static final String UPSTREAM_NANOS_ATTR = LatencyTimers.class.getName() + ".upstreamNanos";
+
+    private static final String NO_ROUTE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public LatencyTimers(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 保存本次请求的上游耗时，由RequestLatencyFilter在请求结束时与总耗时一起记录
+     * 不经过NettyRoutingFilter转发的路径（如对冲转发）调用此方法记录上游耗时
+     * @param exchange 当前请求
+     * @param upstreamNanos 上游耗时（纳秒）
+     */
+    public static void recordUpstream(ServerWebExchange exchange, long upstreamNanos) {
+        exchange.getAttributes().put(UPSTREAM_NANOS_ATTR, upstreamNanos);
+    }
+
+    /**
+     * 记录一次请求的耗时
+     * @param exchange 当前请求
+     * @param totalNanos 请求总耗时（纳秒）
+     */
+    void record(ServerWebExchange exchange, long totalNanos) {
+        String route = routeId(exchange);
+        String status = status(exchange);
+        timer(REQUEST_TIMER, route, status).record(totalNanos, TimeUnit.NANOSECONDS);
+
+        Long upstreamNanos = exchange.getAttribute(UPSTREAM_NANOS_ATTR);
+        if (upstreamNanos != null) {
+            timer(UPSTREAM_TIMER, route, status).record(upstreamNanos, TimeUnit.NANOSECONDS);
+            timer(OVERHEAD_TIMER, route, status).record(Math.max(totalNanos - upstreamNanos, 0),
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String route, String status) {
+        return timers.computeIfAbsent(name + '|' + route + '|' + status, key -> Timer.builder(name)
+                .tag("route", route)
+                .tag("status", status)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry));
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : NO_ROUTE;
+    }
+
+    private static String status(ServerWebExchange exchange) {
+        HttpStatus status = exchange.getResponse().getStatusCode();
+        return status != null ? String.valueOf(status.value()) : "unknown";
+    }
+}
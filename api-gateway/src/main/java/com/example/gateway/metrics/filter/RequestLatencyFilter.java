@@ -0,0 +1,32 @@
+package com.example.gateway.metrics.filter;
+
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 请求延迟过滤器
+ * 作为最外层的WebFilter执行，计时范围包括安全认证、流量保护、路由转发和响应写出
+ */
+public class RequestLatencyFilter implements WebFilter, Ordered {
+
+    private final LatencyTimers latencyTimers;
+
+    public RequestLatencyFilter(LatencyTimers latencyTimers) {
+        this.latencyTimers = latencyTimers;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signalType -> latencyTimers.record(exchange, System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.gateway.metrics.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 上游延迟过滤器
+ * 紧挨在NettyRoutingFilter之前执行，计时范围为转发请求到收到上游响应头，
+ * 结果写入exchange属性，由RequestLatencyFilter在请求结束时与总耗时一起记录
+ */
+public class UpstreamLatencyFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signalType -> LatencyTimers.recordUpstream(exchange, System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
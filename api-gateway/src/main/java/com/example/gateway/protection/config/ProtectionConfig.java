@@ -1,25 +1,30 @@
 package com.example.gateway.protection.config;
 
-import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
-import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayRuleManager;
 import com.alibaba.csp.sentinel.adapter.gateway.sc.SentinelGatewayFilter;
 import com.alibaba.csp.sentinel.adapter.gateway.sc.callback.BlockRequestHandler;
 import com.alibaba.csp.sentinel.adapter.gateway.sc.callback.GatewayCallbackManager;
 import com.alibaba.csp.sentinel.adapter.gateway.sc.exception.SentinelGatewayBlockExceptionHandler;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeException;
+import com.example.gateway.protection.filter.UpstreamResilienceFilter;
+import com.example.gateway.routing.balancer.LeastLoadedLoadBalancer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import org.springframework.web.reactive.result.view.ViewResolver;
+import reactor.netty.http.client.HttpClient;
 
 import javax.annotation.PostConstruct;
 import java.util.*;
@@ -65,66 +70,37 @@ public class ProtectionConfig {
     }
 
     /**
-     * 初始化Sentinel规则和回调
+     * 流量保护规则加载器
+     * 从app.protection配置加载限流和系统保护规则，配置刷新后自动重新加载
      */
-    @PostConstruct
-    public void initSentinel() {
-        // 初始化限流规则
-        initGatewayRules();
-
-        // 初始化限流回调
-        initBlockHandler();
-
-        log.info("Sentinel Gateway protection initialized successfully");
+    @Bean
+    public ProtectionRuleLoader protectionRuleLoader(Environment environment) {
+        return new ProtectionRuleLoader(environment);
     }
 
     /**
-     * 初始化Gateway限流规则
+     * 上游弹性过滤器
+     * 按路由配置为上游请求增加超时、带预算的重试和对冲请求
      */
-    private void initGatewayRules() {
-        Set<GatewayFlowRule> rules = new HashSet<>();
-
-        // 认证服务限流 - 相对宽松，避免影响登录
-        rules.add(createFlowRule("auth_route", 30));
-
-        // 用户服务限流
-        rules.add(createFlowRule("user_route", 50));
-        rules.add(createFlowRule("admin_user_route", 20));
-
-        // 食物服务限流 - 查询频繁，限制适中
-        rules.add(createFlowRule("food_route", 100));
-        rules.add(createFlowRule("admin_food_route", 30));
-
-        // 饮食记录服务限流
-        rules.add(createFlowRule("diet_records_route", 60));
-        rules.add(createFlowRule("admin_diet_records_route", 25));
-
-        // 营养分析服务限流 - 计算密集，限制较严
-        rules.add(createFlowRule("nutrition_route", 40));
-        rules.add(createFlowRule("health_route", 20));
-        rules.add(createFlowRule("admin_nutrition_route", 15));
-
-        // 文件服务限流 - 上传下载，限制适中
-        rules.add(createFlowRule("files_route", 80));
-        rules.add(createFlowRule("admin_files_route", 30));
-
-        // 仪表盘服务限流 - 管理功能，限制较严
-        rules.add(createFlowRule("admin_dashboard_route", 20));
-
-        GatewayRuleManager.loadRules(rules);
-        log.info("Gateway flow rules loaded, total rules: {}", rules.size());
+    @Bean
+    public GlobalFilter upstreamResilienceFilter(ProtectionRuleLoader protectionRuleLoader,
+                                                 LeastLoadedLoadBalancer leastLoadedLoadBalancer,
+                                                 HttpClient httpClient,
+                                                 ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                 MeterRegistry meterRegistry) {
+        return new UpstreamResilienceFilter(protectionRuleLoader, leastLoadedLoadBalancer, httpClient,
+                headersFilters, meterRegistry);
     }
 
     /**
-     * 创建限流规则
+     * 初始化Sentinel回调
      */
-    private GatewayFlowRule createFlowRule(String resource, double count) {
-        GatewayFlowRule rule = new GatewayFlowRule(resource);
-        rule.setGrade(1); // QPS限流
-        rule.setCount(count);
-        rule.setIntervalSec(1);
-        rule.setControlBehavior(0); // 快速失败
-        return rule;
+    @PostConstruct
+    public void initSentinel() {
+        // 初始化限流回调
+        initBlockHandler();
+
+        log.info("Sentinel Gateway protection initialized successfully");
     }
 
     /**
@@ -132,13 +108,16 @@ public class ProtectionConfig {
      */
     private void initBlockHandler() {
         BlockRequestHandler blockRequestHandler = (exchange, ex) -> {
+            // 熔断时上游不可用，与限流区分开
+            boolean degraded = ex instanceof DegradeException;
+            HttpStatus status = degraded ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
             Map<String, Object> result = new HashMap<>();
-            result.put("code", 429);
-            result.put("message", "请求过于频繁，请稍后再试");
+            result.put("code", status.value());
+            result.put("message", degraded ? "服务暂时不可用，请稍后再试" : "请求过于频繁，请稍后再试");
             result.put("data", null);
             result.put("timestamp", System.currentTimeMillis());
 
-            return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+            return ServerResponse.status(status)
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(BodyInserters.fromValue(result));
         };
@@ -0,0 +1,244 @@
+package com.example.gateway.protection.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 流量保护配置属性类
+ * 对应app.protection配置，配置刷新后由ProtectionRuleLoader重新加载Sentinel规则，无需重新部署
+ */
+@Data
+public class ProtectionProperties {
+
+    /**
+     * 各路由的限流规则，键为路由ID
+     */
+    private Map<String, RouteRule> routes = new LinkedHashMap<>();
+
+    /**
+     * 系统自适应保护配置
+     */
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * 流控效果
+     */
+    public enum ControlBehavior {
+        /**
+         * 超过阈值直接拒绝，允许burst个突发请求
+         */
+        FAST_FAIL,
+        /**
+         * 预热，阈值在预热时长内从1/3逐渐升至设定值，避免冷启动时被流量压垮
+         */
+        WARM_UP,
+        /**
+         * 匀速排队，超过阈值的请求排队等待，最长等待maxQueueingTime，用于平滑突发流量
+         */
+        RATE_LIMITER,
+        /**
+         * 预热期间匀速排队
+         */
+        WARM_UP_RATE_LIMITER
+    }
+
+    /**
+     * 路由限流规则
+     */
+    @Data
+    public static class RouteRule {
+        /**
+         * 路由整体QPS阈值，0表示不限制
+         */
+        private double qps;
+
+        /**
+         * 流控效果
+         */
+        private ControlBehavior controlBehavior = ControlBehavior.FAST_FAIL;
+
+        /**
+         * 快速失败模式下允许的突发请求数
+         */
+        private int burst = 0;
+
+        /**
+         * 预热时长
+         */
+        private Duration warmUpPeriod = Duration.ofSeconds(10);
+
+        /**
+         * 匀速排队模式下的最长排队时间
+         */
+        private Duration maxQueueingTime = Duration.ofMillis(500);
+
+        /**
+         * 单个已认证用户的QPS阈值，0表示不限制
+         * 按网关认证后设置的X-User-Id请求头区分用户，客户端自带的该请求头在认证前已被移除；
+         * 未认证请求不受此阈值限制，由perIpQps限制
+         */
+        private double perUserQps;
+
+        /**
+         * 单个客户端IP的QPS阈值，0表示不限制
+         */
+        private double perIpQps;
+
+        /**
+         * 等待上游响应头的超时时间，未配置时使用spring.cloud.gateway.httpclient.response-timeout
+         */
+        private Duration timeout;
+
+        /**
+         * 重试配置
+         */
+        private Retry retry = new Retry();
+
+        /**
+         * 熔断配置
+         */
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        /**
+         * 对冲请求配置
+         */
+        private Hedge hedge = new Hedge();
+    }
+
+    /**
+     * 重试配置
+     * 只重试GET和HEAD请求，只在连接失败或上游返回502、503时重试，超时不重试。
+     * 重试和对冲请求共用路由的重试预算：每个请求存入budgetRatio个令牌，每次重试或对冲消耗一个，
+     * 上游整体故障时额外请求不超过正常流量的budgetRatio倍，不会放大故障
+     */
+    @Data
+    public static class Retry {
+        /**
+         * 最大尝试次数（含首次请求），1表示不重试
+         */
+        private int maxAttempts = 1;
+
+        /**
+         * 每个请求存入的重试令牌数
+         */
+        private double budgetRatio = 0.1;
+
+        /**
+         * 重试令牌上限，低流量时允许的突发重试数
+         */
+        private int budgetBurst = 10;
+    }
+
+    /**
+     * 熔断配置，使用Sentinel熔断降级规则
+     * 统计窗口内请求数达到minRequests且慢调用比例或异常比例超过阈值时熔断，
+     * 熔断期间请求直接返回503，熔断时长结束后放行一个探测请求，成功则恢复
+     */
+    @Data
+    public static class CircuitBreaker {
+        /**
+         * 是否启用熔断
+         */
+        private boolean enabled = false;
+
+        /**
+         * 慢调用响应时间阈值，超过的请求记为慢调用
+         */
+        private Duration slowCallDuration = Duration.ofSeconds(1);
+
+        /**
+         * 慢调用比例阈值（0-1），大于1时不按慢调用熔断
+         */
+        private double slowCallRatio = 0.5;
+
+        /**
+         * 异常比例阈值（0-1），超时和连接失败计为异常，大于1时不按异常比例熔断
+         */
+        private double errorRatio = 0.5;
+
+        /**
+         * 触发熔断的最小请求数
+         */
+        private int minRequests = 20;
+
+        /**
+         * 统计窗口
+         */
+        private Duration statInterval = Duration.ofSeconds(10);
+
+        /**
+         * 熔断时长
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+    }
+
+    /**
+     * 对冲请求配置
+     * 只对GET请求生效，需要路由使用lb://地址且服务至少有两个实例。
+     * 首个请求在对冲延迟内未收到响应时，向另一个实例发送相同请求，使用先返回的响应并取消另一个。
+     * 对冲延迟取该路由最近请求耗时的p95，限制在minDelay和maxDelay之间，样本不足时使用maxDelay。
+     * 对冲请求完整缓冲响应体，只适合响应较小的查询接口；胜出的响应同样按重试配置重试
+     */
+    @Data
+    public static class Hedge {
+        /**
+         * 是否启用对冲请求
+         */
+        private boolean enabled = false;
+
+        /**
+         * 最小对冲延迟
+         */
+        private Duration minDelay = Duration.ofMillis(20);
+
+        /**
+         * 最大对冲延迟
+         */
+        private Duration maxDelay = Duration.ofMillis(500);
+
+        /**
+         * 对冲转发缓冲的最大响应体字节数，超过时放弃对冲，改由正常过滤器链流式转发
+         */
+        private int maxBufferedBytes = 256 * 1024;
+    }
+
+    /**
+     * 系统自适应保护配置
+     * 根据CPU使用率、平均响应时间等系统指标自动限制入口流量，各阈值为负数时不启用
+     */
+    @Data
+    public static class Adaptive {
+        /**
+         * 是否启用系统自适应保护
+         */
+        private boolean enabled = false;
+
+        /**
+         * CPU使用率阈值（0-1）
+         */
+        private double highestCpuUsage = 0.8;
+
+        /**
+         * 系统负载阈值（load1），只在Linux/Unix上生效
+         */
+        private double highestSystemLoad = -1;
+
+        /**
+         * 入口请求平均响应时间阈值（毫秒）
+         */
+        private long avgRt = -1;
+
+        /**
+         * 入口并发线程数阈值
+         */
+        private long maxThread = -1;
+
+        /**
+         * 入口总QPS阈值
+         */
+        private double qps = -1;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.gateway.protection.config;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayParamFlowItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayRuleManager;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.system.SystemRule;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+import com.example.gateway.security.filter.JwtAuthenticationFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 流量保护规则加载器
+ * 从app.protection配置构建Sentinel规则，启动时加载一次，管理员调用POST /actuator/refresh刷新配置后，
+ * RefreshEndpoint发布的EnvironmentChangeEvent包含流量保护配置项时重新加载：
+ * <ul>
+ *     <li>快速失败和匀速排队的路由限流、按用户和按IP的参数限流使用网关流控规则</li>
+ *     <li>网关流控规则不支持预热，预热类路由限流使用以路由ID为资源的普通流控规则</li>
+ *     <li>路由熔断使用以路由ID为资源的熔断降级规则</li>
+ *     <li>系统自适应保护使用系统规则</li>
+ * </ul>
+ * 超时、重试和对冲配置不转换为Sentinel规则，由上游弹性过滤器通过{@link #routeRule(String)}读取当前配置
+ */
+public class ProtectionRuleLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(ProtectionRuleLoader.class);
+
+    private static final String PREFIX = "app.protection";
+    /**
+     * 网关认证后设置的用户ID请求头，客户端自带的同名请求头在认证前已被移除，未认证请求不带此请求头
+     */
+    private static final String USER_ID_HEADER = JwtAuthenticationFilter.USER_ID_HEADER;
+
+    private final Environment environment;
+
+    private volatile Map<String, ProtectionProperties.RouteRule> routeRules = Collections.emptyMap();
+
+    public ProtectionRuleLoader(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void load() {
+        ProtectionProperties properties = Binder.get(environment)
+                .bind(PREFIX, ProtectionProperties.class)
+                .orElseGet(ProtectionProperties::new);
+
+        Set<GatewayFlowRule> gatewayRules = new HashSet<>();
+        List<FlowRule> flowRules = new ArrayList<>();
+        List<DegradeRule> degradeRules = new ArrayList<>();
+        for (Map.Entry<String, ProtectionProperties.RouteRule> entry : properties.getRoutes().entrySet()) {
+            addRouteRules(entry.getKey(), entry.getValue(), gatewayRules, flowRules);
+            addDegradeRules(entry.getKey(), entry.getValue().getCircuitBreaker(), degradeRules);
+        }
+
+        GatewayRuleManager.loadRules(gatewayRules);
+        FlowRuleManager.loadRules(flowRules);
+        DegradeRuleManager.loadRules(degradeRules);
+        SystemRuleManager.loadRules(systemRules(properties.getAdaptive()));
+        routeRules = properties.getRoutes();
+
+        log.info("Gateway protection rules loaded, gateway rules: {}, warm-up rules: {}, degrade rules: {}, "
+                        + "adaptive: {}", gatewayRules.size(), flowRules.size(), degradeRules.size(),
+                properties.getAdaptive().isEnabled());
+    }
+
+    /**
+     * 获取路由当前的保护配置
+     * @param routeId 路由ID
+     * @return 路由未配置时返回null
+     */
+    public ProtectionProperties.RouteRule routeRule(String routeId) {
+        return routeRules.get(routeId);
+    }
+
+    /**
+     * 配置刷新时只在流量保护配置发生变化后重新加载
+     * 事件由/actuator/refresh端点刷新配置后发布，键为发生变化的配置项
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        boolean changed = event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX));
+        if (changed) {
+            load();
+        }
+    }
+
+    private void addRouteRules(String routeId, ProtectionProperties.RouteRule rule,
+                               Set<GatewayFlowRule> gatewayRules, List<FlowRule> flowRules) {
+        ProtectionProperties.ControlBehavior behavior = rule.getControlBehavior();
+        boolean warmUp = behavior == ProtectionProperties.ControlBehavior.WARM_UP
+                || behavior == ProtectionProperties.ControlBehavior.WARM_UP_RATE_LIMITER;
+        boolean queueing = behavior == ProtectionProperties.ControlBehavior.RATE_LIMITER
+                || behavior == ProtectionProperties.ControlBehavior.WARM_UP_RATE_LIMITER;
+
+        if (rule.getQps() > 0) {
+            if (warmUp) {
+                FlowRule flowRule = new FlowRule(routeId);
+                flowRule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+                flowRule.setCount(rule.getQps());
+                flowRule.setControlBehavior(queueing
+                        ? RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER
+                        : RuleConstant.CONTROL_BEHAVIOR_WARM_UP);
+                flowRule.setWarmUpPeriodSec((int) Math.max(rule.getWarmUpPeriod().getSeconds(), 1));
+                flowRule.setMaxQueueingTimeMs((int) rule.getMaxQueueingTime().toMillis());
+                flowRules.add(flowRule);
+            } else {
+                gatewayRules.add(createGatewayRule(routeId, rule, rule.getQps(), queueing, null));
+            }
+        }
+
+        // 按用户和按IP的参数限流，单个用户或IP的突发流量不会占满整个路由的配额
+        if (rule.getPerUserQps() > 0) {
+            GatewayParamFlowItem userItem = new GatewayParamFlowItem()
+                    .setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HEADER)
+                    .setFieldName(USER_ID_HEADER);
+            gatewayRules.add(createGatewayRule(routeId, rule, rule.getPerUserQps(), queueing, userItem));
+        }
+        if (rule.getPerIpQps() > 0) {
+            GatewayParamFlowItem ipItem = new GatewayParamFlowItem()
+                    .setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_CLIENT_IP);
+            gatewayRules.add(createGatewayRule(routeId, rule, rule.getPerIpQps(), queueing, ipItem));
+        }
+    }
+
+    /**
+     * 创建网关流控规则
+     */
+    private GatewayFlowRule createGatewayRule(String routeId, ProtectionProperties.RouteRule rule, double count,
+                                              boolean queueing, GatewayParamFlowItem paramItem) {
+        GatewayFlowRule gatewayRule = new GatewayFlowRule(routeId)
+                .setGrade(RuleConstant.FLOW_GRADE_QPS)
+                .setCount(count)
+                .setIntervalSec(1);
+        if (queueing) {
+            gatewayRule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+                    .setMaxQueueingTimeoutMs((int) rule.getMaxQueueingTime().toMillis());
+        } else {
+            gatewayRule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_DEFAULT)
+                    .setBurst(rule.getBurst());
+        }
+        if (paramItem != null) {
+            gatewayRule.setParamItem(paramItem);
+        }
+        return gatewayRule;
+    }
+
+    /**
+     * 慢调用比例和异常比例分别对应一条熔断降级规则，任意一条触发都会熔断路由
+     */
+    private void addDegradeRules(String routeId, ProtectionProperties.CircuitBreaker config,
+                                 List<DegradeRule> degradeRules) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (config.getSlowCallRatio() <= 1) {
+            DegradeRule slowRule = createDegradeRule(routeId, config, RuleConstant.DEGRADE_GRADE_RT,
+                    config.getSlowCallDuration().toMillis());
+            slowRule.setSlowRatioThreshold(config.getSlowCallRatio());
+            degradeRules.add(slowRule);
+        }
+        if (config.getErrorRatio() <= 1) {
+            degradeRules.add(createDegradeRule(routeId, config, RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO,
+                    config.getErrorRatio()));
+        }
+    }
+
+    private DegradeRule createDegradeRule(String routeId, ProtectionProperties.CircuitBreaker config,
+                                          int grade, double count) {
+        DegradeRule rule = new DegradeRule(routeId);
+        rule.setGrade(grade);
+        rule.setCount(count);
+        rule.setMinRequestAmount(config.getMinRequests());
+        rule.setStatIntervalMs((int) config.getStatInterval().toMillis());
+        rule.setTimeWindow((int) Math.max(config.getOpenDuration().getSeconds(), 1));
+        return rule;
+    }
+
+    private List<SystemRule> systemRules(ProtectionProperties.Adaptive adaptive) {
+        if (!adaptive.isEnabled()) {
+            return Collections.emptyList();
+        }
+        SystemRule systemRule = new SystemRule();
+        systemRule.setHighestCpuUsage(adaptive.getHighestCpuUsage());
+        systemRule.setHighestSystemLoad(adaptive.getHighestSystemLoad());
+        systemRule.setAvgRt(adaptive.getAvgRt());
+        systemRule.setMaxThread(adaptive.getMaxThread());
+        systemRule.setQps(adaptive.getQps());
+        return Collections.singletonList(systemRule);
+    }
+}
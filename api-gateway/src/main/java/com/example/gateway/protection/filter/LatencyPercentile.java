@@ -0,0 +1,58 @@
+package com.example.gateway.protection.filter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动窗口延迟分位数
+ * 保存最近若干次请求的耗时，每记录固定次数后重新计算一次分位数，读取时不需要排序
+ */
+class LatencyPercentile {
+
+    private static final int WINDOW_SIZE = 256;
+    private static final int RECOMPUTE_INTERVAL = 32;
+    private static final int MIN_SAMPLES = 64;
+
+    private final double percentile;
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW_SIZE);
+    private final AtomicLong count = new AtomicLong();
+    private volatile long value = -1;
+
+    /**
+     * @param percentile 分位数（0-1），如0.95
+     */
+    LatencyPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    /**
+     * 记录一次请求耗时
+     * @param nanos 耗时（纳秒）
+     */
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % WINDOW_SIZE), nanos);
+        if ((n + 1) % RECOMPUTE_INTERVAL == 0 && n + 1 >= MIN_SAMPLES) {
+            recompute((int) Math.min(n + 1, WINDOW_SIZE));
+        }
+    }
+
+    /**
+     * 获取最近一次计算的分位数
+     * @return 分位数（纳秒），样本不足时返回-1
+     */
+    long nanos() {
+        return value;
+    }
+
+    private void recompute(int filled) {
+        long[] sorted = new long[filled];
+        for (int i = 0; i < filled; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * filled) - 1;
+        value = sorted[Math.max(0, Math.min(index, filled - 1))];
+    }
+}
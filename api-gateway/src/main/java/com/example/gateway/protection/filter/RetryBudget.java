@@ -0,0 +1,52 @@
+package com.example.gateway.protection.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重试预算
+ * 每个请求存入一定比例的令牌，每次重试或对冲请求消耗一个令牌，令牌数有上限。
+ * 额外请求数因此不超过正常请求数的固定比例，上游整体故障时重试不会放大流量
+ */
+class RetryBudget {
+
+    /**
+     * 令牌以千分之一为单位存储，避免浮点数CAS
+     */
+    private static final long SCALE = 1000;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    /**
+     * 为一次请求存入令牌
+     * @param ratio 每个请求存入的令牌数
+     * @param burst 令牌上限
+     */
+    void deposit(double ratio, int burst) {
+        long amount = Math.round(ratio * SCALE);
+        long max = burst * SCALE;
+        long current;
+        long next;
+        do {
+            current = tokens.get();
+            next = Math.min(current + amount, max);
+            if (next == current) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, next));
+    }
+
+    /**
+     * 尝试消耗一个令牌
+     * @return 令牌不足时返回false，此时不应重试
+     */
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - SCALE));
+        return true;
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.gateway.protection.filter;
+
+import com.example.gateway.metrics.filter.LatencyTimers;
+import com.example.gateway.protection.config.ProtectionProperties;
+import com.example.gateway.protection.config.ProtectionRuleLoader;
+import com.example.gateway.routing.balancer.LeastLoadedLoadBalancer;
+import com.example.gateway.routing.filter.LoadBalancerFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.ByteArrayOutputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 上游弹性过滤器
+ * 按app.protection.routes中的路由配置为转发到上游的请求增加超时、带预算的重试和对冲请求：
+ * <ul>
+ *     <li>超时：等待上游响应头超过路由超时时间时返回504，并计入Sentinel熔断的异常比例</li>
+ *     <li>重试：GET和HEAD请求在连接失败或上游返回502、503时重新选择实例转发，受路由重试预算限制</li>
+ *     <li>对冲：GET请求在p95延迟内未收到响应时向另一个实例发送相同请求，先返回的响应胜出；
+ *     对冲转发不经过后续过滤器，胜出的响应同样按上述规则重试，上游耗时由本过滤器记录；
+ *     对冲转发缓冲完整响应体，响应体超过缓冲上限时放弃对冲，改由正常过滤器链流式转发</li>
+ * </ul>
+ * 在RouteToRequestUrlFilter之后、负载均衡过滤器之前执行，重试时恢复lb地址使负载均衡器重新选择实例
+ */
+public class UpstreamResilienceFilter implements GlobalFilter, Ordered {
+
+    private static final String LB_SCHEME = "lb";
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final ProtectionRuleLoader ruleLoader;
+    private final LeastLoadedLoadBalancer loadBalancer;
+    private final HttpClient httpClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+    private final Map<String, LatencyPercentile> latencies = new ConcurrentHashMap<>();
+    private volatile List<HttpHeadersFilter> headersFilters;
+
+    public UpstreamResilienceFilter(ProtectionRuleLoader ruleLoader, LeastLoadedLoadBalancer loadBalancer,
+                                    HttpClient httpClient,
+                                    ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                    MeterRegistry meterRegistry) {
+        this.ruleLoader = ruleLoader;
+        this.loadBalancer = loadBalancer;
+        this.httpClient = httpClient;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ProtectionProperties.RouteRule rule = route != null ? ruleLoader.routeRule(route.getId()) : null;
+        if (rule == null) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        ProtectionProperties.Retry retry = rule.getRetry();
+        RetryBudget budget = budgets.computeIfAbsent(routeId, key -> new RetryBudget());
+        budget.deposit(retry.getBudgetRatio(), retry.getBudgetBurst());
+
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        String schemePrefix = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_SCHEME_PREFIX_ATTR);
+        HttpMethod method = exchange.getRequest().getMethod();
+
+        boolean idempotent = method == HttpMethod.GET
+                || method == HttpMethod.HEAD;
+        int maxAttempts = idempotent ? retry.getMaxAttempts() : 1;
+
+        if (rule.getHedge().isEnabled() && method == HttpMethod.GET
+                && requestUrl != null && LB_SCHEME.equals(requestUrl.getScheme())) {
+            long start = System.nanoTime();
+            return hedgedAttempt(exchange, routeId, rule, budget, requestUrl, 1, maxAttempts)
+                    .doOnSuccess(response -> LatencyTimers.recordUpstream(exchange, System.nanoTime() - start))
+                    .doOnError(e -> LatencyTimers.recordUpstream(exchange, System.nanoTime() - start))
+                    .flatMap(response -> writeResponse(exchange, response))
+                    // 响应体超过缓冲上限，请求尚未写出响应，改由正常过滤器链流式转发
+                    .onErrorResume(DataBufferLimitException.class, e -> {
+                        meterRegistry.counter("gateway.upstream.hedge.fallbacks", "route", routeId).increment();
+                        return attempt(exchange, chain, routeId, rule.getTimeout(), budget, requestUrl,
+                                schemePrefix, 1, maxAttempts);
+                    });
+        }
+
+        return attempt(exchange, chain, routeId, rule.getTimeout(), budget, requestUrl, schemePrefix, 1, maxAttempts);
+    }
+
+    /**
+     * 转发一次请求，失败且允许重试时恢复请求地址后再次转发
+     */
+    private Mono<Void> attempt(ServerWebExchange exchange, GatewayFilterChain chain, String routeId,
+                               Duration timeout, RetryBudget budget, URI requestUrl, String schemePrefix,
+                               int attempt, int maxAttempts) {
+        boolean canRetry = attempt < maxAttempts;
+        return withTimeout(chain.filter(exchange), timeout)
+                .then(Mono.fromSupplier(() -> canRetry
+                        && isRetryableStatus(exchange.getResponse().getRawStatusCode())
+                        && budget.tryWithdraw()))
+                .onErrorResume(e -> canRetry && isConnectFailure(e) && budget.tryWithdraw()
+                        ? Mono.just(true) : Mono.error(e))
+                .flatMap(retry -> {
+                    if (!retry) {
+                        return Mono.empty();
+                    }
+                    meterRegistry.counter("gateway.upstream.retries", "route", routeId).increment();
+                    prepareRetry(exchange, requestUrl, schemePrefix);
+                    return attempt(exchange, chain, routeId, timeout, budget, requestUrl, schemePrefix,
+                            attempt + 1, maxAttempts);
+                });
+    }
+
+    /**
+     * 丢弃上一次的上游响应，恢复lb地址
+     */
+    private static void prepareRetry(ServerWebExchange exchange, URI requestUrl, String schemePrefix) {
+        Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.dispose();
+        }
+        exchange.getAttributes().remove(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        exchange.getAttributes().remove(ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR);
+        ServerWebExchangeUtils.reset(exchange);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, requestUrl);
+        if (schemePrefix != null) {
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_SCHEME_PREFIX_ATTR, schemePrefix);
+        }
+    }
+
+    private static boolean isRetryableStatus(Integer status) {
+        return status != null && (status == HttpStatus.BAD_GATEWAY.value()
+                || status == HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    /**
+     * 连接失败时请求还未发出，重试是安全的；超时的请求可能已在上游执行，不重试
+     */
+    private static boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 对冲转发一轮，胜出的响应为502、503或连接失败且允许重试时重新对冲转发
+     */
+    private Mono<UpstreamResponse> hedgedAttempt(ServerWebExchange exchange, String routeId,
+                                                 ProtectionProperties.RouteRule rule, RetryBudget budget,
+                                                 URI requestUrl, int attempt, int maxAttempts) {
+        boolean canRetry = attempt < maxAttempts;
+        return hedged(exchange, routeId, rule, budget, requestUrl)
+                .materialize()
+                .flatMap(signal -> {
+                    boolean retry = canRetry
+                            && (signal.isOnError()
+                                ? isConnectFailure(signal.getThrowable())
+                                : signal.hasValue() && isRetryableStatus(signal.get().status))
+                            && budget.tryWithdraw();
+                    if (!retry) {
+                        return signal.isOnError() ? Mono.error(signal.getThrowable()) : Mono.justOrEmpty(signal.get());
+                    }
+                    meterRegistry.counter("gateway.upstream.retries", "route", routeId).increment();
+                    return hedgedAttempt(exchange, routeId, rule, budget, requestUrl, attempt + 1, maxAttempts);
+                });
+    }
+
+    /**
+     * 对冲转发
+     * 首个请求在对冲延迟内未返回时向另一个实例发送相同请求，首个请求在对冲发出前失败则直接返回错误
+     */
+    private Mono<UpstreamResponse> hedged(ServerWebExchange exchange, String routeId,
+                                          ProtectionProperties.RouteRule rule, RetryBudget budget, URI requestUrl) {
+        String serviceId = requestUrl.getHost();
+        LatencyPercentile latency = latencies.computeIfAbsent(routeId,
+                key -> new LatencyPercentile(HEDGE_PERCENTILE));
+        HttpHeaders requestHeaders = requestHeaders(exchange);
+        io.netty.handler.codec.http.HttpMethod method =
+                io.netty.handler.codec.http.HttpMethod.valueOf(exchange.getRequest().getMethodValue());
+        Duration timeout = rule.getTimeout();
+        int maxBufferedBytes = rule.getHedge().getMaxBufferedBytes();
+
+        AtomicReference<ServiceInstance> primaryInstance = new AtomicReference<>();
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        Sinks.Empty<Void> primaryFailed = Sinks.empty();
+
+        Mono<UpstreamResponse> primary = loadBalancer.choose(serviceId)
+                .switchIfEmpty(Mono.error(() -> NotFoundException.create(false,
+                        "Unable to find instance for " + serviceId)))
+                .flatMap(lease -> {
+                    primaryInstance.set(lease.instance());
+                    return send(method, requestUrl, lease, requestHeaders, timeout, maxBufferedBytes, latency);
+                })
+                .doOnError(e -> {
+                    primaryError.set(e);
+                    primaryFailed.tryEmitEmpty();
+                });
+
+        Mono<UpstreamResponse> hedge = Mono.delay(hedgeDelay(rule.getHedge(), latency))
+                .takeUntilOther(primaryFailed.asMono())
+                .filter(tick -> budget.tryWithdraw())
+                .flatMap(tick -> loadBalancer.choose(serviceId, primaryInstance.get()))
+                .flatMap(lease -> {
+                    meterRegistry.counter("gateway.upstream.hedges", "route", routeId).increment();
+                    return send(method, requestUrl, lease, requestHeaders, timeout, maxBufferedBytes, latency);
+                })
+                // 对冲请求失败不影响首个请求
+                .onErrorResume(e -> Mono.empty());
+
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(e -> primaryError.get() != null ? primaryError.get() : e);
+    }
+
+    private Duration hedgeDelay(ProtectionProperties.Hedge config, LatencyPercentile latency) {
+        long p95 = latency.nanos();
+        if (p95 < 0) {
+            return config.getMaxDelay();
+        }
+        long nanos = Math.max(config.getMinDelay().toNanos(), Math.min(p95, config.getMaxDelay().toNanos()));
+        return Duration.ofNanos(nanos);
+    }
+
+    /**
+     * 向选中的实例发送请求并缓冲完整响应
+     * 响应体超过缓冲上限时以DataBufferLimitException结束，声明了Content-Length的响应在读取响应体前即可判断。
+     * 耗时在请求结束时记录，对冲中落后被取消和超时的请求同样记录已等待的时间，
+     * 否则慢请求总是输给对冲请求而从不计入，p95会持续偏低；连接失败不代表上游延迟，不记录
+     */
+    private Mono<UpstreamResponse> send(io.netty.handler.codec.http.HttpMethod method, URI requestUrl, LeastLoadedLoadBalancer.Lease lease,
+                                        HttpHeaders requestHeaders, Duration timeout, int maxBufferedBytes,
+                                        LatencyPercentile latency) {
+        URI target = LoadBalancerFilter.instanceUrl(requestUrl, null, lease.instance());
+        long start = System.nanoTime();
+        Mono<UpstreamResponse> response = httpClient
+                .headers(headers -> requestHeaders.forEach(headers::set))
+                .request(method)
+                .uri(target)
+                .response((clientResponse, body) -> {
+                    String contentLength = clientResponse.responseHeaders().get(HttpHeaders.CONTENT_LENGTH);
+                    if (contentLength != null && Long.parseLong(contentLength) > maxBufferedBytes) {
+                        return Mono.error(bufferLimitExceeded(maxBufferedBytes));
+                    }
+                    ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+                    return body.asByteArray()
+                            .<Void>handle((bytes, sink) -> {
+                                if (buffered.size() + bytes.length > maxBufferedBytes) {
+                                    sink.error(bufferLimitExceeded(maxBufferedBytes));
+                                } else {
+                                    buffered.write(bytes, 0, bytes.length);
+                                }
+                            })
+                            .then(Mono.fromSupplier(() -> {
+                                HttpHeaders headers = new HttpHeaders();
+                                clientResponse.responseHeaders().forEach(entry ->
+                                        headers.add(entry.getKey(), entry.getValue()));
+                                byte[] bytes = buffered.size() > 0 ? buffered.toByteArray() : EMPTY_BODY;
+                                return new UpstreamResponse(clientResponse.status().code(), headers, bytes);
+                            }));
+                })
+                .next();
+        AtomicBoolean connectFailed = new AtomicBoolean();
+        return withTimeout(response, timeout)
+                .doOnError(e -> connectFailed.set(isConnectFailure(e)))
+                .doFinally(signalType -> {
+                    lease.release();
+                    if (!connectFailed.get()) {
+                        latency.record(System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private static DataBufferLimitException bufferLimitExceeded(int maxBufferedBytes) {
+        return new DataBufferLimitException("Hedged response exceeds buffer limit of " + maxBufferedBytes + " bytes");
+    }
+
+    private HttpHeaders requestHeaders(ServerWebExchange exchange) {
+        // 没有请求头过滤器时返回的是只读的原始请求头，复制后再修改
+        HttpHeaders filtered = new HttpHeaders();
+        filtered.addAll(HttpHeadersFilter.filterRequest(headersFilters(), exchange));
+        boolean preserveHost = exchange.getAttributeOrDefault(
+                ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE, false);
+        if (!preserveHost) {
+            filtered.remove(HttpHeaders.HOST);
+        }
+        return filtered;
+    }
+
+    private Mono<Void> writeResponse(ServerWebExchange exchange, UpstreamResponse upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setRawStatusCode(upstream.status);
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFilters(), upstream.headers, exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        response.getHeaders().putAll(filtered);
+        response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        response.getHeaders().setContentLength(upstream.body.length);
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(upstream.body)));
+    }
+
+    private List<HttpHeadersFilter> headersFilters() {
+        List<HttpHeadersFilter> filters = headersFilters;
+        if (filters == null) {
+            filters = headersFiltersProvider.getIfAvailable(Collections::emptyList);
+            headersFilters = filters;
+        }
+        return filters;
+    }
+
+    private static <T> Mono<T> withTimeout(Mono<T> mono, Duration timeout) {
+        if (timeout == null) {
+            return mono;
+        }
+        return mono.timeout(timeout, Mono.error(() -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                "Response took longer than timeout: " + timeout)));
+    }
+
+    @Override
+    public int getOrder() {
+        return LoadBalancerFilter.ORDER - 1;
+    }
+
+    /**
+     * 缓冲的上游响应
+     */
+    private static class UpstreamResponse {
+
+        private final int status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        UpstreamResponse(int status, HttpHeaders headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
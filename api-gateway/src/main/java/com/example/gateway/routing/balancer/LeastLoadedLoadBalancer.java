@@ -0,0 +1,186 @@
+package com.example.gateway.routing.balancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 最少负载负载均衡器
+ * 记录网关发往每个服务实例的在途请求数，每次随机取两个实例，选择在途请求较少的一个（power of two choices）。
+ * 相比轮询能避开变慢的实例，又不会像全局最少连接那样让所有请求同时涌向同一个刚恢复的实例。
+ * 实例列表从服务发现客户端获取并按刷新间隔缓存，注册中心暂时不可用时沿用上一次的实例列表
+ */
+public class LeastLoadedLoadBalancer {
+
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final Duration refreshInterval;
+
+    private final Map<String, CachedInstances> instances = new ConcurrentHashMap<>();
+
+    /**
+     * 各实例的在途请求数，键为服务ID和实例地址
+     */
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public LeastLoadedLoadBalancer(ReactiveDiscoveryClient discoveryClient, Duration refreshInterval) {
+        this.discoveryClient = discoveryClient;
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * 为一次请求选择服务实例
+     * @param serviceId 服务ID
+     * @return 选中实例的租约，请求结束后必须释放；服务没有可用实例时返回空
+     */
+    public Mono<Lease> choose(String serviceId) {
+        return instances(serviceId)
+                .flatMap(list -> list.isEmpty() ? Mono.empty() : Mono.just(acquire(serviceId, list)));
+    }
+
+    /**
+     * 选择指定实例以外的服务实例，用于向另一个实例发送对冲请求
+     * @param serviceId 服务ID
+     * @param exclude 需要排除的实例
+     * @return 选中实例的租约，没有其他实例时返回空
+     */
+    public Mono<Lease> choose(String serviceId, ServiceInstance exclude) {
+        return instances(serviceId).flatMap(list -> {
+            List<ServiceInstance> candidates = new ArrayList<>(list.size());
+            for (ServiceInstance instance : list) {
+                if (!sameAddress(instance, exclude)) {
+                    candidates.add(instance);
+                }
+            }
+            return candidates.isEmpty() ? Mono.empty() : Mono.just(acquire(serviceId, candidates));
+        });
+    }
+
+    private Mono<List<ServiceInstance>> instances(String serviceId) {
+        CachedInstances cached = instances.get(serviceId);
+        return cached != null && cached.expiresAt > System.nanoTime()
+                ? Mono.just(cached.list)
+                : loadInstances(serviceId);
+    }
+
+    private static boolean sameAddress(ServiceInstance a, ServiceInstance b) {
+        return b != null && a.getPort() == b.getPort() && a.getHost().equals(b.getHost());
+    }
+
+    /**
+     * 查询服务实例列表
+     * 查询失败时沿用已过期的列表，没有实例时不缓存，下次请求重新查询
+     */
+    private Mono<List<ServiceInstance>> loadInstances(String serviceId) {
+        return discoveryClient.getInstances(serviceId)
+                .collectList()
+                .doOnNext(list -> {
+                    if (!list.isEmpty()) {
+                        long expiresAt = System.nanoTime() + refreshInterval.toNanos();
+                        instances.put(serviceId, new CachedInstances(list, expiresAt));
+                    }
+                    retainCounters(serviceId, list);
+                })
+                .onErrorResume(e -> {
+                    CachedInstances stale = instances.get(serviceId);
+                    return stale != null ? Mono.just(stale.list) : Mono.error(e);
+                });
+    }
+
+    Lease acquire(String serviceId, List<ServiceInstance> list) {
+        ServiceInstance chosen;
+        if (list.size() == 1) {
+            chosen = list.get(0);
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(list.size());
+            int second = random.nextInt(list.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            ServiceInstance a = list.get(first);
+            ServiceInstance b = list.get(second);
+            chosen = counter(serviceId, a).get() <= counter(serviceId, b).get() ? a : b;
+        }
+        AtomicInteger counter = counter(serviceId, chosen);
+        counter.incrementAndGet();
+        return new Lease(chosen, counter);
+    }
+
+    /**
+     * 获取实例当前的在途请求数
+     */
+    int inFlight(String serviceId, ServiceInstance instance) {
+        AtomicInteger counter = inFlight.get(counterKey(serviceId, instance));
+        return counter != null ? counter.get() : 0;
+    }
+
+    private AtomicInteger counter(String serviceId, ServiceInstance instance) {
+        return inFlight.computeIfAbsent(counterKey(serviceId, instance), key -> new AtomicInteger());
+    }
+
+    /**
+     * 清理已下线实例的计数器，租约持有计数器引用，在途请求结束时仍能正常释放
+     */
+    private void retainCounters(String serviceId, List<ServiceInstance> list) {
+        String prefix = serviceId + "@";
+        Set<String> current = new HashSet<>();
+        for (ServiceInstance instance : list) {
+            current.add(counterKey(serviceId, instance));
+        }
+        inFlight.keySet().removeIf(key -> key.startsWith(prefix) && !current.contains(key));
+    }
+
+    private static String counterKey(String serviceId, ServiceInstance instance) {
+        return serviceId + "@" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static class CachedInstances {
+
+        private final List<ServiceInstance> list;
+        private final long expiresAt;
+
+        CachedInstances(List<ServiceInstance> list, long expiresAt) {
+            this.list = list;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 服务实例租约
+     * 请求结束时释放，释放后实例的在途请求数减一
+     */
+    public static class Lease {
+
+        private final ServiceInstance instance;
+        private final AtomicInteger counter;
+        private final AtomicInteger released = new AtomicInteger();
+
+        Lease(ServiceInstance instance, AtomicInteger counter) {
+            this.instance = instance;
+            this.counter = counter;
+        }
+
+        public ServiceInstance instance() {
+            return instance;
+        }
+
+        /**
+         * 释放租约，重复调用无效
+         */
+        public void release() {
+            if (released.compareAndSet(0, 1)) {
+                counter.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.gateway.routing.client;
+
+import com.example.gateway.routing.config.RoutingProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 网关上游HTTP客户端工厂
+ * 默认工厂创建的fixed连接池不限制等待获取连接的请求数，上游变慢时排队请求会无限堆积。
+ * 此工厂为fixed连接池增加等待队列上限和连接获取顺序，其余配置与默认工厂一致
+ */
+public class PooledHttpClientFactory extends HttpClientFactory {
+
+    private final RoutingProperties.Pool poolConfig;
+
+    public PooledHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                   HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                   RoutingProperties routingProperties) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.poolConfig = routingProperties.getPool();
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        HttpClientProperties.Pool pool = properties.getPool();
+        if (pool.getType() != HttpClientProperties.Pool.PoolType.FIXED) {
+            return super.buildConnectionProvider(properties);
+        }
+
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName())
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(poolConfig.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()));
+        if (pool.getMaxIdleTime() != null) {
+            builder.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (pool.getMaxLifeTime() != null) {
+            builder.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (poolConfig.getLeaseStrategy() == RoutingProperties.LeaseStrategy.LIFO) {
+            builder.lifo();
+        } else {
+            builder.fifo();
+        }
+        return builder.evictInBackground(pool.getEvictionInterval())
+                .metrics(pool.isMetrics())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.gateway.routing.config;
+
+import com.example.gateway.routing.balancer.LeastLoadedLoadBalancer;
+import com.example.gateway.routing.client.PooledHttpClientFactory;
+import com.example.gateway.routing.filter.LeaseReleaseFilter;
+import com.example.gateway.routing.filter.LoadBalancerFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 网关路由配置类
+ * 路由地址使用lb://{服务ID}，由服务发现提供实例列表、最少负载负载均衡器选择实例，一个服务可部署多个实例。
+ * 实例列表来自所有ReactiveDiscoveryClient，默认使用spring.cloud.discovery.client.simple.instances静态配置
+ */
+@Configuration
+public class RoutingConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "app.routing")
+    public RoutingProperties routingProperties() {
+        return new RoutingProperties();
+    }
+
+    @Bean
+    public LeastLoadedLoadBalancer leastLoadedLoadBalancer(ReactiveDiscoveryClient discoveryClient,
+                                                           RoutingProperties routingProperties) {
+        return new LeastLoadedLoadBalancer(discoveryClient,
+                routingProperties.getLoadBalancer().getInstanceRefreshInterval());
+    }
+
+    /**
+     * 负载均衡过滤器
+     * 将lb地址替换为选中实例的地址
+     */
+    @Bean
+    public GlobalFilter loadBalancerFilter(LeastLoadedLoadBalancer leastLoadedLoadBalancer) {
+        return new LoadBalancerFilter(leastLoadedLoadBalancer);
+    }
+
+    /**
+     * 租约释放过滤器
+     * 上游响应体写完后释放负载均衡过滤器选中实例的租约
+     */
+    @Bean
+    public GlobalFilter leaseReleaseFilter() {
+        return new LeaseReleaseFilter();
+    }
+
+    /**
+     * 上游HTTP客户端工厂
+     * 替换网关默认的客户端工厂，为连接池增加等待队列上限和连接获取顺序
+     */
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties httpClientProperties,
+                                                      ServerProperties serverProperties,
+                                                      HttpClientSslConfigurer httpClientSslConfigurer,
+                                                      ObjectProvider<HttpClientCustomizer> customizers,
+                                                      RoutingProperties routingProperties) {
+        List<HttpClientCustomizer> customizerList = customizers.orderedStream().collect(Collectors.toList());
+        return new PooledHttpClientFactory(httpClientProperties, serverProperties, httpClientSslConfigurer,
+                customizerList, routingProperties);
+    }
+}
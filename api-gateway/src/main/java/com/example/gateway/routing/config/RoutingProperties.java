@@ -0,0 +1,66 @@
+package com.example.gateway.routing.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 网关路由配置属性类
+ * 对应app.routing配置，补充spring.cloud.gateway.httpclient.pool未提供的连接池参数和负载均衡参数
+ */
+@Data
+public class RoutingProperties {
+
+    /**
+     * 上游连接池配置
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * 负载均衡配置
+     */
+    private LoadBalancer loadBalancer = new LoadBalancer();
+
+    /**
+     * 连接获取顺序
+     */
+    public enum LeaseStrategy {
+        /**
+         * 先进先出，连接轮流使用
+         */
+        FIFO,
+        /**
+         * 后进先出，优先复用最近归还的连接，低峰期多余的连接保持空闲并被驱逐
+         */
+        LIFO
+    }
+
+    /**
+     * 上游连接池补充配置
+     * 连接数、获取超时、空闲时间和驱逐间隔使用spring.cloud.gateway.httpclient.pool配置
+     */
+    @Data
+    public static class Pool {
+        /**
+         * 等待获取连接的最大请求数，超过时立即失败，-1表示不限制
+         * 仅fixed类型连接池有效，避免上游变慢时排队请求无限堆积
+         */
+        private int pendingAcquireMaxCount = 1000;
+
+        /**
+         * 连接获取顺序
+         */
+        private LeaseStrategy leaseStrategy = LeaseStrategy.LIFO;
+    }
+
+    /**
+     * 负载均衡配置
+     */
+    @Data
+    public static class LoadBalancer {
+        /**
+         * 服务实例列表的刷新间隔
+         */
+        private Duration instanceRefreshInterval = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.gateway.routing.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 租约释放过滤器
+ * 在NettyWriteResponseFilter之外执行，过滤器链在上游响应体写完、出错或被取消后才结束，
+ * 此时释放{@link LoadBalancerFilter}保存的实例租约，在途计数覆盖响应体传输的全过程
+ */
+public class LeaseReleaseFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 过滤器顺序，在写出响应的过滤器和响应缓存过滤器之外
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange)
+                .doFinally(signalType -> LoadBalancerFilter.releaseLease(exchange));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
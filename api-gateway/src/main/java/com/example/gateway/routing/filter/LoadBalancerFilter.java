@@ -0,0 +1,105 @@
+package com.example.gateway.routing.filter;
+
+import com.example.gateway.routing.balancer.LeastLoadedLoadBalancer;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * 负载均衡过滤器
+ * 将lb://{服务ID}形式的请求地址替换为负载均衡器选中的实例地址。
+ * 本过滤器的过滤器链在收到上游响应头时就已结束，响应体由外层的NettyWriteResponseFilter写出，
+ * 租约保存在exchange属性中，由{@link LeaseReleaseFilter}在响应体写完后释放实例的在途计数。
+ * 在RouteToRequestUrlFilter生成请求地址之后、框架自带的负载均衡过滤器之前执行；
+ * 网关未引入spring-cloud-loadbalancer，框架只注册了对lb地址直接报错的占位过滤器
+ */
+public class LoadBalancerFilter implements GlobalFilter, Ordered {
+
+    private static final String LB_SCHEME = "lb";
+
+    /**
+     * 框架负载均衡过滤器的顺序（ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER）
+     */
+    private static final int LOAD_BALANCER_CLIENT_FILTER_ORDER = 10150;
+
+    /**
+     * 过滤器顺序
+     */
+    public static final int ORDER = LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+
+    /**
+     * 当前转发请求持有的实例租约
+     */
+    public static final String LEASE_ATTR = LoadBalancerFilter.class.getName() + ".lease";
+
+    private final LeastLoadedLoadBalancer loadBalancer;
+
+    public LoadBalancerFilter(LeastLoadedLoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        String schemePrefix = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_SCHEME_PREFIX_ATTR);
+        if (url == null || (!LB_SCHEME.equals(url.getScheme()) && !LB_SCHEME.equals(schemePrefix))) {
+            return chain.filter(exchange);
+        }
+
+        ServerWebExchangeUtils.addOriginalRequestUrl(exchange, url);
+        String serviceId = url.getHost();
+        return loadBalancer.choose(serviceId)
+                .switchIfEmpty(Mono.error(() -> NotFoundException.create(false,
+                        "Unable to find instance for " + serviceId)))
+                .flatMap(lease -> {
+                    // 重试时上一次转发的响应不会写出，先释放上一次的租约
+                    releaseLease(exchange);
+                    exchange.getAttributes().put(LEASE_ATTR, lease);
+                    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                            instanceUrl(url, schemePrefix, lease.instance()));
+                    exchange.getAttributes().remove(ServerWebExchangeUtils.GATEWAY_SCHEME_PREFIX_ATTR);
+                    // 转发失败或取消时不会写出响应体，立即释放；正常结束时由LeaseReleaseFilter在响应体写完后释放
+                    return chain.filter(exchange)
+                            .doOnError(error -> releaseLease(exchange))
+                            .doOnCancel(() -> releaseLease(exchange));
+                });
+    }
+
+    /**
+     * 释放exchange持有的实例租约
+     */
+    static void releaseLease(ServerWebExchange exchange) {
+        LeastLoadedLoadBalancer.Lease lease = exchange.getAttribute(LEASE_ATTR);
+        exchange.getAttributes().remove(LEASE_ATTR);
+        if (lease != null) {
+            lease.release();
+        }
+    }
+
+    /**
+     * 将lb地址的主机和端口替换为实例地址
+     * lb:ws://形式的地址保留原始协议，lb://形式的地址按实例是否启用TLS使用http或https
+     */
+    public static URI instanceUrl(URI url, String schemePrefix, ServiceInstance instance) {
+        String scheme = LB_SCHEME.equals(schemePrefix) ? url.getScheme() : (instance.isSecure() ? "https" : "http");
+        return UriComponentsBuilder.fromUri(url)
+                .scheme(scheme)
+                .host(instance.getHost())
+                .port(instance.getPort())
+                .build(true)
+                .toUri();
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
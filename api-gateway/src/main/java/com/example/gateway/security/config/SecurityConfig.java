@@ -46,6 +46,8 @@ public class SecurityConfig {
                         .pathMatchers("/api/files/download/**").permitAll()
                         // 静态资源不需要认证
                         .pathMatchers("/", "/static/**", "/public/**").permitAll()
+                        // 配置刷新会重新加载流量保护规则，只允许管理员调用
+                        .pathMatchers("/actuator/refresh").hasRole("ADMIN")
                         // 健康检查接口不需要认证
                         .pathMatchers("/actuator/**").permitAll()
                         // 其他API接口需要认证
@@ -1,6 +1,6 @@
 package com.example.gateway.security.filter;
 
-import com.example.shared.util.JwtUtil;
+import com.example.gateway.security.jwt.ReactiveJwtValidator;
 import io.jsonwebtoken.Claims;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -18,24 +18,33 @@ import reactor.core.publisher.Mono;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * JWT认证过滤器
  * 负责验证JWT token并设置Spring Security认证上下文
  * 适配WebFlux环境，使用ServerWebExchange替代HttpServletRequest
- * 作为WebFilter集成到Spring Security的过滤器链中
+ * token校验（包括Redis黑名单查询）全程非阻塞，不占用事件循环线程
+ * 作为WebFilter集成到Spring Security的过滤器链中。
+ * 用户身份请求头只能由网关根据已校验的token设置，客户端自带的同名请求头一律先移除，
+ * 否则未认证请求可以伪造身份，绕过按用户限流或冒充用户访问下游服务
  */
 @Component
 public class JwtAuthenticationFilter implements WebFilter {
 
-    private final JwtUtil jwtUtil;
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USERNAME_HEADER = "X-Username";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
-        this.jwtUtil = jwtUtil;
+    private final ReactiveJwtValidator jwtValidator;
+
+    public JwtAuthenticationFilter(ReactiveJwtValidator jwtValidator) {
+        this.jwtValidator = jwtValidator;
     }
 
     @Override
-    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    public Mono<Void> filter(ServerWebExchange inbound, WebFilterChain chain) {
+        ServerWebExchange exchange = stripIdentityHeaders(inbound);
         ServerHttpRequest request = exchange.getRequest();
 
         // 获取Authorization头
@@ -49,62 +58,83 @@ public class JwtAuthenticationFilter implements WebFilter {
 
         String token = header.replace("Bearer ", "");
 
-        try {
-            // 使用JwtUtil验证token（包含黑名单检查）
-            if (jwtUtil.validateToken(token)) {
-                Claims claims = jwtUtil.parseToken(token);
-
-                String username = claims.getSubject();
-                String role = (String) claims.get("role");
-                // 从JWT中获取userId
-                Long userId = Long.valueOf(claims.get("userId").toString());
-
-                // 确保角色有ROLE_前缀，但不要重复添加
-                String roleWithPrefix = role.startsWith("ROLE_") ? role : "ROLE_" + role;
-
-                // 创建用户详情对象，保存额外信息
-                Map<String, Object> details = new HashMap<>();
-                details.put("username", username);
-                details.put("role", role);
-
-                // 创建认证令牌 - 使用userId作为principal
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userId, null, Collections.singletonList(new SimpleGrantedAuthority(roleWithPrefix)));
-
-                // 设置认证详情
-                authentication.setDetails(details);
-
-                // 创建SecurityContext
-                SecurityContext securityContext = new SecurityContextImpl(authentication);
-
-                // 添加用户信息到请求Header中
-                ServerHttpRequest mutatedRequest = request.mutate()
-                        .header("X-User-Id", userId.toString())
-                        .header("X-Username", username)
-                        .header("X-User-Role", role)
-                        .build();
-
-                // 创建新的exchange
-                ServerWebExchange mutatedExchange = exchange.mutate()
-                        .request(mutatedRequest)
-                        .build();
-
-                // 将用户上下文信息存储到exchange的attributes中
-                mutatedExchange.getAttributes().put("userId", userId);
-                mutatedExchange.getAttributes().put("username", username);
-                mutatedExchange.getAttributes().put("userRole", role);
-
-                // 使用ReactiveSecurityContextHolder设置安全上下文，并继续过滤器链
-                return chain.filter(mutatedExchange)
-                        .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(securityContext)));
-            } else {
-                // token验证失败，继续过滤器链（让Spring Security处理未认证情况）
-                return chain.filter(exchange);
-            }
+        // 非阻塞校验token（包含黑名单检查），校验失败时继续过滤器链（让Spring Security处理未认证情况）
+        // 先将结果包装为Optional，避免下游过滤器链正常完成的空信号被误判为校验失败
+        return jwtValidator.validate(token)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(claims -> claims.isPresent()
+                        ? authenticate(exchange, chain, claims.get())
+                        : chain.filter(exchange));
+    }
 
+    private Mono<Void> authenticate(ServerWebExchange exchange, WebFilterChain chain, Claims claims) {
+        try {
+            String username = claims.getSubject();
+            String role = (String) claims.get("role");
+            // 从JWT中获取userId
+            Long userId = Long.valueOf(claims.get("userId").toString());
+
+            // 确保角色有ROLE_前缀，但不要重复添加
+            String roleWithPrefix = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+
+            // 创建用户详情对象，保存额外信息
+            Map<String, Object> details = new HashMap<>();
+            details.put("username", username);
+            details.put("role", role);
+
+            // 创建认证令牌 - 使用userId作为principal
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    userId, null, Collections.singletonList(new SimpleGrantedAuthority(roleWithPrefix)));
+
+            // 设置认证详情
+            authentication.setDetails(details);
+
+            // 创建SecurityContext
+            SecurityContext securityContext = new SecurityContextImpl(authentication);
+
+            // 添加用户信息到请求Header中
+            ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
+                    .header(USER_ID_HEADER, userId.toString())
+                    .header(USERNAME_HEADER, username)
+                    .header(USER_ROLE_HEADER, role)
+                    .build();
+
+            // 创建新的exchange
+            ServerWebExchange mutatedExchange = exchange.mutate()
+                    .request(mutatedRequest)
+                    .build();
+
+            // 将用户上下文信息存储到exchange的attributes中
+            mutatedExchange.getAttributes().put("userId", userId);
+            mutatedExchange.getAttributes().put("username", username);
+            mutatedExchange.getAttributes().put("userRole", role);
+
+            // 使用ReactiveSecurityContextHolder设置安全上下文，并继续过滤器链
+            return chain.filter(mutatedExchange)
+                    .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(securityContext)));
         } catch (Exception e) {
-            // token解析异常，继续过滤器链（让Spring Security处理未认证情况）
+            // token声明不完整，继续过滤器链（让Spring Security处理未认证情况）
             return chain.filter(exchange);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 移除客户端自带的用户身份请求头
+     */
+    private static ServerWebExchange stripIdentityHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (!headers.containsKey(USER_ID_HEADER) && !headers.containsKey(USERNAME_HEADER)
+                && !headers.containsKey(USER_ROLE_HEADER)) {
+            return exchange;
+        }
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(h -> {
+                    h.remove(USER_ID_HEADER);
+                    h.remove(USERNAME_HEADER);
+                    h.remove(USER_ROLE_HEADER);
+                })
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.gateway.security.jwt;
+
+import com.example.shared.config.properties.JwtProperties;
+import com.example.shared.util.JwtUtil;
+import io.lettuce.core.event.connection.ConnectionActivatedEvent;
+import io.lettuce.core.event.connection.ConnectionDeactivatedEvent;
+import io.lettuce.core.resource.ClientResources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 网关本地注销过滤器
+ * 每个网关节点在内存中维护已注销JWT ID的布隆过滤器和最近注销的精确集合：
+ * 布隆过滤器判定未注销的token直接放行，不再查询Redis；只有命中过滤器的token才回源Redis确认。
+ * 过滤器通过Redis注销通知频道增量同步，并定期扫描黑名单全量重建以清理已过期的注销记录。
+ * 订阅中断或尚未完成首次同步时，所有检查都回源Redis。
+ * Lettuce断线重连后会自动重新订阅而不向订阅流报错，断线期间发布的通知会丢失，
+ * 因此监听连接断开与恢复事件：断开后立即回源Redis，恢复并等待重新订阅后全量重建，重建完成前仍回源Redis
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.local-filter-enabled", havingValue = "true", matchIfMissing = true)
+public class LocalRevocationFilter implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalRevocationFilter.class);
+
+    private static final String BLACKLIST_KEY_PREFIX = JwtUtil.blacklistKey("");
+    private static final int SCAN_COUNT = 1000;
+
+    /**
+     * 连接恢复后等待Lettuce完成重新订阅再开始重建，重建期间的注销由通知频道补齐
+     */
+    private static final Duration RESUBSCRIBE_GRACE = Duration.ofSeconds(1);
+
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final JwtProperties.Revocation config;
+    private final ClientResources clientResources;
+
+    private volatile BloomFilter bloomFilter;
+
+    /**
+     * 通过通知频道收到的注销记录及接收时间，全量重建后清理重建开始前收到的记录
+     */
+    private final Map<String, Long> recentRevocations = new ConcurrentHashMap<>();
+
+    /**
+     * 订阅代数，每次订阅建立或中断时递增，重建期间订阅发生变化则本次重建结果不可信
+     */
+    private final AtomicLong subscriptionEpoch = new AtomicLong();
+    private volatile boolean subscribed;
+    private volatile boolean synced;
+
+    private Disposable subscription;
+    private Disposable connectionEvents;
+    private Disposable resyncTask;
+
+    public LocalRevocationFilter(ReactiveStringRedisTemplate reactiveStringRedisTemplate, JwtProperties jwtProperties,
+                                 ObjectProvider<ClientResources> clientResources) {
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.config = jwtProperties.getRevocation();
+        this.clientResources = clientResources.getIfAvailable();
+        this.bloomFilter = newBloomFilter();
+    }
+
+    /**
+     * 判断JWT ID是否已被注销
+     * @param jti JWT ID
+     * @return 已注销时返回true
+     */
+    public Mono<Boolean> isRevoked(String jti) {
+        if (recentRevocations.containsKey(jti)) {
+            return Mono.just(true);
+        }
+        if (subscribed && synced && !bloomFilter.mightContain(jti)) {
+            return Mono.just(false);
+        }
+        return reactiveStringRedisTemplate.hasKey(JwtUtil.blacklistKey(jti));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        subscription = reactiveStringRedisTemplate.listenToChannelLater(JwtUtil.JWT_REVOCATION_CHANNEL)
+                .flatMapMany(messages -> {
+                    subscribed = true;
+                    long epoch = subscriptionEpoch.incrementAndGet();
+                    // 订阅建立后全量同步一次，补齐订阅建立前的注销记录
+                    resync(epoch).subscribe();
+                    return messages;
+                })
+                .doOnError(e -> {
+                    subscribed = false;
+                    synced = false;
+                    subscriptionEpoch.incrementAndGet();
+                    log.warn("JWT注销通知订阅中断，黑名单检查回源Redis: {}", e.getMessage());
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(message -> onRevoked(message.getMessage()));
+
+        if (clientResources != null) {
+            connectionEvents = clientResources.eventBus().get()
+                    .subscribe(event -> {
+                        if (event instanceof ConnectionDeactivatedEvent) {
+                            onDisconnected();
+                        } else if (event instanceof ConnectionActivatedEvent) {
+                            onReconnected();
+                        }
+                    });
+        }
+
+        resyncTask = Flux.interval(config.getResyncInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> subscribed ? resync(subscriptionEpoch.get()) : Mono.empty())
+                .subscribe();
+    }
+
+    private void onDisconnected() {
+        if (synced) {
+            log.warn("Redis连接断开，JWT注销过滤器待重建前黑名单检查回源Redis");
+        }
+        synced = false;
+        subscriptionEpoch.incrementAndGet();
+    }
+
+    private void onReconnected() {
+        if (!subscribed) {
+            // 订阅尚未建立或已中断，由订阅建立时的全量同步处理
+            return;
+        }
+        long epoch = subscriptionEpoch.incrementAndGet();
+        Mono.delay(RESUBSCRIBE_GRACE).then(Mono.defer(() -> resync(epoch))).subscribe();
+    }
+
+    private void onRevoked(String jti) {
+        recentRevocations.put(jti, System.currentTimeMillis());
+        bloomFilter.put(jti);
+    }
+
+    /**
+     * 扫描Redis黑名单重建布隆过滤器
+     * 注销时先写入黑名单再发布通知，重建开始前收到通知的记录一定能被扫描到，可以从精确集合中清理
+     */
+    private Mono<Void> resync(long epoch) {
+        long startedAt = System.currentTimeMillis();
+        BloomFilter rebuilt = newBloomFilter();
+        ScanOptions options = ScanOptions.scanOptions().match(BLACKLIST_KEY_PREFIX + "*").count(SCAN_COUNT).build();
+
+        return reactiveStringRedisTemplate.scan(options)
+                .doOnNext(key -> rebuilt.put(key.substring(BLACKLIST_KEY_PREFIX.length())))
+                .count()
+                .doOnNext(count -> {
+                    if (!subscribed || subscriptionEpoch.get() != epoch) {
+                        log.debug("JWT注销过滤器重建期间订阅发生变化，丢弃本次结果");
+                        return;
+                    }
+                    // 重建期间收到的通知可能只写入了旧过滤器
+                    recentRevocations.keySet().forEach(rebuilt::put);
+                    bloomFilter = rebuilt;
+                    recentRevocations.values().removeIf(receivedAt -> receivedAt < startedAt);
+                    synced = true;
+                    log.debug("JWT注销过滤器重建完成, 注销记录数: {}", count);
+                })
+                .onErrorResume(e -> {
+                    log.warn("JWT注销过滤器重建失败: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private BloomFilter newBloomFilter() {
+        return new BloomFilter(config.getExpectedRevocations(), config.getFalsePositiveRate());
+    }
+
+    @Override
+    public void destroy() {
+        if (resyncTask != null) {
+            resyncTask.dispose();
+        }
+        if (connectionEvents != null) {
+            connectionEvents.dispose();
+        }
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.gateway.cache.filter;
+
+import com.example.gateway.cache.config.ResponseCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 网关响应缓存过滤器测试
+ * 验证缓存命中时带回上游响应头，且不带回网关为单次请求设置的响应头
+ */
+public class ResponseCacheFilterTest {
+
+    private static final String ROUTE_ID = "food_route";
+    private static final String PATH = "/api/food/categories";
+
+    private ResponseCacheFilter filter;
+    private AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    public void setUp() {
+        ResponseCacheProperties.RouteCache routeCache = new ResponseCacheProperties.RouteCache();
+        routeCache.setPaths(Collections.singletonList(PATH));
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.getRoutes().put(ROUTE_ID, routeCache);
+        filter = new ResponseCacheFilter(new ResponseCache(100), properties);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    @Test
+    public void testHitReplaysUpstreamHeaders() {
+        MockServerWebExchange miss = exchange("trace-1");
+        filter.filter(miss, upstream()).block();
+
+        MockServerWebExchange hit = exchange("trace-2");
+        filter.filter(hit, upstream()).block();
+
+        assertEquals(1, upstreamCalls.get());
+        HttpHeaders headers = hit.getResponse().getHeaders();
+        assertEquals("HIT", headers.getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(MediaType.APPLICATION_JSON, headers.getContentType());
+        assertEquals("en", headers.getFirst(HttpHeaders.CONTENT_LANGUAGE));
+        assertEquals("catalog-v2", headers.getFirst("X-Catalog-Version"));
+        assertEquals(Collections.singletonList("trace-2"), headers.get("X-Trace-Id"));
+        assertEquals("[]", hit.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    public void testUpstreamHeadersExcludeRequestScopedAndHopByHop() {
+        HttpHeaders response = new HttpHeaders();
+        response.set("X-Trace-Id", "trace-1");
+        response.set(HttpHeaders.CONTENT_LENGTH, "2");
+        response.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        response.set(HttpHeaders.SET_COOKIE, "a=b");
+        response.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        response.set("X-Catalog-Version", "catalog-v2");
+
+        HttpHeaders cached = ResponseCacheFilter.upstreamHeaders(response, Collections.singleton("X-Trace-Id"));
+
+        assertEquals(2, cached.size());
+        assertEquals(MediaType.APPLICATION_JSON, cached.getContentType());
+        assertEquals("catalog-v2", cached.getFirst("X-Catalog-Version"));
+    }
+
+    private MockServerWebExchange exchange(String traceId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+        Route route = Route.async().id(ROUTE_ID).uri("http://food-service").predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        // 访问日志过滤器在缓存过滤器之前为本次请求设置traceId
+        exchange.getResponse().getHeaders().set("X-Trace-Id", traceId);
+        return exchange;
+    }
+
+    private GatewayFilterChain upstream() {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().set(HttpHeaders.CONTENT_LANGUAGE, "en");
+            response.getHeaders().set("X-Catalog-Version", "catalog-v2");
+            DataBuffer body = response.bufferFactory().wrap("[]".getBytes(StandardCharsets.UTF_8));
+            return response.writeWith(Mono.just(body));
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.gateway.cache.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 网关响应缓存测试
+ */
+public class ResponseCacheTest {
+
+    private static CachedResponse response(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new CachedResponse(headers, bytes, ResponseCacheFilter.etag(bytes), TimeUnit.SECONDS.toNanos(60));
+    }
+
+    @Test
+    public void testPutAndGet() {
+        ResponseCache cache = new ResponseCache(100);
+        cache.put("/api/food/categories", response("[]"), cache.generation());
+
+        CachedResponse cached = cache.get("/api/food/categories");
+        assertNotNull(cached);
+        assertArrayEquals("[]".getBytes(StandardCharsets.UTF_8), cached.body());
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        ResponseCache cache = new ResponseCache(100);
+        cache.put("/api/food/list?current=1", response("{}"), cache.generation());
+
+        cache.invalidateAll();
+
+        assertNull(cache.get("/api/food/list?current=1"));
+    }
+
+    @Test
+    public void testResponseFetchedBeforeInvalidationIsDiscarded() {
+        ResponseCache cache = new ResponseCache(100);
+        long generation = cache.generation();
+
+        // 上游响应返回前目录发生变更
+        cache.invalidateAll();
+        cache.put("/api/food/categories", response("[]"), generation);
+
+        assertNull(cache.get("/api/food/categories"));
+    }
+
+    @Test
+    public void testEtagIsStableForSameBody() {
+        byte[] body = "{\"code\":200}".getBytes(StandardCharsets.UTF_8);
+
+        String etag = ResponseCacheFilter.etag(body);
+
+        assertEquals(etag, ResponseCacheFilter.etag(body.clone()));
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertNotEquals(etag, ResponseCacheFilter.etag("{}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testEtagMatches() {
+        String etag = ResponseCacheFilter.etag("[]".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(ResponseCacheFilter.etagMatches(Collections.singletonList(etag), etag));
+        assertTrue(ResponseCacheFilter.etagMatches(Collections.singletonList("W/" + etag), etag));
+        assertTrue(ResponseCacheFilter.etagMatches(Arrays.asList("\"other\"", etag), etag));
+        assertTrue(ResponseCacheFilter.etagMatches(Collections.singletonList("*"), etag));
+        assertFalse(ResponseCacheFilter.etagMatches(Collections.singletonList("\"other\""), etag));
+        assertFalse(ResponseCacheFilter.etagMatches(Collections.emptyList(), etag));
+    }
+}
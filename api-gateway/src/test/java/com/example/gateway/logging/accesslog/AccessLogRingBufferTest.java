@@ -0,0 +1,105 @@
+package com.example.gateway.logging.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 访问日志环形缓冲区测试
+ */
+public class AccessLogRingBufferTest {
+
+    @Test
+    public void testDropsWhenFull() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(record(String.valueOf(i))));
+        }
+
+        assertFalse(buffer.offer(record("overflow")));
+        assertEquals(1, buffer.dropped());
+        assertEquals("0", buffer.poll().traceId);
+        assertTrue(buffer.offer(record("4")));
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(1 << 16);
+        int producers = 4;
+        int perProducer = 10000;
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(record(producer + "-" + i));
+                }
+                done.countDown();
+            }).start();
+        }
+
+        Set<String> received = new HashSet<>();
+        while (received.size() < producers * perProducer) {
+            AccessLogRecord record = buffer.poll();
+            if (record != null) {
+                assertTrue(received.add(record.traceId));
+            }
+        }
+        done.await();
+
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.dropped());
+    }
+
+    @Test
+    public void testAwaitRecordWakesOnOffer() throws InterruptedException {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        CountDownLatch waiting = new CountDownLatch(1);
+        long[] waitedNanos = new long[1];
+        Thread consumer = new Thread(() -> {
+            waiting.countDown();
+            long start = System.nanoTime();
+            buffer.awaitRecord(TimeUnit.SECONDS.toNanos(10));
+            waitedNanos[0] = System.nanoTime() - start;
+        });
+        consumer.start();
+        waiting.await();
+        Thread.sleep(50);
+
+        buffer.offer(record("0"));
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertFalse(consumer.isAlive());
+        assertTrue(waitedNanos[0] < TimeUnit.SECONDS.toNanos(5));
+        assertEquals("0", buffer.poll().traceId);
+    }
+
+    @Test
+    public void testAwaitRecordReturnsWhenNotEmpty() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        buffer.offer(record("0"));
+
+        long start = System.nanoTime();
+        buffer.awaitRecord(TimeUnit.SECONDS.toNanos(10));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void testTraceIdFormat() {
+        String traceId = TraceIdGenerator.next();
+
+        assertEquals(16, traceId.length());
+        assertTrue(traceId.matches("[0-9a-f]{16}"));
+        assertNotEquals(traceId, TraceIdGenerator.next());
+    }
+
+    private static AccessLogRecord record(String traceId) {
+        return new AccessLogRecord(0, traceId, "GET", "/", null, 200, 1, "127.0.0.1", null, null, null);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.gateway.logging.filter;
+
+import com.example.gateway.logging.accesslog.AccessLogRecord;
+import com.example.gateway.logging.accesslog.AccessLogRingBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求日志过滤器测试
+ * 验证在认证和流量保护阶段被拒绝的请求同样以最终状态码记录访问日志
+ */
+public class RequestLoggingFilterTest {
+
+    private AccessLogRingBuffer buffer;
+    private RequestLoggingFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        buffer = new AccessLogRingBuffer(16);
+        filter = new RequestLoggingFilter(buffer);
+    }
+
+    @Test
+    public void testRequestRejectedByAuthenticationIsLogged() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/diet/records"));
+
+        filter.filter(exchange, e -> {
+            e.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return e.getResponse().setComplete();
+        }).block();
+
+        AccessLogRecord record = buffer.poll();
+        assertNotNull(record);
+        assertEquals(401, record.getStatus());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void testRequestBlockedByProtectionLoggedWithHandlerStatus() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/food/list"));
+
+        // 模拟Sentinel阻断异常由WebExceptionHandler在过滤器链之外写出429
+        filter.filter(exchange, e -> Mono.error(new IllegalStateException("blocked")))
+                .onErrorResume(error -> {
+                    assertNull(buffer.poll());
+                    exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    return exchange.getResponse().setComplete();
+                })
+                .block();
+
+        AccessLogRecord record = buffer.poll();
+        assertNotNull(record);
+        assertEquals(429, record.getStatus());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void testUserIdAndTraceIdRecordedAtCompletion() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/diet/records")
+                .header("X-Trace-Id", "trace-1"));
+
+        filter.filter(exchange, e -> {
+            e.getAttributes().put("userId", 42L);
+            e.getResponse().setStatusCode(HttpStatus.OK);
+            return e.getResponse().setComplete();
+        }).block();
+
+        AccessLogRecord record = buffer.poll();
+        assertNotNull(record);
+        assertEquals("trace-1", record.getTraceId());
+        assertEquals(42L, record.getUserId());
+        assertEquals("trace-1", exchange.getResponse().getHeaders().getFirst("X-Trace-Id"));
+    }
+}
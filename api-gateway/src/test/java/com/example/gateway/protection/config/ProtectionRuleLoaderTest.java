@@ -0,0 +1,81 @@
+package com.example.gateway.protection.config;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流量保护规则加载器测试
+ * 验证配置刷新发布EnvironmentChangeEvent后，Sentinel规则管理器中的规则随之重新加载
+ */
+public class ProtectionRuleLoaderTest {
+
+    private static final String ROUTE = "food-service";
+
+    private MockEnvironment environment;
+    private AnnotationConfigApplicationContext context;
+
+    @BeforeEach
+    public void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("app.protection.routes." + ROUTE + ".qps", "100");
+        context = new AnnotationConfigApplicationContext();
+        context.setEnvironment(environment);
+        context.registerBean(ProtectionRuleLoader.class, () -> new ProtectionRuleLoader(environment));
+        context.refresh();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        context.close();
+        GatewayRuleManager.loadRules(Collections.emptySet());
+        DegradeRuleManager.loadRules(Collections.emptyList());
+    }
+
+    @Test
+    public void testRulesReloadedOnProtectionChange() {
+        assertEquals(100, routeRule().getCount());
+        assertTrue(DegradeRuleManager.getRules().isEmpty());
+
+        environment.setProperty("app.protection.routes." + ROUTE + ".qps", "20");
+        environment.setProperty("app.protection.routes." + ROUTE + ".circuit-breaker.enabled", "true");
+        context.publishEvent(new EnvironmentChangeEvent(context, setOf(
+                "app.protection.routes." + ROUTE + ".qps",
+                "app.protection.routes." + ROUTE + ".circuit-breaker.enabled")));
+
+        assertEquals(20, routeRule().getCount());
+        assertFalse(DegradeRuleManager.getRules().isEmpty());
+        assertEquals(20, context.getBean(ProtectionRuleLoader.class).routeRule(ROUTE).getQps());
+    }
+
+    @Test
+    public void testUnrelatedChangeDoesNotReload() {
+        environment.setProperty("app.protection.routes." + ROUTE + ".qps", "20");
+        context.publishEvent(new EnvironmentChangeEvent(context, setOf("logging.level.root")));
+
+        assertEquals(100, routeRule().getCount());
+    }
+
+    private GatewayFlowRule routeRule() {
+        Set<GatewayFlowRule> rules = GatewayRuleManager.getRulesForResource(ROUTE);
+        assertEquals(1, rules.size());
+        return rules.iterator().next();
+    }
+
+    private static Set<String> setOf(String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.gateway.protection.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 滑动窗口延迟分位数测试
+ */
+public class LatencyPercentileTest {
+
+    @Test
+    public void testNoValueBeforeEnoughSamples() {
+        LatencyPercentile p95 = new LatencyPercentile(0.95);
+        for (int i = 0; i < 32; i++) {
+            p95.record(1_000_000);
+        }
+
+        assertEquals(-1, p95.nanos());
+    }
+
+    @Test
+    public void testPercentileOfUniformSamples() {
+        LatencyPercentile p95 = new LatencyPercentile(0.95);
+        for (int i = 1; i <= 256; i++) {
+            p95.record(i);
+        }
+
+        // ceil(0.95 * 256) = 244
+        assertEquals(244, p95.nanos());
+    }
+
+    @Test
+    public void testWindowForgetsOldSamples() {
+        LatencyPercentile p95 = new LatencyPercentile(0.95);
+        for (int i = 0; i < 256; i++) {
+            p95.record(1_000_000_000L);
+        }
+        for (int i = 0; i < 256; i++) {
+            p95.record(1_000_000L);
+        }
+
+        assertEquals(1_000_000L, p95.nanos());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.gateway.protection.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 重试预算测试
+ */
+public class RetryBudgetTest {
+
+    @Test
+    public void testEmptyBudgetRejectsRetry() {
+        RetryBudget budget = new RetryBudget();
+
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    public void testRetriesLimitedToRatioOfRequests() {
+        RetryBudget budget = new RetryBudget();
+        for (int i = 0; i < 100; i++) {
+            budget.deposit(0.1, 100);
+        }
+
+        int retries = 0;
+        while (budget.tryWithdraw()) {
+            retries++;
+        }
+        assertEquals(10, retries);
+    }
+
+    @Test
+    public void testBudgetCappedAtBurst() {
+        RetryBudget budget = new RetryBudget();
+        for (int i = 0; i < 10000; i++) {
+            budget.deposit(0.1, 5);
+        }
+
+        int retries = 0;
+        while (budget.tryWithdraw()) {
+            retries++;
+        }
+        assertEquals(5, retries);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.gateway.protection.filter;
+
+import com.example.gateway.metrics.filter.LatencyTimers;
+import com.example.gateway.protection.config.ProtectionRuleLoader;
+import com.example.gateway.routing.balancer.LeastLoadedLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 上游弹性过滤器测试
+ * 使用本地HTTP服务验证对冲转发同样应用重试配置并记录上游耗时，响应体超过缓冲上限时改由正常过滤器链转发
+ */
+public class UpstreamResilienceFilterTest {
+
+    private static final String ROUTE_ID = "food_route";
+    private static final String SERVICE_ID = "food-service";
+    private static final String LARGE_BODY = "0123456789abcdef0123456789abcdef";
+
+    private DisposableServer server;
+    private AtomicInteger upstreamRequests;
+    private SimpleMeterRegistry meterRegistry;
+    private UpstreamResilienceFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        upstreamRequests = new AtomicInteger();
+        // 首个请求返回503，之后返回200
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/api/food/list", (request, response) ->
+                        upstreamRequests.incrementAndGet() == 1
+                                ? response.status(HttpStatus.SERVICE_UNAVAILABLE.value()).send()
+                                : response.sendString(Mono.just("ok")))
+                        .get("/api/food/detail", (request, response) -> response.sendString(Mono.just(LARGE_BODY)))
+                        .get("/api/food/stream", (request, response) ->
+                                response.sendString(Flux.just(LARGE_BODY.substring(0, 12), LARGE_BODY.substring(12)))))
+                .bindNow();
+
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.protection.routes.food_route.hedge.enabled", "true")
+                .withProperty("app.protection.routes.food_route.hedge.max-buffered-bytes", "16")
+                .withProperty("app.protection.routes.food_route.retry.max-attempts", "2")
+                .withProperty("app.protection.routes.food_route.retry.budget-ratio", "1");
+        ProtectionRuleLoader ruleLoader = new ProtectionRuleLoader(environment);
+        ruleLoader.load();
+
+        ServiceInstance instance = new DefaultServiceInstance(SERVICE_ID + "-1", SERVICE_ID, "localhost",
+                server.port(), false);
+        LeastLoadedLoadBalancer loadBalancer = new LeastLoadedLoadBalancer(
+                discoveryClient(Collections.singletonList(instance)), Duration.ofMinutes(1));
+
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+        when(headersFilters.getIfAvailable(any())).thenReturn(Collections.emptyList());
+
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new UpstreamResilienceFilter(ruleLoader, loadBalancer, HttpClient.create(), headersFilters,
+                meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    public void testHedgedRouteRetriesRetryableStatusAndRecordsUpstreamLatency() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/food/list"));
+        Route route = Route.async().id(ROUTE_ID).uri("lb://" + SERVICE_ID).predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("lb://" + SERVICE_ID + "/api/food/list"));
+        GatewayFilterChain chain = e -> Mono.error(new AssertionError("hedged route must not use the chain"));
+
+        filter.filter(exchange, chain).block(Duration.ofSeconds(10));
+
+        assertEquals(2, upstreamRequests.get());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("ok", exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5)));
+        assertEquals(1.0, meterRegistry.counter("gateway.upstream.retries", "route", ROUTE_ID).count());
+        Long upstreamNanos = exchange.getAttribute(LatencyTimers.UPSTREAM_NANOS_ATTR);
+        assertNotNull(upstreamNanos);
+        assertTrue(upstreamNanos > 0);
+    }
+
+    @Test
+    public void testOversizedResponseWithContentLengthFallsBackToChain() {
+        assertFallsBackToChain("/api/food/detail");
+    }
+
+    @Test
+    public void testOversizedChunkedResponseFallsBackToChain() {
+        assertFallsBackToChain("/api/food/stream");
+    }
+
+    private void assertFallsBackToChain(String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        Route route = Route.async().id(ROUTE_ID).uri("lb://" + SERVICE_ID).predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("lb://" + SERVICE_ID + path));
+        AtomicInteger chainCalls = new AtomicInteger();
+        GatewayFilterChain chain = e -> {
+            chainCalls.incrementAndGet();
+            assertEquals(URI.create("lb://" + SERVICE_ID + path),
+                    e.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR));
+            e.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+
+        filter.filter(exchange, chain).block(Duration.ofSeconds(10));
+
+        assertEquals(1, chainCalls.get());
+        assertFalse(ServerWebExchangeUtils.isAlreadyRouted(exchange));
+        assertEquals(1.0, meterRegistry.counter("gateway.upstream.hedge.fallbacks", "route", ROUTE_ID).count());
+    }
+
+    private static ReactiveDiscoveryClient discoveryClient(List<ServiceInstance> instances) {
+        return new ReactiveDiscoveryClient() {
+            @Override
+            public String description() {
+                return "test";
+            }
+
+            @Override
+            public Flux<ServiceInstance> getInstances(String serviceId) {
+                return Flux.fromIterable(instances);
+            }
+
+            @Override
+            public Flux<String> getServices() {
+                return Flux.just(SERVICE_ID);
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.gateway.routing.balancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 最少负载负载均衡器测试
+ */
+public class LeastLoadedLoadBalancerTest {
+
+    private static ServiceInstance instance(String serviceId, int port) {
+        return new DefaultServiceInstance(serviceId + "-" + port, serviceId, "localhost", port, false);
+    }
+
+    private static ReactiveDiscoveryClient discoveryClient(Map<String, List<ServiceInstance>> instances,
+                                                           AtomicInteger queries) {
+        return new ReactiveDiscoveryClient() {
+            @Override
+            public String description() {
+                return "test";
+            }
+
+            @Override
+            public Flux<ServiceInstance> getInstances(String serviceId) {
+                queries.incrementAndGet();
+                return Flux.fromIterable(instances.getOrDefault(serviceId, Collections.emptyList()));
+            }
+
+            @Override
+            public Flux<String> getServices() {
+                return Flux.fromIterable(instances.keySet());
+            }
+        };
+    }
+
+    @Test
+    public void testAvoidsBusyInstance() {
+        ServiceInstance busy = instance("food-service", 8087);
+        ServiceInstance idle = instance("food-service", 8187);
+        LeastLoadedLoadBalancer balancer = new LeastLoadedLoadBalancer(
+                discoveryClient(Collections.singletonMap("food-service", Arrays.asList(busy, idle)),
+                        new AtomicInteger()),
+                Duration.ofMinutes(1));
+        List<ServiceInstance> list = Arrays.asList(busy, idle);
+
+        // 第一个请求未结束，两个实例只有两个候选，后续请求都应选择空闲实例
+        LeastLoadedLoadBalancer.Lease first = balancer.acquire("food-service", list);
+        ServiceInstance firstChosen = first.instance();
+        for (int i = 0; i < 10; i++) {
+            LeastLoadedLoadBalancer.Lease lease = balancer.acquire("food-service", list);
+            assertNotEquals(firstChosen, lease.instance());
+            lease.release();
+        }
+        first.release();
+
+        assertEquals(0, balancer.inFlight("food-service", busy));
+        assertEquals(0, balancer.inFlight("food-service", idle));
+    }
+
+    @Test
+    public void testSpreadsLoadAcrossInstances() {
+        List<ServiceInstance> list = new ArrayList<>();
+        for (int port = 9000; port < 9004; port++) {
+            list.add(instance("nutrition-service", port));
+        }
+        LeastLoadedLoadBalancer balancer = new LeastLoadedLoadBalancer(
+                discoveryClient(Collections.singletonMap("nutrition-service", list), new AtomicInteger()),
+                Duration.ofMinutes(1));
+
+        // 请求都不结束时，任意两个实例的在途请求数之差不超过2
+        for (int i = 0; i < 400; i++) {
+            balancer.acquire("nutrition-service", list);
+        }
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (ServiceInstance instance : list) {
+            int inFlight = balancer.inFlight("nutrition-service", instance);
+            min = Math.min(min, inFlight);
+            max = Math.max(max, inFlight);
+        }
+        assertTrue(max - min <= 2, "max=" + max + ", min=" + min);
+    }
+
+    @Test
+    public void testReleaseIsIdempotent() {
+        ServiceInstance only = instance("user-service", 8086);
+        LeastLoadedLoadBalancer balancer = new LeastLoadedLoadBalancer(
+                discoveryClient(Collections.singletonMap("user-service", Collections.singletonList(only)),
+                        new AtomicInteger()),
+                Duration.ofMinutes(1));
+
+        LeastLoadedLoadBalancer.Lease lease = balancer.choose("user-service").block();
+        assertNotNull(lease);
+        assertEquals(1, balancer.inFlight("user-service", only));
+
+        lease.release();
+        lease.release();
+        assertEquals(0, balancer.inFlight("user-service", only));
+    }
+
+    @Test
+    public void testInstancesAreCachedAndUnknownServiceIsEmpty() {
+        AtomicInteger queries = new AtomicInteger();
+        LeastLoadedLoadBalancer balancer = new LeastLoadedLoadBalancer(
+                discoveryClient(Collections.singletonMap("diet-service",
+                        Collections.singletonList(instance("diet-service", 8088))), queries),
+                Duration.ofMinutes(1));
+
+        for (int i = 0; i < 5; i++) {
+            balancer.choose("diet-service").block().release();
+        }
+        assertEquals(1, queries.get());
+
+        // 没有实例的服务不缓存空列表，每次都重新查询
+        assertNull(balancer.choose("unknown-service").block());
+        assertNull(balancer.choose("unknown-service").block());
+        assertEquals(3, queries.get());
+    }
+}
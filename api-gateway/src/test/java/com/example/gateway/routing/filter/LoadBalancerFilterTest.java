@@ -0,0 +1,85 @@
+package com.example.gateway.routing.filter;
+
+import com.example.gateway.routing.balancer.LeastLoadedLoadBalancer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 负载均衡过滤器测试
+ * 验证实例租约在响应体写完后才释放，而不是在收到上游响应头时释放
+ */
+public class LoadBalancerFilterTest {
+
+    private LeastLoadedLoadBalancer.Lease lease;
+    private LoadBalancerFilter loadBalancerFilter;
+    private LeaseReleaseFilter leaseReleaseFilter;
+    private MockServerWebExchange exchange;
+
+    @BeforeEach
+    public void setUp() {
+        LeastLoadedLoadBalancer loadBalancer = mock(LeastLoadedLoadBalancer.class);
+        lease = mock(LeastLoadedLoadBalancer.Lease.class);
+        when(lease.instance()).thenReturn(
+                new DefaultServiceInstance("food-service-8087", "food-service", "localhost", 8087, false));
+        when(loadBalancer.choose("food-service")).thenReturn(Mono.just(lease));
+        loadBalancerFilter = new LoadBalancerFilter(loadBalancer);
+        leaseReleaseFilter = new LeaseReleaseFilter();
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/food/list"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("lb://food-service/api/food/list"));
+    }
+
+    @Test
+    public void testLeaseReleasedAfterResponseBodyWritten() {
+        Sinks.Empty<Void> bodyWritten = Sinks.empty();
+
+        // 外层模拟NettyWriteResponseFilter：内层转发在收到响应头时结束，之后才写出响应体
+        leaseReleaseFilter.filter(exchange, e -> loadBalancerFilter.filter(e, routed -> {
+            assertEquals(URI.create("http://localhost:8087/api/food/list"),
+                    routed.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR));
+            return Mono.empty();
+        }).then(Mono.fromRunnable(() -> verify(lease, never()).release())).then(bodyWritten.asMono()))
+                .subscribe();
+
+        verify(lease, never()).release();
+        bodyWritten.tryEmitEmpty();
+        verify(lease, times(1)).release();
+    }
+
+    @Test
+    public void testLeaseReleasedWhenForwardFails() {
+        Mono<Void> result = loadBalancerFilter.filter(exchange,
+                e -> Mono.error(new IllegalStateException("connection refused")));
+
+        assertThrows(IllegalStateException.class, result::block);
+        verify(lease, times(1)).release();
+        assertNull(exchange.getAttribute(LoadBalancerFilter.LEASE_ATTR));
+    }
+
+    @Test
+    public void testPreviousLeaseReleasedOnRetry() {
+        LeastLoadedLoadBalancer.Lease previous = mock(LeastLoadedLoadBalancer.Lease.class);
+        exchange.getAttributes().put(LoadBalancerFilter.LEASE_ATTR, previous);
+
+        loadBalancerFilter.filter(exchange, e -> Mono.empty()).block();
+
+        verify(previous, times(1)).release();
+        verify(lease, never()).release();
+        assertSame(lease, exchange.getAttribute(LoadBalancerFilter.LEASE_ATTR));
+    }
+}
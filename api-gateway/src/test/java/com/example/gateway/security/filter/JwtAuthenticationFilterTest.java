@@ -0,0 +1,93 @@
+package com.example.gateway.security.filter;
+
+import com.example.gateway.security.jwt.ReactiveJwtValidator;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT认证过滤器测试
+ * 验证客户端伪造的用户身份请求头不会传给下游
+ */
+public class JwtAuthenticationFilterTest {
+
+    private ReactiveJwtValidator jwtValidator;
+    private JwtAuthenticationFilter filter;
+    private AtomicReference<ServerWebExchange> forwarded;
+
+    @BeforeEach
+    public void setUp() {
+        jwtValidator = mock(ReactiveJwtValidator.class);
+        filter = new JwtAuthenticationFilter(jwtValidator);
+        forwarded = new AtomicReference<>();
+    }
+
+    @Test
+    public void testSpoofedIdentityHeadersRemovedWithoutToken() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/food/list")
+                .header(JwtAuthenticationFilter.USER_ID_HEADER, "1")
+                .header(JwtAuthenticationFilter.USERNAME_HEADER, "admin")
+                .header(JwtAuthenticationFilter.USER_ROLE_HEADER, "ADMIN"));
+
+        filter.filter(exchange, e -> {
+            forwarded.set(e);
+            return Mono.empty();
+        }).block();
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertFalse(headers.containsKey(JwtAuthenticationFilter.USER_ID_HEADER));
+        assertFalse(headers.containsKey(JwtAuthenticationFilter.USERNAME_HEADER));
+        assertFalse(headers.containsKey(JwtAuthenticationFilter.USER_ROLE_HEADER));
+    }
+
+    @Test
+    public void testSpoofedIdentityHeadersRemovedWithInvalidToken() {
+        when(jwtValidator.validate("bad")).thenReturn(Mono.empty());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/food/list")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer bad")
+                .header(JwtAuthenticationFilter.USER_ID_HEADER, "1"));
+
+        filter.filter(exchange, e -> {
+            forwarded.set(e);
+            return Mono.empty();
+        }).block();
+
+        assertFalse(forwarded.get().getRequest().getHeaders().containsKey(JwtAuthenticationFilter.USER_ID_HEADER));
+    }
+
+    @Test
+    public void testIdentityHeadersTakenFromToken() {
+        Claims claims = new DefaultClaims();
+        claims.setSubject("alice");
+        claims.put("userId", 42L);
+        claims.put("role", "USER");
+        when(jwtValidator.validate("good")).thenReturn(Mono.just(claims));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/food/list")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer good")
+                .header(JwtAuthenticationFilter.USER_ID_HEADER, "1")
+                .header(JwtAuthenticationFilter.USER_ROLE_HEADER, "ADMIN"));
+
+        filter.filter(exchange, e -> {
+            forwarded.set(e);
+            return Mono.empty();
+        }).block();
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertEquals("42", headers.getFirst(JwtAuthenticationFilter.USER_ID_HEADER));
+        assertEquals(1, headers.get(JwtAuthenticationFilter.USER_ID_HEADER).size());
+        assertEquals("alice", headers.getFirst(JwtAuthenticationFilter.USERNAME_HEADER));
+        assertEquals("USER", headers.getFirst(JwtAuthenticationFilter.USER_ROLE_HEADER));
+    }
+}
@@ -61,6 +61,11 @@ public class DashboardServiceImpl implements DashboardService {
             stats.setTodayRecords(todayRecords);
             log.debug("{}饮食记录数: {}", queryDate, todayRecords);
 
+            // 获取指定日期的活跃用户数（HyperLogLog近似计数，无需拉取用户ID列表）
+            long activeUsers = dietRecordService.countActiveUsersByDate(queryDate);
+            stats.setActiveUsers(activeUsers);
+            log.debug("{}活跃用户数: {}", queryDate, activeUsers);
+
             // 计算营养达标率
             double nutritionComplianceRate = nutritionStatService.calculateNutritionComplianceRate(queryDate);
             stats.setNutritionComplianceRate(nutritionComplianceRate);
@@ -0,0 +1,50 @@
+package com.example.diet.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 营养统计用的列式营养数据
+ * 每行对应一个(用户, 日期)的营养汇总，各列使用基本类型数组存储，
+ * 相比按用户和日期嵌套的DietRecordResponseDTO列表，序列化体积和反序列化开销都小得多
+ */
+@Data
+public class NutritionFactsDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 行数，各数组中下标小于size的元素有效
+     */
+    private int size;
+
+    /**
+     * 用户ID列
+     */
+    private long[] userIds;
+
+    /**
+     * 日期列，以1970-01-01起的天数表示，可用LocalDate.ofEpochDay还原
+     */
+    private int[] epochDays;
+
+    /**
+     * 热量列（千卡），按食物逐条取整后汇总
+     */
+    private double[] calories;
+
+    /**
+     * 蛋白质列（克）
+     */
+    private double[] protein;
+
+    /**
+     * 碳水化合物列（克）
+     */
+    private double[] carbs;
+
+    /**
+     * 脂肪列（克）
+     */
+    private double[] fat;
+}
@@ -1,6 +1,7 @@
 package com.example.diet.event;
 
 import com.example.shared.event.DomainEvent;
+import com.example.shared.event.codec.EventType;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
@@ -11,6 +12,7 @@ import java.time.LocalDate;
  * 当用户添加饮食记录时发布此事件，用于通知其他服务进行相应处理
  */
 @Getter
+@EventType("diet.record-added")
 @NoArgsConstructor  // Jackson反序列化需要
 public class DietRecordAddedEvent extends DomainEvent {
 
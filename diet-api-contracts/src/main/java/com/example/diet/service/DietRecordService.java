@@ -4,6 +4,7 @@ import com.example.diet.command.DietRecordAddCommand;
 import com.example.diet.command.DietRecordDeleteCommand;
 import com.example.diet.command.DietRecordQueryCommand;
 import com.example.diet.dto.DietRecordResponseDTO;
+import com.example.diet.dto.NutritionFactsDTO;
 import com.example.shared.response.PageResult;
 
 import java.time.LocalDate;
@@ -31,6 +32,7 @@ public interface DietRecordService {
 
     /**
      * 获取指定日期有饮食记录的活跃用户ID列表
+     * 仅在需要逐个用户处理时使用，只需要人数时请使用{@link #countActiveUsersByDate(LocalDate)}
      * @param date 日期
      * @return 用户ID列表
      */
@@ -44,6 +46,21 @@ public interface DietRecordService {
      */
     List<Long> findActiveUserIdsByDateRange(LocalDate startDate, LocalDate endDate);
 
+    /**
+     * 统计指定日期的活跃用户数（基于HyperLogLog的近似值）
+     * @param date 日期
+     * @return 活跃用户数
+     */
+    long countActiveUsersByDate(LocalDate date);
+
+    /**
+     * 统计指定日期范围内去重后的活跃用户数（基于HyperLogLog的近似值）
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 活跃用户数
+     */
+    long countActiveUsersByDateRange(LocalDate startDate, LocalDate endDate);
+
     /**
      * 根据时间周期获取热门食物统计
      * @param period 时间周期：week(周)、month(月)、quarter(季度)
@@ -78,6 +95,17 @@ public interface DietRecordService {
     Map<Long, Map<String, List<DietRecordResponseDTO>>> getBatchDietRecordsForNutritionStat(
             List<Long> userIds, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * 批量获取多个用户在指定日期范围内每天的营养摄入总量
+     * 由数据库按用户和日期完成求和，以列式数组传输，替代营养统计场景下的{@link #getBatchDietRecordsForNutritionStat}
+     *
+     * @param userIds 用户ID列表
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 每个(用户, 日期)一行的列式营养数据，没有饮食记录的(用户, 日期)不出现
+     */
+    NutritionFactsDTO getDailyNutrientTotals(List<Long> userIds, LocalDate startDate, LocalDate endDate);
+
     /**
      * 获取所有用户的饮食记录列表（管理员使用）- 使用Command对象
      * @param command 饮食记录查询命令对象
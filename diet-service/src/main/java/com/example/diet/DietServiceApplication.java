@@ -6,12 +6,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDubbo(scanBasePackages = "com.example.diet.service")
 @MapperScan("com.example.diet.mapper")
 @EnableCaching
 @EnableAsync
+@EnableScheduling
 public class DietServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(DietServiceApplication.class, args);
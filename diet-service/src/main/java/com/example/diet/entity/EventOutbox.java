@@ -0,0 +1,46 @@
+package com.example.diet.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 事件发件箱实体类
+ * 与业务数据在同一事务中写入，由中继异步投递到消息中间件
+ */
+@Data
+@TableName("event_outbox")
+public class EventOutbox implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 待发布
+     */
+    public static final int STATUS_PENDING = 0;
+
+    /**
+     * 已发布
+     */
+    public static final int STATUS_PUBLISHED = 1;
+
+    /**
+     * 无法反序列化或达到最大投递次数，不再投递
+     */
+    public static final int STATUS_FAILED = 2;
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String eventId;
+    private String eventType;
+    private String aggregateId;
+    private String payload;
+    private Integer status;
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,167 @@
+package com.example.diet.event;
+
+import com.example.diet.entity.EventOutbox;
+import com.example.diet.mapper.EventOutboxMapper;
+import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 发件箱中继
+ * 定期在短事务中认领一批待发布事件，事务提交后通过EventPublisher.publishAll整批投递，成功后批量标记为已发布。
+ * 整批投递失败时按写入顺序逐条重投以定位失败的事件，失败事件累计失败次数，达到上限后标记为发布失败，
+ * 不会无限阻塞后续事件；保证至少一次投递，消费方需按eventId幂等处理。
+ * 多实例中继以SKIP LOCKED各自认领不同的事件，失败事件会延迟重试，因此不保证事件的全局或同一聚合内的发布顺序
+ */
+@Slf4j
+@Component
+public class EventOutboxRelay {
+
+    private final TransactionalEventOutbox eventOutbox;
+    private final EventOutboxMapper eventOutboxMapper;
+    private final EventPublisher eventPublisher;
+    private final ObjectMapper eventObjectMapper;
+    private final EventProperties eventProperties;
+
+    @Autowired
+    public EventOutboxRelay(TransactionalEventOutbox eventOutbox,
+                            EventOutboxMapper eventOutboxMapper,
+                            EventPublisher eventPublisher,
+                            @Qualifier("eventObjectMapper") ObjectMapper eventObjectMapper,
+                            EventProperties eventProperties) {
+        this.eventOutbox = eventOutbox;
+        this.eventOutboxMapper = eventOutboxMapper;
+        this.eventPublisher = eventPublisher;
+        this.eventObjectMapper = eventObjectMapper;
+        this.eventProperties = eventProperties;
+    }
+
+    /**
+     * 投递一批待发布事件
+     * 认领在独立的短事务中完成，投递和状态更新都不持有行锁
+     */
+    @Scheduled(fixedDelayString = "#{@eventProperties.outbox.pollInterval.toMillis()}")
+    public void relay() {
+        EventProperties.Outbox config = eventProperties.getOutbox();
+        List<EventOutbox> batch = eventOutbox.claim(config.getBatchSize(), config.getClaimTimeout());
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<DomainEvent> events = new ArrayList<>(batch.size());
+        List<EventOutbox> pending = new ArrayList<>(batch.size());
+        List<Long> failed = new ArrayList<>();
+
+        for (EventOutbox outbox : batch) {
+            try {
+                events.add(eventObjectMapper.readValue(outbox.getPayload(), DomainEvent.class));
+                pending.add(outbox);
+            } catch (IOException e) {
+                // 无法反序列化的事件重试也不会成功，标记失败后跳过，避免阻塞后续事件
+                log.error("发件箱事件反序列化失败，跳过: id={}, eventId={}, type={}",
+                        outbox.getId(), outbox.getEventId(), outbox.getEventType(), e);
+                failed.add(outbox.getId());
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            eventOutboxMapper.markFailed(failed);
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // 整批发布，由发布器合并网络请求；失败时逐条重投，已发出的事件可能重复投递
+        int published;
+        try {
+            eventPublisher.publishAll(events);
+            eventOutboxMapper.markPublished(ids(pending), LocalDateTime.now());
+            published = pending.size();
+        } catch (Exception e) {
+            log.warn("发件箱事件批量投递失败，逐条重投: 事件数={}, 首个id={}",
+                    pending.size(), pending.get(0).getId(), e);
+            published = publishOneByOne(events, pending);
+        }
+
+        log.debug("发件箱中继完成: 读取{}条, 发布{}条, 反序列化失败{}条", batch.size(), published, failed.size());
+    }
+
+    /**
+     * 按写入顺序逐条投递，遇到第一个失败的事件即停止
+     * 失败事件记录一次失败，之后的事件不计失败次数，与失败事件一起延迟到下次重试
+     *
+     * @return 发布成功的事件数
+     */
+    private int publishOneByOne(List<DomainEvent> events, List<EventOutbox> pending) {
+        EventProperties.Outbox config = eventProperties.getOutbox();
+        int published = 0;
+        Exception failure = null;
+        for (; published < events.size(); published++) {
+            try {
+                eventPublisher.publish(events.get(published));
+            } catch (Exception e) {
+                failure = e;
+                break;
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (published > 0) {
+            eventOutboxMapper.markPublished(ids(pending.subList(0, published)), now);
+        }
+        if (failure == null) {
+            return published;
+        }
+
+        LocalDateTime nextAttemptAt = now.plus(config.getRetryDelay());
+        EventOutbox failedOutbox = pending.get(published);
+        int attempts = (failedOutbox.getAttempts() != null ? failedOutbox.getAttempts() : 0) + 1;
+        eventOutboxMapper.recordFailedAttempt(
+                Collections.singletonList(failedOutbox.getId()), config.getMaxAttempts(), nextAttemptAt);
+        if (attempts >= config.getMaxAttempts()) {
+            log.error("发件箱事件达到最大投递次数，标记为发布失败: id={}, eventId={}, type={}, attempts={}",
+                    failedOutbox.getId(), failedOutbox.getEventId(), failedOutbox.getEventType(), attempts, failure);
+        } else {
+            log.warn("发件箱事件投递失败，等待下次重试: id={}, eventId={}, attempts={}",
+                    failedOutbox.getId(), failedOutbox.getEventId(), attempts, failure);
+        }
+
+        List<EventOutbox> remaining = pending.subList(published + 1, pending.size());
+        if (!remaining.isEmpty()) {
+            eventOutboxMapper.deferAttempt(ids(remaining), nextAttemptAt);
+        }
+        return published;
+    }
+
+    /**
+     * 清理超过保留时间的已发布事件
+     */
+    @Scheduled(cron = "0 0 * * * *")
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minus(eventProperties.getOutbox().getRetention());
+        int deleted = eventOutboxMapper.deletePublishedBefore(before);
+        if (deleted > 0) {
+            log.info("清理已发布的发件箱事件{}条, 截止时间: {}", deleted, before);
+        }
+    }
+
+    private static List<Long> ids(List<EventOutbox> outboxes) {
+        List<Long> ids = new ArrayList<>(outboxes.size());
+        for (EventOutbox outbox : outboxes) {
+            ids.add(outbox.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.diet.event;
+
+import com.example.diet.entity.EventOutbox;
+import com.example.diet.mapper.EventOutboxMapper;
+import com.example.shared.event.DomainEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 事务发件箱
+ * 领域事件与业务数据在同一数据库事务中写入event_outbox表，事务回滚时事件一并回滚，
+ * 由{@link EventOutboxRelay}在事务提交后异步投递，请求线程不再等待消息中间件
+ */
+@Component
+public class TransactionalEventOutbox {
+
+    private final EventOutboxMapper eventOutboxMapper;
+    private final ObjectMapper eventObjectMapper;
+
+    @Autowired
+    public TransactionalEventOutbox(EventOutboxMapper eventOutboxMapper,
+                                    @Qualifier("eventObjectMapper") ObjectMapper eventObjectMapper) {
+        this.eventOutboxMapper = eventOutboxMapper;
+        this.eventObjectMapper = eventObjectMapper;
+    }
+
+    /**
+     * 将领域事件追加到发件箱，必须在业务事务内调用
+     *
+     * @param event 领域事件
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(DomainEvent event) {
+        EventOutbox outbox = new EventOutbox();
+        outbox.setEventId(event.getEventId());
+        outbox.setEventType(event.getClass().getName());
+        outbox.setAggregateId(event.getAggregateId());
+        outbox.setPayload(serialize(event));
+        outbox.setStatus(EventOutbox.STATUS_PENDING);
+        outbox.setAttempts(0);
+        outbox.setCreatedAt(LocalDateTime.now());
+        eventOutboxMapper.insert(outbox);
+    }
+
+    /**
+     * 认领一批已到投递时间的待发布事件
+     * 在短事务内以SKIP LOCKED锁定后把下次可投递时间推迟一个租期并立即提交，
+     * 投递在事务外进行，不在消息中间件往返期间占用行锁和数据库连接；
+     * 中继在租期内崩溃时，事件在租期结束后会被重新认领
+     *
+     * @param limit 最大事件数
+     * @param lease 认领租期
+     * @return 认领到的事件，按写入顺序排列
+     */
+    @Transactional
+    public List<EventOutbox> claim(int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EventOutbox> batch = eventOutboxMapper.lockPending(now, limit);
+        if (!batch.isEmpty()) {
+            List<Long> ids = batch.stream().map(EventOutbox::getId).collect(Collectors.toList());
+            eventOutboxMapper.deferAttempt(ids, now.plus(lease));
+        }
+        return batch;
+    }
+
+    private String serialize(DomainEvent event) {
+        try {
+            // 事件专用ObjectMapper会写入类型信息，中继可直接反序列化为具体事件类型
+            return eventObjectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("无法序列化领域事件: " + event, e);
+        }
+    }
+}
@@ -29,4 +29,69 @@ public interface DietRecordMapper extends BaseMapper<DietRecord> {
     List<Map<String, Object>> findPopularFoods(@Param("startDate") LocalDate startDate,
                                                @Param("endDate") LocalDate endDate,
                                                @Param("limit") int limit);
+
+    /**
+     * 按日期统计指定时间范围内每种食物的出现次数
+     * 用于回填热门食物排行榜的按天分桶数据
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 每日食物统计列表，包含date、food_name、count
+     */
+    @Select("SELECT dr.date, drf.food_name, COUNT(*) as count " +
+            "FROM diet_record_foods drf " +
+            "JOIN diet_records dr ON drf.diet_record_id = dr.id " +
+            "WHERE dr.date BETWEEN #{startDate} AND #{endDate} " +
+            "GROUP BY dr.date, drf.food_name")
+    List<Map<String, Object>> countFoodsByDate(@Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查询指定时间范围内每天有饮食记录的用户
+     * 用于回填活跃用户HyperLogLog
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 每日活跃用户列表，包含date、user_id
+     */
+    @Select("SELECT date, user_id " +
+            "FROM diet_records " +
+            "WHERE date BETWEEN #{startDate} AND #{endDate} " +
+            "GROUP BY date, user_id")
+    List<Map<String, Object>> findActiveUsersGroupByDate(@Param("startDate") LocalDate startDate,
+                                                         @Param("endDate") LocalDate endDate);
+
+    /**
+     * 精确统计指定时间范围内有饮食记录的用户数
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 去重后的用户数
+     */
+    @Select("SELECT COUNT(DISTINCT user_id) " +
+            "FROM diet_records " +
+            "WHERE date BETWEEN #{startDate} AND #{endDate}")
+    long countDistinctUsers(@Param("startDate") LocalDate startDate,
+                            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 按用户和日期汇总指定用户在日期范围内的营养摄入
+     * 热量按食物逐条取整后求和，与营养统计的整数热量口径一致；
+     * 没有食物明细的饮食记录仍计为一个营养值为0的用户日，与按记录逐条汇总的口径一致
+     * @param userIds 用户ID列表
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 每个(用户, 日期)一行，包含user_id、epoch_day、calories、protein、carbs、fat
+     */
+    @Select("<script>" +
+            "SELECT dr.user_id, DATEDIFF(dr.date, '1970-01-01') AS epoch_day, " +
+            "COALESCE(SUM(TRUNCATE(drf.calories, 0)), 0) AS calories, COALESCE(SUM(drf.protein), 0) AS protein, " +
+            "COALESCE(SUM(drf.carbs), 0) AS carbs, COALESCE(SUM(drf.fat), 0) AS fat " +
+            "FROM diet_records dr " +
+            "LEFT JOIN diet_record_foods drf ON drf.diet_record_id = dr.id " +
+            "WHERE dr.date BETWEEN #{startDate} AND #{endDate} " +
+            "AND dr.user_id IN " +
+            "<foreach collection='userIds' item='userId' open='(' separator=',' close=')'>#{userId}</foreach> " +
+            "GROUP BY dr.user_id, dr.date" +
+            "</script>")
+    List<Map<String, Object>> sumDailyNutrients(@Param("userIds") List<Long> userIds,
+                                                @Param("startDate") LocalDate startDate,
+                                                @Param("endDate") LocalDate endDate);
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.example.diet.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.diet.entity.EventOutbox;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface EventOutboxMapper extends BaseMapper<EventOutbox> {
+    /**
+     * 按写入顺序锁定一批已到投递时间的待发布事件
+     * SKIP LOCKED保证多实例中继不会同时处理同一行
+     * @param now 当前时间
+     * @param limit 最大行数
+     * @return 待发布事件列表
+     */
+    @Select("SELECT * FROM event_outbox " +
+            "WHERE status = 0 " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= #{now}) " +
+            "ORDER BY id " +
+            "LIMIT #{limit} " +
+            "FOR UPDATE SKIP LOCKED")
+    List<EventOutbox> lockPending(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 推迟一批事件的下次可投递时间，用于认领租期和释放未投递的事件
+     * @param ids 发件箱ID列表
+     * @param nextAttemptAt 下次可投递时间
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE event_outbox SET next_attempt_at = #{nextAttemptAt} " +
+            "WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deferAttempt(@Param("ids") List<Long> ids,
+                     @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * 将一批事件标记为已发布
+     * @param ids 发件箱ID列表
+     * @param publishedAt 发布时间
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE event_outbox SET status = 1, published_at = #{publishedAt} " +
+            "WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int markPublished(@Param("ids") List<Long> ids,
+                      @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * 将一批事件标记为发布失败，不再投递
+     * @param ids 发件箱ID列表
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE event_outbox SET status = 2 " +
+            "WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int markFailed(@Param("ids") List<Long> ids);
+
+    /**
+     * 记录一次投递失败，失败次数达到上限的事件标记为发布失败
+     * status需在attempts之前赋值，MySQL按顺序执行SET子句，后面的表达式读取的是已更新的值
+     * @param ids 发件箱ID列表
+     * @param maxAttempts 最大投递次数
+     * @param nextAttemptAt 下次可投递时间
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE event_outbox SET " +
+            "status = CASE WHEN attempts + 1 &gt;= #{maxAttempts} THEN 2 ELSE status END, " +
+            "attempts = attempts + 1, " +
+            "next_attempt_at = #{nextAttemptAt} " +
+            "WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int recordFailedAttempt(@Param("ids") List<Long> ids,
+                            @Param("maxAttempts") int maxAttempts,
+                            @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * 删除早于指定时间发布的事件
+     * @param before 截止时间
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM event_outbox WHERE status = 1 AND published_at < #{before}")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -9,18 +9,21 @@ import com.example.diet.command.DietRecordDeleteCommand;
 import com.example.diet.command.DietRecordQueryCommand;
 import com.example.diet.dto.DietRecordFoodDTO;
 import com.example.diet.dto.DietRecordResponseDTO;
+import com.example.diet.dto.NutritionFactsDTO;
 import com.example.user.dto.UserInfoDTO;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import com.example.diet.entity.DietRecord;
 import com.example.diet.entity.DietRecordFood;
 import com.example.diet.event.DietRecordAddedEvent;
-import com.example.shared.event.EventPublisher;
+import com.example.diet.event.TransactionalEventOutbox;
 import com.example.shared.response.PageResult;
 import com.example.diet.service.DietRecordService;
 import com.example.user.service.UserService;
 import com.example.diet.mapper.DietRecordFoodMapper;
 import com.example.diet.mapper.DietRecordMapper;
+import com.example.diet.stat.ActiveUserCounter;
+import com.example.diet.stat.PopularFoodLeaderboard;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.dubbo.config.annotation.DubboReference;
@@ -29,6 +32,8 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -49,7 +54,9 @@ public class DietRecordServiceImpl extends ServiceImpl<DietRecordMapper, DietRec
 
     private final DietRecordMapper dietRecordMapper;
     private final DietRecordFoodMapper dietRecordFoodMapper;
-    private final EventPublisher eventPublisher;
+    private final TransactionalEventOutbox eventOutbox;
+    private final PopularFoodLeaderboard popularFoodLeaderboard;
+    private final ActiveUserCounter activeUserCounter;
 
     @DubboReference
     private UserService userService;
@@ -57,10 +64,14 @@ public class DietRecordServiceImpl extends ServiceImpl<DietRecordMapper, DietRec
     @Autowired
     public DietRecordServiceImpl(DietRecordMapper dietRecordMapper,
                                  DietRecordFoodMapper dietRecordFoodMapper,
-                                 EventPublisher eventPublisher) {
+                                 TransactionalEventOutbox eventOutbox,
+                                 PopularFoodLeaderboard popularFoodLeaderboard,
+                                 ActiveUserCounter activeUserCounter) {
         this.dietRecordMapper = dietRecordMapper;
         this.dietRecordFoodMapper = dietRecordFoodMapper;
-        this.eventPublisher = eventPublisher;
+        this.eventOutbox = eventOutbox;
+        this.popularFoodLeaderboard = popularFoodLeaderboard;
+        this.activeUserCounter = activeUserCounter;
     }
 
 
@@ -168,11 +179,23 @@ public class DietRecordServiceImpl extends ServiceImpl<DietRecordMapper, DietRec
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public long countActiveUsersByDate(LocalDate date) {
+        return countActiveUsersByDateRange(date, date);
+    }
 
+    @Override
+    public long countActiveUsersByDateRange(LocalDate startDate, LocalDate endDate) {
+        try {
+            return activeUserCounter.count(startDate, endDate);
+        } catch (Exception e) {
+            log.warn("读取活跃用户HyperLogLog失败，回退到数据库统计: {} 至 {}", startDate, endDate, e);
+            return dietRecordMapper.countDistinctUsers(startDate, endDate);
+        }
+    }
 
 
     @Override
-    @Cacheable(value = "dietRecord", key = "'popular_' + #period + '_' + #limit")
     public List<Map<String, Object>> getPopularFoodsByPeriod(String period, int limit) {
         // 根据时间周期确定日期范围
         LocalDate endDate = LocalDate.now();
@@ -191,6 +214,13 @@ public class DietRecordServiceImpl extends ServiceImpl<DietRecordMapper, DietRec
                 break;
         }
 
+        // 优先读取Redis中按天分桶维护的实时排行榜
+        try {
+            return popularFoodLeaderboard.top(startDate, endDate, limit);
+        } catch (Exception e) {
+            log.warn("读取热门食物排行榜失败，回退到数据库查询, 周期: {}", period, e);
+        }
+
         log.debug("从数据库查询热门食物数据, 日期范围: {} 至 {}, 周期: {}", startDate, endDate, period);
         // 从食物明细表查询该时间段内的热门食物
         List<Map<String, Object>> popularFoods = dietRecordMapper.findPopularFoods(startDate, endDate, limit);
@@ -255,22 +285,34 @@ public class DietRecordServiceImpl extends ServiceImpl<DietRecordMapper, DietRec
             }
         }
 
-        // 3. 发布饮食记录添加事件
-        try {
-            DietRecordAddedEvent event = new DietRecordAddedEvent(
-                command.getUserId(),
-                recordId,
-                dietRecord.getDate(),
-                command.getMealType()
-            );
-            eventPublisher.publish(event);
-            log.info("发布饮食记录添加事件: userId={}, recordId={}, date={}",
-                command.getUserId(), recordId, dietRecord.getDate());
-        } catch (Exception e) {
-            log.error("发布饮食记录添加事件失败: userId={}, recordId={}",
-                command.getUserId(), recordId, e);
-            // 事件发布失败不影响主业务流程
-        }
+        // 3. 事务提交后更新热门食物排行榜和活跃用户计数，避免回滚留下虚增计数（HyperLogLog无法扣减）
+        LocalDate recordDate = dietRecord.getDate();
+        Long userId = command.getUserId();
+        List<String> addedFoodNames = foodNames(command.getFoods());
+        // 两项统计各自捕获异常，排行榜写入失败不影响活跃用户计数；统计数据会在下次回填时以数据库为准修正，不影响主业务流程
+        afterCommit(() -> {
+            try {
+                popularFoodLeaderboard.increment(recordDate, addedFoodNames);
+            } catch (Exception e) {
+                log.error("更新热门食物排行榜失败: recordId={}", recordId, e);
+            }
+            try {
+                activeUserCounter.record(recordDate, userId);
+            } catch (Exception e) {
+                log.error("更新活跃用户计数失败: recordId={}", recordId, e);
+            }
+        });
+
+        // 4. 饮食记录添加事件写入发件箱，与饮食记录同事务提交，由发件箱中继异步发布
+        DietRecordAddedEvent event = new DietRecordAddedEvent(
+            command.getUserId(),
+            recordId,
+            dietRecord.getDate(),
+            command.getMealType()
+        );
+        eventOutbox.append(event);
+        log.debug("饮食记录添加事件已写入发件箱: userId={}, recordId={}, date={}",
+            command.getUserId(), recordId, dietRecord.getDate());
 
         return recordId;
     }
@@ -355,6 +397,56 @@ public class DietRecordServiceImpl extends ServiceImpl<DietRecordMapper, DietRec
         return result;
     }
 
+    @Override
+    public NutritionFactsDTO getDailyNutrientTotals(List<Long> userIds, LocalDate startDate, LocalDate endDate) {
+        log.debug("批量查询每日营养总量: userIds={}, startDate={}, endDate={}", userIds.size(), startDate, endDate);
+
+        if (userIds.isEmpty()) {
+            return toNutritionFacts(new ArrayList<>());
+        }
+
+        NutritionFactsDTO facts = toNutritionFacts(dietRecordMapper.sumDailyNutrients(userIds, startDate, endDate));
+        log.debug("批量查询每日营养总量完成，返回{}行", facts.getSize());
+        return facts;
+    }
+
+    /**
+     * 将数据库按(用户, 日期)汇总的结果转换为列式数据
+     */
+    private static NutritionFactsDTO toNutritionFacts(List<Map<String, Object>> rows) {
+        int size = rows.size();
+        long[] userIds = new long[size];
+        int[] epochDays = new int[size];
+        double[] calories = new double[size];
+        double[] protein = new double[size];
+        double[] carbs = new double[size];
+        double[] fat = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> row = rows.get(i);
+            userIds[i] = ((Number) row.get("user_id")).longValue();
+            epochDays[i] = ((Number) row.get("epoch_day")).intValue();
+            calories[i] = doubleValueOf(row.get("calories"));
+            protein[i] = doubleValueOf(row.get("protein"));
+            carbs[i] = doubleValueOf(row.get("carbs"));
+            fat[i] = doubleValueOf(row.get("fat"));
+        }
+
+        NutritionFactsDTO facts = new NutritionFactsDTO();
+        facts.setSize(size);
+        facts.setUserIds(userIds);
+        facts.setEpochDays(epochDays);
+        facts.setCalories(calories);
+        facts.setProtein(protein);
+        facts.setCarbs(carbs);
+        facts.setFat(fat);
+        return facts;
+    }
+
+    private static double doubleValueOf(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
     @Override
     @Cacheable(value = "dietRecord", key = "'all_' + #command.page + '_' + #command.size + '_' + (#command.startDate ?: '') + '_' + (#command.endDate ?: '') + '_' + (#command.mealType ?: '')")
     public PageResult<DietRecordResponseDTO> getAllUsersDietRecords(DietRecordQueryCommand command) {
@@ -426,11 +518,51 @@ public class DietRecordServiceImpl extends ServiceImpl<DietRecordMapper, DietRec
         // 删除食物记录
         LambdaQueryWrapper<DietRecordFood> foodWrapper = new LambdaQueryWrapper<>();
         foodWrapper.eq(DietRecordFood::getDietRecordId, command.getRecordId());
+        List<String> deletedFoodNames = dietRecordFoodMapper.selectList(foodWrapper).stream()
+                .map(DietRecordFood::getFoodName)
+                .collect(Collectors.toList());
         dietRecordFoodMapper.delete(foodWrapper);
 
         // 删除主记录
         dietRecordMapper.deleteById(command.getRecordId());
 
+        // 事务提交后扣减热门食物排行榜
+        afterCommit(() -> {
+            try {
+                popularFoodLeaderboard.decrement(dietRecord.getDate(), deletedFoodNames);
+            } catch (Exception e) {
+                log.error("扣减热门食物排行榜失败: recordId={}", command.getRecordId(), e);
+            }
+        });
+
         return true;
     }
+
+    /**
+     * 在当前事务提交后执行统计更新，事务回滚时不执行；没有活动事务时立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 提取食物明细中的食物名称
+     */
+    private static List<String> foodNames(List<DietRecordAddCommand.DietRecordFoodCommand> foods) {
+        if (foods == null) {
+            return new ArrayList<>();
+        }
+        return foods.stream()
+                .map(DietRecordAddCommand.DietRecordFoodCommand::getName)
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
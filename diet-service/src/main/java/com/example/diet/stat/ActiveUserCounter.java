@@ -0,0 +1,154 @@
+package com.example.diet.stat;
+
+import com.example.diet.mapper.DietRecordMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 活跃用户近似计数器
+ * 每天维护一个Redis HyperLogLog，写入饮食记录时PFADD用户ID，
+ * 日期范围的去重用户数通过多键PFCOUNT合并得到，标准误差约0.81%，每个分桶最多占用12KB
+ */
+@Slf4j
+@Component
+public class ActiveUserCounter {
+
+    private static final String DAY_KEY_PREFIX = "diet:active:day:";
+    private static final String BACKFILL_LOCK_KEY = "diet:active:backfill";
+
+    /**
+     * 日分桶保留时间，需覆盖最长的年度趋势窗口
+     */
+    private static final Duration DAY_BUCKET_TTL = Duration.ofDays(400);
+
+    /**
+     * 回填间隔，HyperLogLog只增不减，回填只补齐缺失的用户
+     */
+    private static final Duration BACKFILL_INTERVAL = Duration.ofHours(12);
+
+    /**
+     * 回填时单次PFADD的最大用户数
+     */
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    /**
+     * 回填时单次查询覆盖的天数，按日期分页避免一次性加载整年的(date, user_id)数据
+     */
+    private static final int BACKFILL_PAGE_DAYS = 7;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DietRecordMapper dietRecordMapper;
+
+    @Autowired
+    public ActiveUserCounter(StringRedisTemplate stringRedisTemplate, DietRecordMapper dietRecordMapper) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.dietRecordMapper = dietRecordMapper;
+    }
+
+    /**
+     * 记录用户在指定日期活跃
+     * HyperLogLog不支持移除元素，删除饮食记录不会减少已记录的活跃用户数
+     * @param date 饮食记录日期
+     * @param userId 用户ID
+     */
+    public void record(LocalDate date, Long userId) {
+        if (date == null || userId == null) {
+            return;
+        }
+        String key = dayKey(date);
+        stringRedisTemplate.opsForHyperLogLog().add(key, userId.toString());
+        stringRedisTemplate.expire(key, DAY_BUCKET_TTL);
+    }
+
+    /**
+     * 估算日期范围内的去重活跃用户数
+     * @param startDate 开始日期（包含）
+     * @param endDate 结束日期（包含）
+     * @return 近似去重用户数
+     */
+    public long count(LocalDate startDate, LocalDate endDate) {
+        List<String> keys = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            keys.add(dayKey(date));
+        }
+        if (keys.isEmpty()) {
+            return 0L;
+        }
+        Long size = stringRedisTemplate.opsForHyperLogLog().size(keys.toArray(new String[0]));
+        return size != null ? size : 0L;
+    }
+
+    /**
+     * 服务启动后按数据库数据回填最近一年的日分桶
+     * 通过分布式锁保证多实例下同一时间只有一个实例执行回填
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(BACKFILL_LOCK_KEY, "1", BACKFILL_INTERVAL);
+            if (!Boolean.TRUE.equals(acquired)) {
+                log.debug("活跃用户计数已由其他实例回填，跳过");
+                return;
+            }
+
+            LocalDate endDate = LocalDate.now();
+            LocalDate startDate = endDate.minusDays(DAY_BUCKET_TTL.toDays() - 1);
+            int bucketCount = 0;
+            for (LocalDate pageStart = startDate; !pageStart.isAfter(endDate);
+                 pageStart = pageStart.plusDays(BACKFILL_PAGE_DAYS)) {
+                LocalDate pageEnd = pageStart.plusDays(BACKFILL_PAGE_DAYS - 1);
+                if (pageEnd.isAfter(endDate)) {
+                    pageEnd = endDate;
+                }
+                bucketCount += backfillPage(pageStart, pageEnd);
+            }
+
+            log.info("活跃用户计数回填完成, 日期范围: {} 至 {}, 分桶数: {}", startDate, endDate, bucketCount);
+        } catch (Exception e) {
+            log.error("活跃用户计数回填失败", e);
+        }
+    }
+
+    /**
+     * 回填一页日期范围内的日分桶
+     * @return 本页写入的分桶数
+     */
+    private int backfillPage(LocalDate startDate, LocalDate endDate) {
+        List<Map<String, Object>> rows = dietRecordMapper.findActiveUsersGroupByDate(startDate, endDate);
+
+        Map<String, List<String>> buckets = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            Object date = row.get("date");
+            Object userId = row.get("user_id");
+            if (date != null && userId != null) {
+                buckets.computeIfAbsent(DAY_KEY_PREFIX + date, k -> new ArrayList<>()).add(userId.toString());
+            }
+        }
+
+        for (Map.Entry<String, List<String>> bucket : buckets.entrySet()) {
+            List<String> userIds = bucket.getValue();
+            for (int from = 0; from < userIds.size(); from += BACKFILL_BATCH_SIZE) {
+                List<String> batch = userIds.subList(from, Math.min(from + BACKFILL_BATCH_SIZE, userIds.size()));
+                stringRedisTemplate.opsForHyperLogLog().add(bucket.getKey(), batch.toArray(new String[0]));
+            }
+            stringRedisTemplate.expire(bucket.getKey(), DAY_BUCKET_TTL);
+        }
+        return buckets.size();
+    }
+
+    private static String dayKey(LocalDate date) {
+        return DAY_KEY_PREFIX + date;
+    }
+}
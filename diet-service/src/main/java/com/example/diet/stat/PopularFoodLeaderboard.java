@@ -0,0 +1,255 @@
+package com.example.diet.stat;
+
+import com.example.diet.mapper.DietRecordMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 热门食物实时排行榜
+ * 每条食物明细写入时按记录日期累加到当天的Redis有序集合中，
+ * 周/月/季度排行通过ZUNIONSTORE合并对应日期窗口的分桶得到，读取只需一次ZREVRANGE
+ */
+@Slf4j
+@Component
+public class PopularFoodLeaderboard {
+
+    private static final String DAY_KEY_PREFIX = "diet:popular:day:";
+    private static final String UNION_KEY_PREFIX = "diet:popular:union:";
+    private static final String BACKFILL_LOCK_KEY = "diet:popular:backfill";
+    private static final String REBUILD_KEY_SUFFIX = ":rebuild";
+    private static final String SNAPSHOT_KEY_SUFFIX = ":snapshot";
+
+    /**
+     * 回填进行中标记，存在期间的累加同时写入重建键，重建键替换日分桶时不丢失回填期间的累加
+     */
+    private static final String REBUILDING_KEY = "diet:popular:rebuilding";
+
+    /**
+     * 回填进行中标记的过期时间，回填异常中断时标记自动失效
+     */
+    private static final Duration REBUILDING_TTL = Duration.ofMinutes(10);
+
+    /**
+     * 日分桶保留时间，需覆盖最长的季度窗口
+     */
+    private static final Duration DAY_BUCKET_TTL = Duration.ofDays(100);
+
+    /**
+     * 合并结果的保留时间，窗口内的新增记录最多延迟该时间后可见
+     */
+    private static final Duration UNION_TTL = Duration.ofSeconds(60);
+
+    /**
+     * 回填间隔，定时回填以数据库为准修正Redis写入失败等原因导致的计数偏差
+     */
+    private static final long BACKFILL_INTERVAL_MILLIS = 12 * 60 * 60 * 1000L;
+
+    /**
+     * 回填锁过期时间，略短于回填间隔，保证下一轮定时回填时上一轮的锁已经释放
+     */
+    private static final Duration BACKFILL_LOCK_TTL = Duration.ofMillis(BACKFILL_INTERVAL_MILLIS).minusMinutes(5);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DietRecordMapper dietRecordMapper;
+
+    @Autowired
+    public PopularFoodLeaderboard(StringRedisTemplate stringRedisTemplate, DietRecordMapper dietRecordMapper) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.dietRecordMapper = dietRecordMapper;
+    }
+
+    /**
+     * 记录一批食物在指定日期被食用
+     * @param date 饮食记录日期
+     * @param foodNames 食物名称列表，每条食物明细对应一个元素
+     */
+    public void increment(LocalDate date, List<String> foodNames) {
+        adjust(date, foodNames, 1);
+    }
+
+    /**
+     * 撤销一批食物在指定日期的计数，用于删除饮食记录
+     * @param date 饮食记录日期
+     * @param foodNames 食物名称列表，每条食物明细对应一个元素
+     */
+    public void decrement(LocalDate date, List<String> foodNames) {
+        adjust(date, foodNames, -1);
+        // 清理计数归零的成员，避免排行榜中出现0次的食物
+        stringRedisTemplate.opsForZSet().removeRangeByScore(dayKey(date), Double.NEGATIVE_INFINITY, 0);
+    }
+
+    /**
+     * 获取日期窗口内的热门食物排行
+     * @param startDate 开始日期（包含）
+     * @param endDate 结束日期（包含）
+     * @param limit 返回数量限制
+     * @return 热门食物列表，包含name和count
+     */
+    public List<Map<String, Object>> top(LocalDate startDate, LocalDate endDate, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        ZSetOperations<String, String> zSetOps = stringRedisTemplate.opsForZSet();
+        String unionKey = UNION_KEY_PREFIX + startDate + "_" + endDate;
+
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(unionKey))) {
+            List<String> dayKeys = new ArrayList<>();
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                dayKeys.add(dayKey(date));
+            }
+            zSetOps.unionAndStore(dayKeys.get(0), dayKeys.subList(1, dayKeys.size()), unionKey);
+            stringRedisTemplate.expire(unionKey, UNION_TTL);
+        }
+
+        Set<ZSetOperations.TypedTuple<String>> ranking = zSetOps.reverseRangeWithScores(unionKey, 0, limit - 1);
+        if (ranking == null) {
+            return new ArrayList<>();
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(ranking.size());
+        for (ZSetOperations.TypedTuple<String> entry : ranking) {
+            Map<String, Object> foodMap = new HashMap<>();
+            foodMap.put("name", entry.getValue());
+            foodMap.put("count", entry.getScore() != null ? entry.getScore().longValue() : 0L);
+            result.add(foodMap);
+        }
+        return result;
+    }
+
+    /**
+     * 服务启动后按数据库数据回填最近一个季度的日分桶
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        backfill();
+    }
+
+    /**
+     * 按数据库数据回填最近一个季度的日分桶，服务运行期间每隔回填间隔执行一次
+     * 通过分布式锁保证多实例下同一回填间隔内只有一个实例执行回填
+     */
+    @Scheduled(initialDelay = BACKFILL_INTERVAL_MILLIS, fixedDelay = BACKFILL_INTERVAL_MILLIS)
+    public void backfill() {
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(BACKFILL_LOCK_KEY, "1", BACKFILL_LOCK_TTL);
+            if (!Boolean.TRUE.equals(acquired)) {
+                log.debug("热门食物排行榜已由其他实例回填，跳过");
+                return;
+            }
+
+            LocalDate endDate = LocalDate.now();
+            LocalDate startDate = endDate.minusMonths(3);
+            // 清理上一轮残留的重建键后再打开双写，之后的累加同时记入重建键
+            deleteRebuildKeys(startDate, endDate);
+            stringRedisTemplate.opsForValue().set(REBUILDING_KEY, "1", REBUILDING_TTL);
+            try {
+                rebuild(startDate, endDate);
+            } finally {
+                stringRedisTemplate.delete(REBUILDING_KEY);
+                // 关闭双写后替换完成的日分桶仍可能收到双写，残留的重建键不再有用
+                deleteRebuildKeys(startDate, endDate);
+            }
+        } catch (Exception e) {
+            log.error("热门食物排行榜回填失败", e);
+        }
+    }
+
+    /**
+     * 按数据库快照重建日分桶
+     * 快照写入临时键后与重建键中双写的累加合并，再RENAME原子替换日分桶：
+     * 快照读取之后提交的累加已记入重建键，替换时不会丢失；
+     * 打开双写到读取快照之间提交的记录会同时计入快照和重建键，偏差由下一轮回填修正
+     */
+    private void rebuild(LocalDate startDate, LocalDate endDate) {
+        List<Map<String, Object>> rows = dietRecordMapper.countFoodsByDate(startDate, endDate);
+
+        Map<String, Set<ZSetOperations.TypedTuple<String>>> buckets = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            Object date = row.get("date");
+            Object foodName = row.get("food_name");
+            Object count = row.get("count");
+            if (date == null || foodName == null || count == null) {
+                continue;
+            }
+            buckets.computeIfAbsent(DAY_KEY_PREFIX + date, k -> new HashSet<>())
+                    .add(new DefaultTypedTuple<>(foodName.toString(), ((Number) count).doubleValue()));
+        }
+
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            String key = dayKey(date);
+            Set<ZSetOperations.TypedTuple<String>> tuples = buckets.getOrDefault(key, Collections.emptySet());
+            String rebuildKey = key + REBUILD_KEY_SUFFIX;
+            String snapshotKey = key + SNAPSHOT_KEY_SUFFIX;
+            stringRedisTemplate.delete(snapshotKey);
+            if (!tuples.isEmpty()) {
+                stringRedisTemplate.opsForZSet().add(snapshotKey, tuples);
+            }
+            // 合并到重建键，重建键不存在时按空集合处理，合并结果为空时不会创建重建键
+            stringRedisTemplate.opsForZSet().unionAndStore(snapshotKey, rebuildKey, rebuildKey);
+            stringRedisTemplate.delete(snapshotKey);
+            stringRedisTemplate.opsForZSet().removeRangeByScore(rebuildKey, Double.NEGATIVE_INFINITY, 0);
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(rebuildKey))) {
+                stringRedisTemplate.delete(key);
+                continue;
+            }
+            stringRedisTemplate.expire(rebuildKey, DAY_BUCKET_TTL);
+            stringRedisTemplate.rename(rebuildKey, key);
+        }
+
+        log.info("热门食物排行榜回填完成, 日期范围: {} 至 {}, 分桶数: {}", startDate, endDate, buckets.size());
+    }
+
+    private void deleteRebuildKeys(LocalDate startDate, LocalDate endDate) {
+        List<String> rebuildKeys = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            rebuildKeys.add(dayKey(date) + REBUILD_KEY_SUFFIX);
+        }
+        stringRedisTemplate.delete(rebuildKeys);
+    }
+
+    private void adjust(LocalDate date, List<String> foodNames, int delta) {
+        if (date == null || foodNames == null || foodNames.isEmpty()) {
+            return;
+        }
+
+        String key = dayKey(date);
+        incrementScores(key, foodNames, delta);
+        // 回填进行中时同时记入重建键，避免重建键替换日分桶时覆盖读取快照之后的累加
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(REBUILDING_KEY))) {
+            incrementScores(key + REBUILD_KEY_SUFFIX, foodNames, delta);
+        }
+    }
+
+    private void incrementScores(String key, List<String> foodNames, int delta) {
+        ZSetOperations<String, String> zSetOps = stringRedisTemplate.opsForZSet();
+        for (String foodName : foodNames) {
+            if (foodName != null) {
+                zSetOps.incrementScore(key, foodName, delta);
+            }
+        }
+        stringRedisTemplate.expire(key, DAY_BUCKET_TTL);
+    }
+
+    private static String dayKey(LocalDate date) {
+        return DAY_KEY_PREFIX + date;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.diet.event;
+
+import com.example.diet.entity.EventOutbox;
+import com.example.diet.mapper.EventOutboxMapper;
+import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 发件箱中继测试
+ */
+public class EventOutboxRelayTest {
+
+    private TransactionalEventOutbox eventOutbox;
+    private EventOutboxMapper eventOutboxMapper;
+    private EventPublisher eventPublisher;
+    private ObjectMapper eventObjectMapper;
+    private EventOutboxRelay relay;
+
+    private final DomainEvent event1 = mock(DomainEvent.class);
+    private final DomainEvent event2 = mock(DomainEvent.class);
+    private final DomainEvent event3 = mock(DomainEvent.class);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        eventOutbox = mock(TransactionalEventOutbox.class);
+        eventOutboxMapper = mock(EventOutboxMapper.class);
+        eventPublisher = mock(EventPublisher.class);
+        eventObjectMapper = mock(ObjectMapper.class);
+        EventProperties eventProperties = new EventProperties();
+        eventProperties.getOutbox().setMaxAttempts(3);
+
+        relay = new EventOutboxRelay(eventOutbox, eventOutboxMapper, eventPublisher, eventObjectMapper, eventProperties);
+
+        when(eventOutbox.claim(anyInt(), any(Duration.class))).thenReturn(Arrays.asList(
+            outbox(1L, "e1", 0), outbox(2L, "e2", 2), outbox(3L, "e3", 0)));
+        when(eventObjectMapper.readValue("e1", DomainEvent.class)).thenReturn(event1);
+        when(eventObjectMapper.readValue("e2", DomainEvent.class)).thenReturn(event2);
+        when(eventObjectMapper.readValue("e3", DomainEvent.class)).thenReturn(event3);
+    }
+
+    @Test
+    public void testRelay_PublishesWholeBatch() {
+        relay.relay();
+
+        verify(eventPublisher).publishAll(Arrays.asList(event1, event2, event3));
+        verify(eventOutboxMapper).markPublished(eq(Arrays.asList(1L, 2L, 3L)), any());
+        verify(eventOutboxMapper, never()).recordFailedAttempt(anyList(), anyInt(), any());
+    }
+
+    @Test
+    public void testRelay_IsolatesFailingEvent() {
+        doThrow(new IllegalStateException("batch")).when(eventPublisher).publishAll(anyList());
+        doThrow(new IllegalStateException("event2")).when(eventPublisher).publish(event2);
+
+        relay.relay();
+
+        // 失败事件之前的事件发布成功，只有失败事件累计失败次数，之后的事件延迟重试
+        verify(eventOutboxMapper).markPublished(eq(Collections.singletonList(1L)), any());
+        verify(eventOutboxMapper).recordFailedAttempt(eq(Collections.singletonList(2L)), eq(3), any());
+        verify(eventOutboxMapper).deferAttempt(eq(Collections.singletonList(3L)), any());
+        verify(eventPublisher, never()).publish(event3);
+    }
+
+    @Test
+    public void testRelay_NothingClaimed() {
+        when(eventOutbox.claim(anyInt(), any(Duration.class))).thenReturn(Collections.emptyList());
+
+        relay.relay();
+
+        verify(eventPublisher, never()).publishAll(anyList());
+    }
+
+    private static EventOutbox outbox(Long id, String payload, int attempts) {
+        EventOutbox outbox = new EventOutbox();
+        outbox.setId(id);
+        outbox.setEventId("event-" + id);
+        outbox.setPayload(payload);
+        outbox.setAttempts(attempts);
+        return outbox;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.diet.service;
+
+import com.example.diet.dto.DietRecordFoodDTO;
+import com.example.diet.dto.DietRecordResponseDTO;
+import com.example.diet.dto.NutritionFactsDTO;
+import com.example.diet.entity.DietRecord;
+import com.example.diet.entity.DietRecordFood;
+import com.example.diet.mapper.DietRecordFoodMapper;
+import com.example.diet.mapper.DietRecordMapper;
+import com.example.user.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 饮食记录服务测试
+ * 对比逐条记录汇总（原营养统计口径）与数据库按(用户, 日期)汇总两种方式在同一组数据上的结果
+ */
+public class DietRecordServiceImplTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2024, 3, 1);
+    private static final LocalDate DAY2 = LocalDate.of(2024, 3, 2);
+    private static final List<Long> USER_IDS = Arrays.asList(1L, 2L);
+
+    private DietRecordMapper dietRecordMapper;
+    private DietRecordFoodMapper dietRecordFoodMapper;
+    private DietRecordServiceImpl dietRecordService;
+
+    @BeforeEach
+    public void setUp() {
+        dietRecordMapper = mock(DietRecordMapper.class);
+        dietRecordFoodMapper = mock(DietRecordFoodMapper.class);
+        dietRecordService = new DietRecordServiceImpl(dietRecordMapper, dietRecordFoodMapper, null, null, null);
+        ReflectionTestUtils.setField(dietRecordService, "userService", mock(UserService.class));
+
+        // 用户1在DAY1有两条记录，在DAY2有一条没有食物明细的记录；用户2在DAY1有一条记录
+        when(dietRecordMapper.selectList(any())).thenReturn(Arrays.asList(
+            record(11L, 1L, DAY1), record(12L, 1L, DAY1), record(13L, 1L, DAY2), record(21L, 2L, DAY1)));
+        when(dietRecordFoodMapper.selectList(any())).thenReturn(
+            Arrays.asList(food(11L, "250.7", "10.5", "30.2", "8.1"), food(11L, "120.9", "3", "20", "1")),
+            Collections.singletonList(food(12L, "400.2", "25", "10", "20")),
+            Collections.emptyList(),
+            Collections.singletonList(food(21L, "99.99", "1", "2", "3")));
+
+        // 上述数据经sumDailyNutrients（LEFT JOIN + COALESCE）汇总后的结果行，类型与MySQL驱动返回一致
+        when(dietRecordMapper.sumDailyNutrients(anyList(), any(), any())).thenReturn(Arrays.asList(
+            row(1L, DAY1, "770", "38.5", "60.2", "29.1"),
+            row(1L, DAY2, "0", "0", "0", "0"),
+            row(2L, DAY1, "99", "1", "2", "3")));
+    }
+
+    @Test
+    public void testDailyNutrientTotals_MatchPerRecordAggregation() {
+        Map<String, double[]> baseline = sumPerRecord(
+            dietRecordService.getBatchDietRecordsForNutritionStat(USER_IDS, DAY1, DAY2));
+        Map<String, double[]> aggregated = toTotals(
+            dietRecordService.getDailyNutrientTotals(USER_IDS, DAY1, DAY2));
+
+        assertEquals(baseline.keySet(), aggregated.keySet());
+        for (Map.Entry<String, double[]> entry : baseline.entrySet()) {
+            assertArrayEquals(entry.getValue(), aggregated.get(entry.getKey()), 1e-9, entry.getKey());
+        }
+    }
+
+    @Test
+    public void testDailyNutrientTotals_KeepsUserDayWithoutFoods() {
+        Map<String, double[]> aggregated = toTotals(
+            dietRecordService.getDailyNutrientTotals(USER_IDS, DAY1, DAY2));
+
+        // 没有食物明细的用户日仍计入样本，全站平均值与原口径一致
+        assertArrayEquals(new double[] {0, 0, 0, 0}, aggregated.get("1_" + DAY2), 0);
+        assertEquals(3, aggregated.size());
+    }
+
+    @Test
+    public void testDailyNutrientTotals_EmptyUserIds() {
+        NutritionFactsDTO facts = dietRecordService.getDailyNutrientTotals(new ArrayList<>(), DAY1, DAY2);
+
+        assertEquals(0, facts.getSize());
+    }
+
+    /**
+     * 原营养统计口径：按(用户, 日期)逐条累加食物明细，热量逐条取整
+     */
+    private static Map<String, double[]> sumPerRecord(Map<Long, Map<String, List<DietRecordResponseDTO>>> records) {
+        Map<String, double[]> totals = new HashMap<>();
+        records.forEach((userId, byDate) -> byDate.forEach((date, dayRecords) -> {
+            double[] sum = totals.computeIfAbsent(userId + "_" + date, k -> new double[4]);
+            for (DietRecordResponseDTO record : dayRecords) {
+                for (DietRecordFoodDTO food : record.getFoods()) {
+                    sum[0] += food.getCalories().intValue();
+                    sum[1] += food.getProtein().doubleValue();
+                    sum[2] += food.getCarbs().doubleValue();
+                    sum[3] += food.getFat().doubleValue();
+                }
+            }
+        }));
+        return totals;
+    }
+
+    private static Map<String, double[]> toTotals(NutritionFactsDTO facts) {
+        Map<String, double[]> totals = new HashMap<>();
+        for (int i = 0; i < facts.getSize(); i++) {
+            String key = facts.getUserIds()[i] + "_" + LocalDate.ofEpochDay(facts.getEpochDays()[i]);
+            totals.put(key, new double[] {
+                facts.getCalories()[i], facts.getProtein()[i], facts.getCarbs()[i], facts.getFat()[i]});
+        }
+        return totals;
+    }
+
+    private static DietRecord record(Long id, Long userId, LocalDate date) {
+        DietRecord record = new DietRecord();
+        record.setId(id);
+        record.setUserId(userId);
+        record.setDate(date);
+        return record;
+    }
+
+    private static DietRecordFood food(Long recordId, String calories, String protein, String carbs, String fat) {
+        DietRecordFood food = new DietRecordFood();
+        food.setDietRecordId(recordId);
+        food.setCalories(new BigDecimal(calories));
+        food.setProtein(new BigDecimal(protein));
+        food.setCarbs(new BigDecimal(carbs));
+        food.setFat(new BigDecimal(fat));
+        return food;
+    }
+
+    private static Map<String, Object> row(Long userId, LocalDate date, String calories, String protein,
+                                           String carbs, String fat) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("user_id", userId);
+        row.put("epoch_day", date.toEpochDay());
+        row.put("calories", new BigDecimal(calories));
+        row.put("protein", new BigDecimal(protein));
+        row.put("carbs", new BigDecimal(carbs));
+        row.put("fat", new BigDecimal(fat));
+        return row;
+    }
+}
@@ -83,6 +83,29 @@ INSERT INTO `diet_records` VALUES (1,23,'2025-04-21','07:03:00','breakfast','',1
 /*!40000 ALTER TABLE `diet_records` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `event_outbox`
+--
+
+DROP TABLE IF EXISTS `event_outbox`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `event_outbox` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `event_id` varchar(64) NOT NULL COMMENT '事件ID',
+  `event_type` varchar(255) NOT NULL COMMENT '事件类型(类名)',
+  `aggregate_id` varchar(64) DEFAULT NULL COMMENT '聚合根ID',
+  `payload` text NOT NULL COMMENT '序列化后的事件内容',
+  `status` tinyint NOT NULL DEFAULT '0' COMMENT '状态: 0待发布 1已发布 2发布失败',
+  `attempts` int NOT NULL DEFAULT '0' COMMENT '发布失败次数',
+  `next_attempt_at` datetime DEFAULT NULL COMMENT '下次可投递时间，用于认领租期和失败重试间隔',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `published_at` datetime DEFAULT NULL COMMENT '发布时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_status_id` (`status`,`id`) COMMENT '状态索引，中继按写入顺序读取待发布事件'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='领域事件发件箱';
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `food`
 --
@@ -0,0 +1,50 @@
+package com.example.food.event;
+
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.codec.EventType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 食物目录变更事件
+ * 管理员新增、修改、删除食物或食物分类后发布此事件，用于通知网关等缓存了食物目录的组件失效缓存
+ */
+@Getter
+@EventType("food.catalog-changed")
+@NoArgsConstructor  // Jackson反序列化需要
+public class FoodCatalogChangedEvent extends DomainEvent {
+
+    /**
+     * 食物变更
+     */
+    public static final String SCOPE_FOOD = "food";
+
+    /**
+     * 食物分类变更
+     */
+    public static final String SCOPE_CATEGORY = "category";
+
+    /**
+     * 变更范围：food或category
+     */
+    private String scope;
+
+    /**
+     * 构造函数
+     *
+     * @param scope 变更范围
+     */
+    public FoodCatalogChangedEvent(String scope) {
+        super(scope, 1L, "food-service");
+        this.scope = scope;
+    }
+
+    @Override
+    public String toString() {
+        return "FoodCatalogChangedEvent{" +
+                "scope='" + scope + '\'' +
+                ", eventId='" + getEventId() + '\'' +
+                ", timestamp=" + getTimestamp() +
+                '}';
+    }
+}
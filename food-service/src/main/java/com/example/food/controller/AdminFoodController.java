@@ -12,6 +12,7 @@ import com.example.food.dto.FoodItemDTO;
 import com.example.food.dto.FoodQueryRequestDTO;
 import com.example.food.dto.FoodCreateRequestDTO;
 import com.example.food.dto.FoodUpdateRequestDTO;
+import com.example.food.event.FoodCatalogEventPublisher;
 import com.example.shared.response.ApiResponse;
 import com.example.shared.response.PageResult;
 import com.example.file.service.FileService;
@@ -46,6 +47,9 @@ public class AdminFoodController {
     @Autowired
     private FoodCategoryService foodCategoryService;
 
+    @Autowired
+    private FoodCatalogEventPublisher foodCatalogEventPublisher;
+
     /**
      * 分页查询食物列表
      */
@@ -114,6 +118,7 @@ public class AdminFoodController {
         BeanUtils.copyProperties(categoryDTO, command);
 
         FoodCategoryDTO savedCategory = foodCategoryService.saveCategory(command);
+        foodCatalogEventPublisher.categoryChanged();
         return ResponseEntity.ok(ApiResponse.success(savedCategory));
     }
 
@@ -131,6 +136,7 @@ public class AdminFoodController {
         command.setId(id);
 
         boolean result = foodCategoryService.updateCategory(command);
+        foodCatalogEventPublisher.categoryChanged();
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
@@ -141,6 +147,7 @@ public class AdminFoodController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Boolean>> deleteCategory(@PathVariable("id") Integer id) {
         boolean result = foodCategoryService.deleteCategory(id);
+        foodCatalogEventPublisher.categoryChanged();
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
@@ -156,6 +163,7 @@ public class AdminFoodController {
 
         // 调用服务方法
         FoodItemDTO savedFood = foodService.saveFood(command);
+        foodCatalogEventPublisher.foodChanged();
         return ResponseEntity.ok(ApiResponse.success(savedFood));
     }
 
@@ -174,6 +182,7 @@ public class AdminFoodController {
 
         // 调用服务方法
         FoodItemDTO updatedFood = foodService.updateFood(command);
+        foodCatalogEventPublisher.foodChanged();
         return ResponseEntity.ok(ApiResponse.success(updatedFood));
     }
 
@@ -184,6 +193,7 @@ public class AdminFoodController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Boolean>> deleteFood(@PathVariable("id") Integer id) {
         boolean result = foodService.deleteFood(id);
+        foodCatalogEventPublisher.foodChanged();
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
@@ -219,6 +229,7 @@ public class AdminFoodController {
         command.setImageUrl(requestDTO.getImageUrl());
 
         boolean result = foodService.updateFoodImageUrl(command);
+        foodCatalogEventPublisher.foodChanged();
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
@@ -235,6 +246,7 @@ public class AdminFoodController {
         }
 
         Map<String, Object> result = foodService.batchImportFoods(foods);
+        foodCatalogEventPublisher.foodChanged();
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 }
@@ -0,0 +1,46 @@
+package com.example.food.event;
+
+import com.example.shared.event.EventPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 食物目录变更事件发布器
+ * 管理端写操作成功返回后调用，此时服务方法上的@CacheEvict已经执行完毕，
+ * 收到事件的网关重新回源时不会读到食物服务中尚未驱逐的旧缓存。
+ * 发布失败只记录日志，网关缓存会在TTL到期后自然失效
+ */
+@Slf4j
+@Component
+public class FoodCatalogEventPublisher {
+
+    private final EventPublisher eventPublisher;
+
+    @Autowired
+    public FoodCatalogEventPublisher(EventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 发布食物变更事件
+     */
+    public void foodChanged() {
+        publish(FoodCatalogChangedEvent.SCOPE_FOOD);
+    }
+
+    /**
+     * 发布食物分类变更事件
+     */
+    public void categoryChanged() {
+        publish(FoodCatalogChangedEvent.SCOPE_CATEGORY);
+    }
+
+    private void publish(String scope) {
+        try {
+            eventPublisher.publish(new FoodCatalogChangedEvent(scope));
+        } catch (Exception e) {
+            log.warn("食物目录变更事件发布失败: scope={}, error: {}", scope, e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.nutrition.event;
 
 import com.example.diet.event.DietRecordAddedEvent;
+import com.example.nutrition.stat.NutritionStatWarmer;
 import com.example.shared.event.DomainEvent;
-import com.example.shared.event.DomainEventHandler;
+import com.example.shared.event.BatchDomainEventHandler;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.Cache;
@@ -12,22 +14,33 @@ import org.springframework.stereotype.Component;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 饮食记录添加事件处理器
  * 当用户添加饮食记录时，清除相关的营养统计缓存
+ * 按批次处理事件，同一批次内相同的缓存项合并后只驱逐一次
+ * 启用缓存预热（app.cache.warming.enabled）时，驱逐后交给预热器在后台重新计算日统计和趋势
  */
 @Slf4j
 @Component
-public class DietRecordAddedEventHandler implements DomainEventHandler<DietRecordAddedEvent> {
+public class DietRecordAddedEventHandler implements BatchDomainEventHandler<DietRecordAddedEvent> {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     private final CacheManager cacheManager;
+    private final NutritionStatWarmer nutritionStatWarmer;
 
     @Autowired
-    public DietRecordAddedEventHandler(CacheManager cacheManager) {
+    public DietRecordAddedEventHandler(CacheManager cacheManager,
+                                       ObjectProvider<NutritionStatWarmer> nutritionStatWarmer) {
         this.cacheManager = cacheManager;
+        this.nutritionStatWarmer = nutritionStatWarmer.getIfAvailable();
     }
 
     @Override
@@ -36,53 +49,89 @@ public class DietRecordAddedEventHandler implements DomainEventHandler<DietRecor
     }
 
     @Override
-    public void handle(DietRecordAddedEvent event) {
-        log.info("处理饮食记录添加事件: userId={}, recordId={}, date={}",
-            event.getUserId(), event.getDietRecordId(), event.getRecordDate());
+    public void handleBatch(List<DietRecordAddedEvent> events) {
+        // 同一批次中同一用户同一日期的多条记录只需驱逐一次
+        Map<String, Set<String>> evictions = new LinkedHashMap<>();
+        Map<Long, Set<LocalDate>> affectedDates = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now();
 
-        try {
-            Long userId = event.getUserId();
-            String dateStr = event.getRecordDate().format(DATE_FORMATTER);
-            LocalDate today = LocalDate.now();
-
-            // 直接驱逐相关缓存项
-            evictCache("nutritionStat", "daily_" + userId + "_" + dateStr);
-            evictCache("nutritionStat", "details_" + userId + "_" + dateStr);
-            evictCache("nutritionStat", "advice_" + userId + "_" + dateStr);
-            evictCache("healthReport", "report_" + userId + "_" + dateStr);
-
-            // 驱逐趋势缓存（只驱逐包含当前记录日期的趋势）
-            LocalDate recordDate = event.getRecordDate();
-            if (!recordDate.isAfter(today)) {
-                // 最近7天
-                LocalDate weekStart = today.minus(6, ChronoUnit.DAYS);
-                if (!recordDate.isBefore(weekStart)) {
-                    evictCache("nutritionStat", "trend_" + userId + "_" + weekStart.format(DATE_FORMATTER) + "_" + today.format(DATE_FORMATTER));
-                }
-
-                // 最近30天
-                LocalDate monthStart = today.minus(29, ChronoUnit.DAYS);
-                if (!recordDate.isBefore(monthStart)) {
-                    evictCache("nutritionStat", "trend_" + userId + "_" + monthStart.format(DATE_FORMATTER) + "_" + today.format(DATE_FORMATTER));
-                }
+        for (DietRecordAddedEvent event : events) {
+            log.debug("处理饮食记录添加事件: userId={}, recordId={}, date={}",
+                event.getUserId(), event.getDietRecordId(), event.getRecordDate());
+            if (event.getUserId() == null || event.getRecordDate() == null) {
+                continue;
+            }
+            collectEvictions(evictions, event.getUserId(), event.getRecordDate(), today);
+            affectedDates.computeIfAbsent(event.getUserId(), k -> new HashSet<>()).add(event.getRecordDate());
+        }
+
+        int evicted = 0;
+        for (Map.Entry<String, Set<String>> entry : evictions.entrySet()) {
+            Cache cache = getCache(entry.getKey());
+            if (cache == null) {
+                continue;
+            }
+            for (String key : entry.getValue()) {
+                evictCache(cache, key);
+                evicted++;
             }
+        }
+
+        if (nutritionStatWarmer != null) {
+            for (Map.Entry<Long, Set<LocalDate>> entry : affectedDates.entrySet()) {
+                nutritionStatWarmer.schedule(entry.getKey(), entry.getValue());
+            }
+        }
+
+        log.info("饮食记录添加事件处理完成: 事件数={}, 用户数={}, 驱逐缓存项={}",
+            events.size(), affectedDates.size(), evicted);
+    }
 
-            log.info("成功驱逐用户营养统计缓存: userId={}", userId);
+    /**
+     * 收集一条饮食记录影响的营养统计缓存项
+     */
+    private void collectEvictions(Map<String, Set<String>> evictions, Long userId,
+                                  LocalDate recordDate, LocalDate today) {
+        String dateStr = recordDate.format(DATE_FORMATTER);
+        Set<String> nutritionStatKeys = evictions.computeIfAbsent("nutritionStat", k -> new LinkedHashSet<>());
+        Set<String> healthReportKeys = evictions.computeIfAbsent("healthReport", k -> new LinkedHashSet<>());
+
+        nutritionStatKeys.add("daily_" + userId + "_" + dateStr);
+        nutritionStatKeys.add("details_" + userId + "_" + dateStr);
+        nutritionStatKeys.add("advice_" + userId + "_" + dateStr);
+        healthReportKeys.add("report_" + userId + "_" + dateStr);
+
+        // 驱逐趋势缓存（只驱逐包含当前记录日期的趋势）
+        if (!recordDate.isAfter(today)) {
+            // 最近7天
+            LocalDate weekStart = today.minus(6, ChronoUnit.DAYS);
+            if (!recordDate.isBefore(weekStart)) {
+                nutritionStatKeys.add("trend_" + userId + "_" + weekStart.format(DATE_FORMATTER) + "_" + today.format(DATE_FORMATTER));
+            }
+
+            // 最近30天
+            LocalDate monthStart = today.minus(29, ChronoUnit.DAYS);
+            if (!recordDate.isBefore(monthStart)) {
+                nutritionStatKeys.add("trend_" + userId + "_" + monthStart.format(DATE_FORMATTER) + "_" + today.format(DATE_FORMATTER));
+            }
+        }
+    }
+
+    private Cache getCache(String cacheName) {
+        try {
+            return cacheManager.getCache(cacheName);
         } catch (Exception e) {
-            log.error("驱逐用户营养统计缓存失败: userId={}, error={}",
-                event.getUserId(), e.getMessage(), e);
+            log.warn("获取缓存失败: {}, error: {}", cacheName, e.getMessage());
+            return null;
         }
     }
 
-    private void evictCache(String cacheName, String key) {
+    private void evictCache(Cache cache, String key) {
         try {
-            Cache cache = cacheManager.getCache(cacheName);
-            if (cache != null) {
-                cache.evict(key);
-                log.debug("驱逐缓存项: {}::{}", cacheName, key);
-            }
+            cache.evict(key);
+            log.debug("驱逐缓存项: {}::{}", cache.getName(), key);
         } catch (Exception e) {
-            log.warn("驱逐缓存项失败: {}::{}, error: {}", cacheName, key, e.getMessage());
+            log.warn("驱逐缓存项失败: {}::{}, error: {}", cache.getName(), key, e.getMessage());
         }
     }
 }
@@ -1,17 +1,15 @@
 package com.example.nutrition.service;
 
-import com.example.diet.command.DietRecordQueryCommand;
 import com.example.nutrition.command.NutritionAdviceCommand;
 import com.example.nutrition.command.NutritionStatCommand;
 import com.example.nutrition.command.NutritionTrendCommand;
-import com.example.diet.dto.DietRecordFoodDTO;
-import com.example.diet.dto.DietRecordResponseDTO;
+import com.example.diet.dto.NutritionFactsDTO;
 import com.example.nutrition.dto.*;
 import com.example.user.dto.UserNutritionGoalResponseDTO;
-import com.example.shared.response.PageResult;
 import com.example.diet.service.DietRecordService;
 import com.example.nutrition.service.NutritionAdviceService;
 import com.example.nutrition.service.NutritionStatService;
+import com.example.nutrition.stat.NutrientColumns;
 import com.example.user.service.UserNutritionGoalService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.annotation.DubboReference;
@@ -21,10 +19,9 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,7 +43,10 @@ public class NutritionStatServiceImpl implements NutritionStatService {
     @Autowired
     private NutritionAdviceService nutritionAdviceService;
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    /**
+     * 营养达标阈值：各项营养素均达到目标的该百分比即视为达标
+     */
+    private static final double COMPLIANCE_THRESHOLD_PERCENTAGE = 80;
 
     @Override
     @Cacheable(value = "nutritionStat", key = "'daily_' + #command.userId + '_' + #command.date")
@@ -57,62 +57,14 @@ public class NutritionStatServiceImpl implements NutritionStatService {
         // 查询用户营养目标
         UserNutritionGoalResponseDTO nutritionGoal = userNutritionGoalService.getNutritionGoal(userId);
 
-        // 构建查询命令获取当日饮食记录
-        DietRecordQueryCommand queryCommand = new DietRecordQueryCommand();
-        queryCommand.setUserId(userId);
-        queryCommand.setStartDate(date.format(DATE_FORMATTER));
-        queryCommand.setEndDate(date.format(DATE_FORMATTER));
-        queryCommand.setPage(1);
-        queryCommand.setSize(1000); // 设置足够大的页面大小获取当日所有记录
-
-        PageResult<DietRecordResponseDTO> dietRecordsResult = dietRecordService.getDietRecords(queryCommand);
-
-        // 初始化营养统计数据
-        NutritionStatDTO nutritionStat = new NutritionStatDTO();
-        nutritionStat.setDate(date.format(DATE_FORMATTER));
-        nutritionStat.setCalorie(0);
-        nutritionStat.setProtein(0.0);
-        nutritionStat.setCarbs(0.0);
-        nutritionStat.setFat(0.0);
-
-        // 汇总当日营养数据
-        for (DietRecordResponseDTO dietRecord : dietRecordsResult.getRecords()) {
-            if (dietRecord.getFoods() != null) {
-                for (DietRecordFoodDTO food : dietRecord.getFoods()) {
-                    nutritionStat.setCalorie(nutritionStat.getCalorie() + (food.getCalories() != null ? food.getCalories().intValue() : 0));
-                    nutritionStat.setProtein(nutritionStat.getProtein() + (food.getProtein() != null ? food.getProtein().doubleValue() : 0));
-                    nutritionStat.setCarbs(nutritionStat.getCarbs() + (food.getCarbs() != null ? food.getCarbs().doubleValue() : 0));
-                    nutritionStat.setFat(nutritionStat.getFat() + (food.getFat() != null ? food.getFat().doubleValue() : 0));
-                }
-            }
-        }
-
-        // 计算目标达成百分比
-        if (nutritionGoal.getCalorieTarget() != null && nutritionGoal.getCalorieTarget() > 0) {
-            nutritionStat.setCaloriePercentage(nutritionStat.getCalorie() * 100.0 / nutritionGoal.getCalorieTarget());
-        } else {
-            nutritionStat.setCaloriePercentage(0.0);
-        }
-
-        if (nutritionGoal.getProteinTarget() != null && nutritionGoal.getProteinTarget() > 0) {
-            nutritionStat.setProteinPercentage(nutritionStat.getProtein() * 100.0 / nutritionGoal.getProteinTarget());
-        } else {
-            nutritionStat.setProteinPercentage(0.0);
-        }
+        // 获取数据库汇总的当日营养总量
+        NutritionFactsDTO facts = dietRecordService.getDailyNutrientTotals(Collections.singletonList(userId), date, date);
 
-        if (nutritionGoal.getCarbsTarget() != null && nutritionGoal.getCarbsTarget() > 0) {
-            nutritionStat.setCarbsPercentage(nutritionStat.getCarbs() * 100.0 / nutritionGoal.getCarbsTarget());
-        } else {
-            nutritionStat.setCarbsPercentage(0.0);
-        }
-
-        if (nutritionGoal.getFatTarget() != null && nutritionGoal.getFatTarget() > 0) {
-            nutritionStat.setFatPercentage(nutritionStat.getFat() * 100.0 / nutritionGoal.getFatTarget());
-        } else {
-            nutritionStat.setFatPercentage(0.0);
-        }
+        // 汇总当日营养数据并计算目标达成百分比
+        NutrientColumns columns = new NutrientColumns(date, date);
+        columns.addFacts(facts);
 
-        return nutritionStat;
+        return columns.toStat(0, nutritionGoal);
     }
 
 
@@ -126,60 +78,22 @@ public class NutritionStatServiceImpl implements NutritionStatService {
 
         log.debug("计算用户营养趋势: userId={}, startDate={}, endDate={}", userId, startDate, endDate);
 
-        // 一次性批量获取整个日期范围的饮食记录
-        Map<Long, Map<String, List<DietRecordResponseDTO>>> batchDietRecords =
-            dietRecordService.getBatchDietRecordsForNutritionStat(Arrays.asList(userId), startDate, endDate);
+        // 一次性批量获取整个日期范围每天的营养总量
+        NutritionFactsDTO facts =
+            dietRecordService.getDailyNutrientTotals(Collections.singletonList(userId), startDate, endDate);
 
-        // 获取用户的饮食记录
-        Map<String, List<DietRecordResponseDTO>> userRecords = batchDietRecords.get(userId);
-        if (userRecords == null) {
-            userRecords = new HashMap<>();
-        }
-
-        // 只查询一次用户营养目标
-        UserNutritionGoalResponseDTO nutritionGoal = userNutritionGoalService.getNutritionGoal(userId);
+        // 按天填入营养数据，没有饮食记录的日期保持0值
+        NutrientColumns columns = new NutrientColumns(startDate, endDate);
+        columns.addFacts(facts);
 
         NutritionTrendDTO trendDTO = new NutritionTrendDTO();
-        List<String> dateList = new ArrayList<>();
-        List<Integer> calorieList = new ArrayList<>();
-        List<Double> proteinList = new ArrayList<>();
-        List<Double> carbsList = new ArrayList<>();
-        List<Double> fatList = new ArrayList<>();
-
-        // 遍历日期范围，计算每日营养数据
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            String dateStr = currentDate.format(DATE_FORMATTER);
-            dateList.add(dateStr);
-
-            // 获取当日饮食记录
-            List<DietRecordResponseDTO> dayRecords = userRecords.get(dateStr);
-
-            if (dayRecords != null && !dayRecords.isEmpty()) {
-                // 计算当日营养摄入
-                NutritionStatDTO dailyStat = calculateNutritionFromRecordsWithGoal(dayRecords, nutritionGoal, currentDate);
-                calorieList.add(dailyStat.getCalorie());
-                proteinList.add(dailyStat.getProtein());
-                carbsList.add(dailyStat.getCarbs());
-                fatList.add(dailyStat.getFat());
-            } else {
-                // 如果当天没有饮食记录，添加0值
-                calorieList.add(0);
-                proteinList.add(0.0);
-                carbsList.add(0.0);
-                fatList.add(0.0);
-            }
+        trendDTO.setDateList(columns.dateList());
+        trendDTO.setCalorieList(columns.calorieList());
+        trendDTO.setProteinList(columns.proteinList());
+        trendDTO.setCarbsList(columns.carbsList());
+        trendDTO.setFatList(columns.fatList());
 
-            currentDate = currentDate.plusDays(1);
-        }
-
-        trendDTO.setDateList(dateList);
-        trendDTO.setCalorieList(calorieList);
-        trendDTO.setProteinList(proteinList);
-        trendDTO.setCarbsList(carbsList);
-        trendDTO.setFatList(fatList);
-
-        log.debug("营养趋势计算完成: userId={}, 天数={}", userId, dateList.size());
+        log.debug("营养趋势计算完成: userId={}, 天数={}", userId, columns.days());
         return trendDTO;
     }
 
@@ -274,9 +188,8 @@ public class NutritionStatServiceImpl implements NutritionStatService {
             return 0.0; // 如果没有活跃用户，返回0
         }
 
-        // 批量获取所有用户当日的饮食记录（一次RPC调用）
-        Map<Long, Map<String, List<DietRecordResponseDTO>>> batchDietRecords =
-            dietRecordService.getBatchDietRecordsForNutritionStat(activeUserIds, date, date);
+        // 批量获取所有用户当日的营养总量（一次RPC调用）
+        NutritionFactsDTO facts = dietRecordService.getDailyNutrientTotals(activeUserIds, date, date);
 
         // 预先查询所有用户的营养目标并缓存（避免重复查询）
         Map<Long, UserNutritionGoalResponseDTO> userNutritionGoals = new HashMap<>();
@@ -292,37 +205,22 @@ public class NutritionStatServiceImpl implements NutritionStatService {
         }
 
         int compliantUsers = 0;
-        String dateStr = date.format(DATE_FORMATTER);
+        NutrientColumns columns = new NutrientColumns(date, date);
+
+        // 遍历当日每个用户的营养汇总，检查营养达标情况
+        for (int row = 0; row < facts.getSize(); row++) {
+            // 使用缓存的营养目标判断达标情况
+            UserNutritionGoalResponseDTO nutritionGoal = userNutritionGoals.get(facts.getUserIds()[row]);
+            if (nutritionGoal == null) {
+                continue;
+            }
 
-        // 遍历所有活跃用户，检查他们的营养达标情况
-        for (Long userId : activeUserIds) {
-            try {
-                // 从批量查询结果中获取用户当日的饮食记录
-                Map<String, List<DietRecordResponseDTO>> userRecords = batchDietRecords.get(userId);
-                if (userRecords != null) {
-                    List<DietRecordResponseDTO> dayRecords = userRecords.get(dateStr);
-                    if (dayRecords != null && !dayRecords.isEmpty()) {
-                        // 使用缓存的营养目标计算当日营养摄入
-                        UserNutritionGoalResponseDTO nutritionGoal = userNutritionGoals.get(userId);
-                        if (nutritionGoal != null) {
-                            NutritionStatDTO nutritionStat = calculateNutritionFromRecordsWithGoal(dayRecords, nutritionGoal, date);
-
-                            // 检查是否达标（这里简化为热量、蛋白质、碳水和脂肪都达到目标的80%以上）
-                            boolean isCompliant =
-                                nutritionStat.getCaloriePercentage() >= 80 &&
-                                nutritionStat.getProteinPercentage() >= 80 &&
-                                nutritionStat.getCarbsPercentage() >= 80 &&
-                                nutritionStat.getFatPercentage() >= 80;
-
-                            if (isCompliant) {
-                                compliantUsers++;
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                // 忽略单个用户的错误，继续处理其他用户
-                log.error("计算用户营养达标率失败: userId={}, date={}", userId, date, e);
+            columns.clear();
+            columns.addFact(0, facts, row);
+
+            // 检查是否达标（这里简化为热量、蛋白质、碳水和脂肪都达到目标的80%以上）
+            if (columns.meetsGoal(0, nutritionGoal, COMPLIANCE_THRESHOLD_PERCENTAGE)) {
+                compliantUsers++;
             }
         }
 
@@ -371,9 +269,8 @@ public class NutritionStatServiceImpl implements NutritionStatService {
             return emptyResult;
         }
 
-        // 批量获取所有用户在指定日期范围内的饮食记录（一次RPC调用）
-        Map<Long, Map<String, List<DietRecordResponseDTO>>> batchDietRecords =
-            dietRecordService.getBatchDietRecordsForNutritionStat(activeUserIds, startDate, endDate);
+        // 批量获取所有用户在指定日期范围内每天的营养总量（一次RPC调用）
+        NutritionFactsDTO facts = dietRecordService.getDailyNutrientTotals(activeUserIds, startDate, endDate);
 
         // 预先查询所有用户的营养目标并缓存（避免重复查询）
         Map<Long, UserNutritionGoalResponseDTO> userNutritionGoals = new HashMap<>();
@@ -388,79 +285,26 @@ public class NutritionStatServiceImpl implements NutritionStatService {
             }
         }
 
-        // 准备结果数据结构
-        List<String> dateList = new ArrayList<>();
-        List<Double> calorieList = new ArrayList<>();
-        List<Double> proteinList = new ArrayList<>();
-        List<Double> carbsList = new ArrayList<>();
-        List<Double> fatList = new ArrayList<>();
-
-        // 遍历日期范围
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            // 添加日期
-            dateList.add(currentDate.format(DATE_FORMATTER));
-            String dateStr = currentDate.format(DATE_FORMATTER);
-
-            // 计算当日所有用户的平均营养摄入
-            double totalCalorie = 0;
-            double totalProtein = 0;
-            double totalCarbs = 0;
-            double totalFat = 0;
-            int userCount = 0;
-
-            for (Long userId : activeUserIds) {
-                try {
-                    // 从批量查询结果中获取用户当日的饮食记录
-                    Map<String, List<DietRecordResponseDTO>> userRecords = batchDietRecords.get(userId);
-                    if (userRecords != null) {
-                        List<DietRecordResponseDTO> dayRecords = userRecords.get(dateStr);
-                        if (dayRecords != null && !dayRecords.isEmpty()) {
-                            // 使用缓存的营养目标计算当日营养摄入
-                            UserNutritionGoalResponseDTO nutritionGoal = userNutritionGoals.get(userId);
-                            if (nutritionGoal != null) {
-                                NutritionStatDTO nutritionStat = calculateNutritionFromRecordsWithGoal(dayRecords, nutritionGoal, currentDate);
-
-                                // 累加营养数据
-                                totalCalorie += nutritionStat.getCalorie();
-                                totalProtein += nutritionStat.getProtein();
-                                totalCarbs += nutritionStat.getCarbs();
-                                totalFat += nutritionStat.getFat();
-                                userCount++;
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    // 忽略单个用户的错误，继续处理其他用户
-                    log.error("计算用户营养数据失败: userId={}, date={}", userId, currentDate, e);
-                }
+        // 累加每天所有有记录用户的营养摄入，输出时按用户数求平均
+        NutrientColumns columns = new NutrientColumns(startDate, endDate);
+        for (int row = 0; row < facts.getSize(); row++) {
+            // 只统计设置了营养目标的用户
+            if (!userNutritionGoals.containsKey(facts.getUserIds()[row])) {
+                continue;
             }
-
-            // 计算平均值
-            if (userCount > 0) {
-                calorieList.add(totalCalorie / userCount);
-                proteinList.add(totalProtein / userCount);
-                carbsList.add(totalCarbs / userCount);
-                fatList.add(totalFat / userCount);
-            } else {
-                // 如果当天没有数据，添加0
-                calorieList.add(0.0);
-                proteinList.add(0.0);
-                carbsList.add(0.0);
-                fatList.add(0.0);
+            int day = columns.indexOfEpochDay(facts.getEpochDays()[row]);
+            if (day >= 0) {
+                columns.addFact(day, facts, row);
             }
-
-            // 移动到下一天
-            currentDate = currentDate.plusDays(1);
         }
 
         // 构建结果
         Map<String, Object> result = new HashMap<>();
-        result.put("dateList", dateList);
-        result.put("calorieList", calorieList);
-        result.put("proteinList", proteinList);
-        result.put("carbsList", carbsList);
-        result.put("fatList", fatList);
+        result.put("dateList", columns.dateList());
+        result.put("calorieList", columns.averageCalorieList());
+        result.put("proteinList", columns.averageProteinList());
+        result.put("carbsList", columns.averageCarbsList());
+        result.put("fatList", columns.averageFatList());
 
         return result;
     }
@@ -469,66 +313,6 @@ public class NutritionStatServiceImpl implements NutritionStatService {
 
 
 
-    /**
-     * 根据饮食记录列表和营养目标计算营养统计数据
-     * 用于已经获取营养目标的场景，避免重复查询
-     *
-     * @param dayRecords 当日饮食记录列表
-     * @param nutritionGoal 用户营养目标
-     * @param date 日期
-     * @return 营养统计数据
-     */
-    private NutritionStatDTO calculateNutritionFromRecordsWithGoal(List<DietRecordResponseDTO> dayRecords,
-                                                                  UserNutritionGoalResponseDTO nutritionGoal,
-                                                                  LocalDate date) {
-        // 初始化营养统计数据
-        NutritionStatDTO nutritionStat = new NutritionStatDTO();
-        nutritionStat.setDate(date.format(DATE_FORMATTER));
-        nutritionStat.setCalorie(0);
-        nutritionStat.setProtein(0.0);
-        nutritionStat.setCarbs(0.0);
-        nutritionStat.setFat(0.0);
-
-        // 汇总当日营养数据
-        for (DietRecordResponseDTO dietRecord : dayRecords) {
-            if (dietRecord.getFoods() != null) {
-                for (DietRecordFoodDTO food : dietRecord.getFoods()) {
-                    nutritionStat.setCalorie(nutritionStat.getCalorie() + (food.getCalories() != null ? food.getCalories().intValue() : 0));
-                    nutritionStat.setProtein(nutritionStat.getProtein() + (food.getProtein() != null ? food.getProtein().doubleValue() : 0));
-                    nutritionStat.setCarbs(nutritionStat.getCarbs() + (food.getCarbs() != null ? food.getCarbs().doubleValue() : 0));
-                    nutritionStat.setFat(nutritionStat.getFat() + (food.getFat() != null ? food.getFat().doubleValue() : 0));
-                }
-            }
-        }
-
-        // 计算目标达成百分比
-        if (nutritionGoal.getCalorieTarget() != null && nutritionGoal.getCalorieTarget() > 0) {
-            nutritionStat.setCaloriePercentage(nutritionStat.getCalorie() * 100.0 / nutritionGoal.getCalorieTarget());
-        } else {
-            nutritionStat.setCaloriePercentage(0.0);
-        }
-
-        if (nutritionGoal.getProteinTarget() != null && nutritionGoal.getProteinTarget() > 0) {
-            nutritionStat.setProteinPercentage(nutritionStat.getProtein() * 100.0 / nutritionGoal.getProteinTarget());
-        } else {
-            nutritionStat.setProteinPercentage(0.0);
-        }
-
-        if (nutritionGoal.getCarbsTarget() != null && nutritionGoal.getCarbsTarget() > 0) {
-            nutritionStat.setCarbsPercentage(nutritionStat.getCarbs() * 100.0 / nutritionGoal.getCarbsTarget());
-        } else {
-            nutritionStat.setCarbsPercentage(0.0);
-        }
-
-        if (nutritionGoal.getFatTarget() != null && nutritionGoal.getFatTarget() > 0) {
-            nutritionStat.setFatPercentage(nutritionStat.getFat() * 100.0 / nutritionGoal.getFatTarget());
-        } else {
-            nutritionStat.setFatPercentage(0.0);
-        }
-
-        return nutritionStat;
-    }
-
     /**
      * 将NutritionAdviceResponseDTO转换为NutritionAdviceDTO
      * @param responseDTO 营养建议响应DTO
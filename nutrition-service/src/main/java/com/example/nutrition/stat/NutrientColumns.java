@@ -0,0 +1,208 @@
+package com.example.nutrition.stat;
+
+import com.example.diet.dto.NutritionFactsDTO;
+import com.example.nutrition.dto.NutritionStatDTO;
+import com.example.user.dto.UserNutritionGoalResponseDTO;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 按天列式存储的营养汇总数据
+ * 每种营养素使用一个以日期偏移为下标的double数组累加，聚合过程中不产生任何装箱对象，
+ * 日统计、个人趋势、达标率和全站趋势共用此结构，只在输出时转换为DTO
+ */
+public final class NutrientColumns {
+
+    private final LocalDate startDate;
+    private final int days;
+
+    private final double[] calorie;
+    private final double[] protein;
+    private final double[] carbs;
+    private final double[] fat;
+
+    /**
+     * 每天累加的样本数（用户日），用于判断当天是否有数据以及计算平均值
+     */
+    private final int[] samples;
+
+    /**
+     * 创建覆盖指定日期范围的列存储
+     * @param startDate 开始日期（包含）
+     * @param endDate 结束日期（包含），早于开始日期时为空范围
+     */
+    public NutrientColumns(LocalDate startDate, LocalDate endDate) {
+        this.startDate = startDate;
+        this.days = (int) Math.max(ChronoUnit.DAYS.between(startDate, endDate) + 1, 0);
+        this.calorie = new double[days];
+        this.protein = new double[days];
+        this.carbs = new double[days];
+        this.fat = new double[days];
+        this.samples = new int[days];
+    }
+
+    public int days() {
+        return days;
+    }
+
+    public LocalDate dateAt(int day) {
+        return startDate.plusDays(day);
+    }
+
+    /**
+     * 获取以1970-01-01起天数表示的日期对应的下标
+     * @return 下标，不在范围内时返回-1
+     */
+    public int indexOfEpochDay(long epochDay) {
+        long offset = epochDay - startDate.toEpochDay();
+        return offset >= 0 && offset < days ? (int) offset : -1;
+    }
+
+    /**
+     * 累加一个用户日的营养汇总值
+     */
+    public void add(int day, double dayCalorie, double dayProtein, double dayCarbs, double dayFat) {
+        calorie[day] += dayCalorie;
+        protein[day] += dayProtein;
+        carbs[day] += dayCarbs;
+        fat[day] += dayFat;
+        samples[day]++;
+    }
+
+    /**
+     * 累加列式营养数据中的一行
+     * @param day 日期下标
+     * @param facts 列式营养数据
+     * @param row 行下标
+     */
+    public void addFact(int day, NutritionFactsDTO facts, int row) {
+        add(day, facts.getCalories()[row], facts.getProtein()[row], facts.getCarbs()[row], facts.getFat()[row]);
+    }
+
+    /**
+     * 累加列式营养数据中日期落在范围内的所有行
+     * @param facts 列式营养数据
+     */
+    public void addFacts(NutritionFactsDTO facts) {
+        for (int row = 0; row < facts.getSize(); row++) {
+            int day = indexOfEpochDay(facts.getEpochDays()[row]);
+            if (day >= 0) {
+                addFact(day, facts, row);
+            }
+        }
+    }
+
+    /**
+     * 清空所有累加值，便于在循环中复用同一实例
+     */
+    public void clear() {
+        Arrays.fill(calorie, 0);
+        Arrays.fill(protein, 0);
+        Arrays.fill(carbs, 0);
+        Arrays.fill(fat, 0);
+        Arrays.fill(samples, 0);
+    }
+
+    /**
+     * 判断某天的营养摄入是否全部达到目标的指定百分比
+     * @param day 日期下标
+     * @param goal 用户营养目标
+     * @param thresholdPercentage 达标阈值（百分比）
+     * @return 是否达标，未设置营养目标时视为未达标
+     */
+    public boolean meetsGoal(int day, UserNutritionGoalResponseDTO goal, double thresholdPercentage) {
+        if (goal == null) {
+            return false;
+        }
+        return percentage(calorie[day], goal.getCalorieTarget()) >= thresholdPercentage &&
+               percentage(protein[day], goal.getProteinTarget()) >= thresholdPercentage &&
+               percentage(carbs[day], goal.getCarbsTarget()) >= thresholdPercentage &&
+               percentage(fat[day], goal.getFatTarget()) >= thresholdPercentage;
+    }
+
+    /**
+     * 将某天的汇总值转换为营养统计DTO，并计算目标达成百分比
+     * 热量按整数千卡输出，未设置营养目标时百分比均为0
+     */
+    public NutritionStatDTO toStat(int day, UserNutritionGoalResponseDTO goal) {
+        NutritionStatDTO nutritionStat = new NutritionStatDTO();
+        nutritionStat.setDate(dateAt(day).toString());
+        nutritionStat.setCalorie((int) calorie[day]);
+        nutritionStat.setProtein(protein[day]);
+        nutritionStat.setCarbs(carbs[day]);
+        nutritionStat.setFat(fat[day]);
+        nutritionStat.setCaloriePercentage(goal != null ? percentage((int) calorie[day], goal.getCalorieTarget()) : 0.0);
+        nutritionStat.setProteinPercentage(goal != null ? percentage(protein[day], goal.getProteinTarget()) : 0.0);
+        nutritionStat.setCarbsPercentage(goal != null ? percentage(carbs[day], goal.getCarbsTarget()) : 0.0);
+        nutritionStat.setFatPercentage(goal != null ? percentage(fat[day], goal.getFatTarget()) : 0.0);
+        return nutritionStat;
+    }
+
+    public List<String> dateList() {
+        List<String> list = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            list.add(dateAt(i).toString());
+        }
+        return list;
+    }
+
+    public List<Integer> calorieList() {
+        List<Integer> list = new ArrayList<>(days);
+        for (double value : calorie) {
+            list.add((int) value);
+        }
+        return list;
+    }
+
+    public List<Double> proteinList() {
+        return toList(protein);
+    }
+
+    public List<Double> carbsList() {
+        return toList(carbs);
+    }
+
+    public List<Double> fatList() {
+        return toList(fat);
+    }
+
+    public List<Double> averageCalorieList() {
+        return averageList(calorie);
+    }
+
+    public List<Double> averageProteinList() {
+        return averageList(protein);
+    }
+
+    public List<Double> averageCarbsList() {
+        return averageList(carbs);
+    }
+
+    public List<Double> averageFatList() {
+        return averageList(fat);
+    }
+
+    private List<Double> averageList(double[] column) {
+        List<Double> list = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            list.add(samples[i] > 0 ? column[i] / samples[i] : 0.0);
+        }
+        return list;
+    }
+
+    private static List<Double> toList(double[] column) {
+        List<Double> list = new ArrayList<>(column.length);
+        for (double value : column) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static double percentage(double value, Integer target) {
+        return target != null && target > 0 ? value * 100.0 / target : 0.0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.nutrition.stat;
+
+import com.example.nutrition.command.NutritionStatCommand;
+import com.example.nutrition.command.NutritionTrendCommand;
+import com.example.nutrition.service.NutritionStatService;
+import com.example.shared.config.properties.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 营养统计缓存预热器
+ * 饮食记录变更驱逐缓存后，在请求路径之外重新计算受影响日期的日统计和最近7/30天趋势，
+ * 通过营养统计服务的缓存代理写回二级缓存，用户下次打开首页时直接命中缓存。
+ * 同一用户在合并窗口内的多次变更合并为一次预热，窗口从该用户第一次变更开始计算，持续写入不会无限推迟预热
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.warming.enabled", havingValue = "true")
+public class NutritionStatWarmer implements DisposableBean {
+
+    /**
+     * 只预热最近30天内的日期，更早的补录数据被查看的概率很低
+     */
+    private static final int WARM_WINDOW_DAYS = 30;
+
+    private final NutritionStatService nutritionStatService;
+    private final CacheProperties.Warming config;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * 等待预热的用户及其受影响的日期
+     */
+    private final Map<Long, Set<LocalDate>> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NutritionStatWarmer(NutritionStatService nutritionStatService, CacheProperties cacheProperties) {
+        this.nutritionStatService = nutritionStatService;
+        this.config = cacheProperties.getWarming();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.scheduler = new ScheduledThreadPoolExecutor(config.getThreads(), r -> {
+            Thread thread = new Thread(r, "nutrition-stat-warmer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 登记用户在指定日期的数据变更，合并窗口结束后统一预热
+     * 调用前相关缓存项应已被驱逐
+     * @param userId 用户ID
+     * @param dates 受影响的饮食记录日期
+     */
+    public void schedule(Long userId, Collection<LocalDate> dates) {
+        if (userId == null || dates.isEmpty()) {
+            return;
+        }
+        if (!pending.containsKey(userId) && pending.size() >= config.getMaxPendingUsers()) {
+            log.debug("等待预热的用户数已达上限，跳过预热: userId={}", userId);
+            return;
+        }
+
+        boolean[] first = {false};
+        pending.compute(userId, (key, existing) -> {
+            Set<LocalDate> merged = existing;
+            if (merged == null) {
+                merged = new TreeSet<>();
+                first[0] = true;
+            }
+            merged.addAll(dates);
+            return merged;
+        });
+
+        if (first[0]) {
+            try {
+                scheduler.schedule(() -> warm(userId), config.getDebounce().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 应用正在停止
+                pending.remove(userId);
+            }
+        }
+    }
+
+    /**
+     * 重新计算用户受影响日期的日统计和包含这些日期的趋势
+     */
+    private void warm(Long userId) {
+        Set<LocalDate> dates = pending.remove(userId);
+        if (dates == null) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.minusDays(6);
+        LocalDate monthStart = today.minusDays(WARM_WINDOW_DAYS - 1);
+        boolean warmWeek = false;
+        boolean warmMonth = false;
+        int warmed = 0;
+
+        try {
+            for (LocalDate date : dates) {
+                if (date.isAfter(today) || date.isBefore(monthStart)) {
+                    continue;
+                }
+                nutritionStatService.getDailyNutritionStat(NutritionStatCommand.of(userId, date));
+                warmed++;
+                warmWeek |= !date.isBefore(weekStart);
+                warmMonth = true;
+            }
+            if (warmWeek) {
+                nutritionStatService.getNutritionTrend(NutritionTrendCommand.of(userId, weekStart, today));
+                warmed++;
+            }
+            if (warmMonth) {
+                nutritionStatService.getNutritionTrend(NutritionTrendCommand.of(userId, monthStart, today));
+                warmed++;
+            }
+            log.debug("营养统计缓存预热完成: userId={}, 日期数={}, 预热缓存项={}", userId, dates.size(), warmed);
+        } catch (Exception e) {
+            // 预热失败不影响正确性，用户请求时会重新计算
+            log.warn("营养统计缓存预热失败: userId={}, error: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        pending.clear();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.nutrition.stat;
+
+import com.example.diet.dto.NutritionFactsDTO;
+import com.example.nutrition.dto.NutritionStatDTO;
+import com.example.user.dto.UserNutritionGoalResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列式营养汇总测试
+ */
+public class NutrientColumnsTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 3);
+
+    @Test
+    public void testIndexOfEpochDay_Bounds() {
+        NutrientColumns columns = new NutrientColumns(START, END);
+
+        assertEquals(3, columns.days());
+        assertEquals(-1, columns.indexOfEpochDay(START.minusDays(1).toEpochDay()));
+        assertEquals(0, columns.indexOfEpochDay(START.toEpochDay()));
+        assertEquals(2, columns.indexOfEpochDay(END.toEpochDay()));
+        assertEquals(-1, columns.indexOfEpochDay(END.plusDays(1).toEpochDay()));
+    }
+
+    @Test
+    public void testAddFacts_SkipsRowsOutsideRange() {
+        NutrientColumns columns = new NutrientColumns(START, END);
+        NutritionFactsDTO facts = facts(
+            new int[] {(int) START.minusDays(1).toEpochDay(), (int) START.toEpochDay(), (int) END.toEpochDay()},
+            new double[] {999, 500, 300});
+
+        columns.addFacts(facts);
+
+        assertEquals(Arrays.asList(500, 0, 300), columns.calorieList());
+        assertEquals(Arrays.asList("2024-03-01", "2024-03-02", "2024-03-03"), columns.dateList());
+    }
+
+    @Test
+    public void testToStat_TruncatesCalorieAndComputesPercentage() {
+        NutrientColumns columns = new NutrientColumns(START, START);
+        columns.add(0, 1999.9, 60, 250, 50);
+
+        NutritionStatDTO stat = columns.toStat(0, goal(2000, 60, 0, null));
+
+        assertEquals("2024-03-01", stat.getDate());
+        assertEquals(1999, stat.getCalorie());
+        // 百分比基于取整后的热量计算
+        assertEquals(99.95, stat.getCaloriePercentage(), 1e-9);
+        assertEquals(100.0, stat.getProteinPercentage(), 1e-9);
+        // 目标为0或未设置时百分比为0
+        assertEquals(0.0, stat.getCarbsPercentage(), 1e-9);
+        assertEquals(0.0, stat.getFatPercentage(), 1e-9);
+    }
+
+    @Test
+    public void testToStat_NullGoal() {
+        NutrientColumns columns = new NutrientColumns(START, START);
+        columns.add(0, 1800, 60, 250, 50);
+
+        NutritionStatDTO stat = columns.toStat(0, null);
+
+        assertEquals(1800, stat.getCalorie());
+        assertEquals(0.0, stat.getCaloriePercentage(), 1e-9);
+        assertEquals(0.0, stat.getProteinPercentage(), 1e-9);
+        assertEquals(0.0, stat.getCarbsPercentage(), 1e-9);
+        assertEquals(0.0, stat.getFatPercentage(), 1e-9);
+    }
+
+    @Test
+    public void testMeetsGoal() {
+        NutrientColumns columns = new NutrientColumns(START, START);
+        columns.add(0, 1600, 48, 200, 40);
+        UserNutritionGoalResponseDTO goal = goal(2000, 60, 250, 50);
+
+        assertTrue(columns.meetsGoal(0, goal, 80.0));
+        assertFalse(columns.meetsGoal(0, goal, 80.1));
+        assertFalse(columns.meetsGoal(0, null, 80.0));
+        // 任一目标为0时该项百分比为0，无法达标
+        assertFalse(columns.meetsGoal(0, goal(2000, 60, 250, 0), 80.0));
+    }
+
+    @Test
+    public void testAverageList_DividesBySamples() {
+        NutrientColumns columns = new NutrientColumns(START, END);
+        columns.add(0, 1000, 40, 100, 20);
+        columns.add(0, 2000, 80, 300, 60);
+        columns.add(2, 1500, 50, 200, 30);
+
+        assertEquals(Arrays.asList(1500.0, 0.0, 1500.0), columns.averageCalorieList());
+        assertEquals(Arrays.asList(60.0, 0.0, 50.0), columns.averageProteinList());
+        assertEquals(Arrays.asList(200.0, 0.0, 200.0), columns.averageCarbsList());
+        assertEquals(Arrays.asList(40.0, 0.0, 30.0), columns.averageFatList());
+    }
+
+    @Test
+    public void testClear() {
+        NutrientColumns columns = new NutrientColumns(START, START);
+        columns.add(0, 1000, 40, 100, 20);
+
+        columns.clear();
+
+        assertEquals(Collections.singletonList(0), columns.calorieList());
+        assertEquals(Collections.singletonList(0.0), columns.averageCalorieList());
+    }
+
+    @Test
+    public void testEmptyRange() {
+        NutrientColumns columns = new NutrientColumns(START, START.minusDays(5));
+
+        assertEquals(0, columns.days());
+        assertEquals(-1, columns.indexOfEpochDay(START.toEpochDay()));
+        assertTrue(columns.dateList().isEmpty());
+        assertTrue(columns.calorieList().isEmpty());
+        assertTrue(columns.averageFatList().isEmpty());
+
+        columns.addFacts(facts(new int[] {(int) START.toEpochDay()}, new double[] {500}));
+        assertTrue(columns.calorieList().isEmpty());
+    }
+
+    private static NutritionFactsDTO facts(int[] epochDays, double[] calories) {
+        int size = epochDays.length;
+        NutritionFactsDTO facts = new NutritionFactsDTO();
+        facts.setSize(size);
+        facts.setUserIds(new long[size]);
+        facts.setEpochDays(epochDays);
+        facts.setCalories(calories);
+        facts.setProtein(new double[size]);
+        facts.setCarbs(new double[size]);
+        facts.setFat(new double[size]);
+        return facts;
+    }
+
+    private static UserNutritionGoalResponseDTO goal(Integer calorie, Integer protein, Integer carbs, Integer fat) {
+        UserNutritionGoalResponseDTO goal = new UserNutritionGoalResponseDTO();
+        goal.setCalorieTarget(calorie);
+        goal.setProteinTarget(protein);
+        goal.setCarbsTarget(carbs);
+        goal.setFatTarget(fat);
+        return goal;
+    }
+}
@@ -8,6 +8,7 @@ import com.example.shared.config.jwt.SharedJwtConfig;
 import com.example.shared.config.exception.GlobalExceptionAutoConfig;
 import com.example.shared.config.mbplus.SharedMybatisPlusConfig;
 import com.example.shared.config.security.SharedSecurityConfig;
+import com.example.shared.config.web.SharedWebConfig;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
@@ -20,6 +21,7 @@ import org.springframework.context.annotation.Import;
     SharedMybatisPlusConfig.class,
     SharedCacheConfig.class,
     SharedSecurityConfig.class,
+    SharedWebConfig.class,
     GlobalExceptionAutoConfig.class
 })
 public class SharedKernelAutoConfiguration {
@@ -1,17 +1,40 @@
 package com.example.shared.config.event;
 
 import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.CallerRunsRejectionPolicy;
+import com.example.shared.event.EventDispatcher;
 import com.example.shared.event.EventListenerContainer;
 import com.example.shared.event.EventPublisher;
 import com.example.shared.event.MessageHandler;
+import com.example.shared.event.codec.EventCodec;
+import com.example.shared.event.codec.EventTypeRegistry;
+import com.example.shared.event.kafka.EventEnvelopeDeserializer;
+import com.example.shared.event.kafka.EventEnvelopeSerializer;
 import com.example.shared.event.kafka.KafkaEventListenerContainer;
 import com.example.shared.event.kafka.KafkaEventPublisher;
+import com.example.shared.event.local.LocalEventListenerContainer;
+import com.example.shared.event.local.LocalEventPublisher;
+import com.example.shared.event.local.LocalEventRingBuffer;
+import com.example.shared.event.redis.EventEnvelopeRedisSerializer;
 import com.example.shared.event.redis.RedisEventListenerContainer;
 import com.example.shared.event.redis.RedisEventPublisher;
+import com.example.shared.event.redis.RedisStreamEventListenerContainer;
+import com.example.shared.event.redis.RedisStreamEventPublisher;
+import com.example.shared.event.retry.DeadLetterStore;
+import com.example.shared.event.retry.EventRetryScheduler;
+import com.example.shared.event.retry.InMemoryRetryStore;
+import com.example.shared.event.retry.KafkaDeadLetterStore;
+import com.example.shared.event.retry.LoggingDeadLetterStore;
+import com.example.shared.event.retry.RedisRetryStore;
+import com.example.shared.event.retry.RedisStreamDeadLetterStore;
+import com.example.shared.event.retry.RetryStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
@@ -20,20 +43,21 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.listener.SeekToCurrentErrorHandler;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 @Configuration
@@ -58,8 +82,30 @@ public class SharedEventConfig {
     @ConditionalOnProperty(name = "app.event.provider", havingValue = "redis", matchIfMissing = true)
     public EventPublisher redisEventPublisher(@Qualifier("eventRedisTemplate") RedisTemplate<String, Object> eventRedisTemplate,
                                             @Qualifier("eventObjectMapper") ObjectMapper eventObjectMapper,
+                                            @Qualifier("eventPublishExecutor") Executor eventPublishExecutor,
                                             EventProperties eventProperties) {
-        return new RedisEventPublisher(eventRedisTemplate, eventObjectMapper, eventProperties.getChannel());
+        return new RedisEventPublisher(eventRedisTemplate, eventObjectMapper, eventProperties.getChannel(),
+            eventPublishExecutor, eventProperties.getPublisher());
+    }
+
+    /**
+     * Redis发布器异步发布使用的发布线程
+     * 单线程按批排空异步发布队列，等待发送的事件数由发布队列限制
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.event.provider:redis}'.equals('redis') || '${app.event.provider:redis}'.equals('redis-stream')")
+    public Executor eventPublishExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        // 同一时刻最多一个排空任务在运行、一个在排队
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("event-publisher-");
+        // 关闭时发送完已提交的事件
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
     }
 
     /**
@@ -85,13 +131,100 @@ public class SharedEventConfig {
     @ConditionalOnExpression("'${app.event.provider:redis}'.equals('redis') && '${app.event.consumer.enabled:false}'.equals('true')")
     public EventListenerContainer redisEventListenerContainer(
             RedisMessageListenerContainer redisContainer,
-            @Qualifier("eventObjectMapper") ObjectMapper eventObjectMapper,
             @Qualifier("eventRedisTemplate") RedisTemplate<String, Object> eventRedisTemplate,
             EventProperties eventProperties,
+            EventDispatcher eventDispatcher,
             List<MessageHandler> messageHandlers) {
 
         RedisEventListenerContainer container = new RedisEventListenerContainer(
-            redisContainer, eventObjectMapper, eventRedisTemplate, eventProperties.getChannel());
+            redisContainer, eventRedisTemplate, eventProperties.getChannel(), eventDispatcher);
+
+        if (messageHandlers != null) {
+            messageHandlers.forEach(container::registerHandler);
+        }
+
+        return container;
+    }
+
+    // ==================== Redis Streams 配置 ====================
+
+    /**
+     * Redis Streams 事件发布器
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.event.provider", havingValue = "redis-stream")
+    public EventPublisher redisStreamEventPublisher(StringRedisTemplate stringRedisTemplate,
+                                                    EventCodec eventCodec,
+                                                    @Qualifier("eventPublishExecutor") Executor eventPublishExecutor,
+                                                    EventProperties eventProperties) {
+        return new RedisStreamEventPublisher(stringRedisTemplate, eventCodec,
+            eventProperties.getChannel(), eventProperties.getRedisStream().getMaxLen(),
+            eventPublishExecutor, eventProperties.getPublisher());
+    }
+
+    /**
+     * Redis Streams 事件监听容器
+     * 只有消费者服务才需要，同一消费组内的实例分摊消费
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.event.provider:redis}'.equals('redis-stream') && '${app.event.consumer.enabled:false}'.equals('true')")
+    public EventListenerContainer redisStreamEventListenerContainer(
+            StringRedisTemplate stringRedisTemplate,
+            EventCodec eventCodec,
+            EventProperties eventProperties,
+            @Value("${spring.application.name:default-group}") String applicationName,
+            EventDispatcher eventDispatcher,
+            ObjectProvider<DeadLetterStore> deadLetterStore,
+            List<MessageHandler> messageHandlers) {
+
+        EventProperties.RedisStream config = eventProperties.getRedisStream();
+        String group = config.getGroup() != null ? config.getGroup() : applicationName;
+
+        RedisStreamEventListenerContainer container = new RedisStreamEventListenerContainer(
+            stringRedisTemplate, eventCodec, eventProperties.getChannel(), group, config, eventDispatcher,
+            deadLetterStore.getIfAvailable());
+
+        if (messageHandlers != null) {
+            messageHandlers.forEach(container::registerHandler);
+        }
+
+        return container;
+    }
+
+    // ==================== 进程内事件总线配置 ====================
+
+    /**
+     * 进程内事件环形缓冲区，发布器与监听容器共享
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.event.provider", havingValue = "local")
+    public LocalEventRingBuffer localEventRingBuffer(EventProperties eventProperties) {
+        EventProperties.Local config = eventProperties.getLocal();
+        return new LocalEventRingBuffer(config.getBufferSize(), config.getWaitStrategy(), config.getPublishTimeout());
+    }
+
+    /**
+     * 进程内事件发布器
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.event.provider", havingValue = "local")
+    public EventPublisher localEventPublisher(LocalEventRingBuffer localEventRingBuffer,
+                                              EventProperties eventProperties) {
+        return new LocalEventPublisher(localEventRingBuffer, eventProperties.getConsumer().isEnabled(),
+                eventProperties.getLocal().isDiscardWithoutConsumer());
+    }
+
+    /**
+     * 进程内事件监听容器 - 只有消费者需要
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.event.provider:redis}'.equals('local') && '${app.event.consumer.enabled:false}'.equals('true')")
+    public EventListenerContainer localEventListenerContainer(LocalEventRingBuffer localEventRingBuffer,
+                                                              EventProperties eventProperties,
+                                                              EventDispatcher eventDispatcher,
+                                                              List<MessageHandler> messageHandlers) {
+        LocalEventListenerContainer container = new LocalEventListenerContainer(
+            localEventRingBuffer, eventProperties.getLocal().getMaxBatchSize(), eventDispatcher);
 
         if (messageHandlers != null) {
             messageHandlers.forEach(container::registerHandler);
@@ -108,14 +241,18 @@ public class SharedEventConfig {
     @Bean
     @ConditionalOnProperty(name = "app.event.provider", havingValue = "kafka")
     public ProducerFactory<String, Object> kafkaProducerFactory(KafkaProperties kafkaProperties,
-                                                               @Qualifier("eventObjectMapper") ObjectMapper eventObjectMapper) {
+                                                               EventCodec eventCodec,
+                                                               EventProperties eventProperties) {
         Map<String, Object> props = kafkaProperties.buildProducerProperties();
 
-        // 配置JsonSerializer使用事件专用ObjectMapper
-        JsonSerializer<Object> jsonSerializer = new JsonSerializer<>(eventObjectMapper);
+        // 凑批配置，批量发布的事件合并为少量请求发送
+        EventProperties.Kafka kafkaConfig = eventProperties.getKafka();
+        props.put(ProducerConfig.LINGER_MS_CONFIG, (int) kafkaConfig.getLinger().toMillis());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, kafkaConfig.getBatchSize());
 
+        // 使用二进制事件信封序列化事件
         DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(props);
-        factory.setValueSerializer(jsonSerializer);
+        factory.setValueSerializer(new EventEnvelopeSerializer(eventCodec));
 
         return factory;
     }
@@ -135,18 +272,19 @@ public class SharedEventConfig {
     @Bean
     @ConditionalOnExpression("'${app.event.provider:redis}'.equals('kafka') && '${app.event.consumer.enabled:false}'.equals('true')")
     public ConsumerFactory<String, Object> kafkaConsumerFactory(KafkaProperties kafkaProperties,
-                                                               @Qualifier("eventObjectMapper") ObjectMapper eventObjectMapper,
+                                                               EventCodec eventCodec,
                                                                EventProperties eventProperties) {
         Map<String, Object> props = kafkaProperties.buildConsumerProperties();
 
-        // 配置JsonDeserializer使用事件专用ObjectMapper
-        JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>(eventObjectMapper);
-        // 设置信任的包 - 使用配置属性
-        String[] trustedPackages = eventProperties.getKafka().getTrustedPackages().toArray(new String[0]);
-        jsonDeserializer.addTrustedPackages(trustedPackages);
+        // 批量消费的批次大小与凑批等待时间
+        EventProperties.Kafka kafkaConfig = eventProperties.getKafka();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, kafkaConfig.getMaxBatchSize());
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, kafkaConfig.getBatchMinBytes());
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) kafkaConfig.getBatchLinger().toMillis());
 
+        // 使用二进制事件信封反序列化事件，可信的事件类型由事件类型注册表校验
         DefaultKafkaConsumerFactory<String, Object> factory = new DefaultKafkaConsumerFactory<>(props);
-        factory.setValueDeserializer(jsonDeserializer);
+        factory.setValueDeserializer(new EventEnvelopeDeserializer(eventCodec));
 
         return factory;
     }
@@ -166,8 +304,11 @@ public class SharedEventConfig {
         // 并发配置 - 使用配置属性
         factory.setConcurrency(eventProperties.getKafka().getConcurrency());
 
-        // 错误处理
-        factory.setErrorHandler(new SeekToCurrentErrorHandler());
+        // 批量监听，每次poll的记录整体交给监听器
+        factory.setBatchListener(true);
+
+        // 错误处理：监听器抛出异常时回退位点重新投递整批，间隔1秒最多重试2次，仍失败则记录日志后跳过
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 2L)));
 
         return factory;
     }
@@ -177,11 +318,12 @@ public class SharedEventConfig {
      */
     @Bean
     @ConditionalOnProperty(name = "app.event.provider", havingValue = "kafka")
-    public EventPublisher kafkaEventPublisher(KafkaTemplate<String, Object> kafkaTemplate) {
+    public EventPublisher kafkaEventPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                                             EventProperties eventProperties) {
         @SuppressWarnings("unchecked")
         KafkaTemplate<String, com.example.shared.event.DomainEvent> typedTemplate =
             (KafkaTemplate<String, com.example.shared.event.DomainEvent>) (KafkaTemplate<?, ?>) kafkaTemplate;
-        return new KafkaEventPublisher(typedTemplate);
+        return new KafkaEventPublisher(typedTemplate, eventProperties.getKafka().getSendTimeout());
     }
 
     /**
@@ -189,8 +331,9 @@ public class SharedEventConfig {
      */
     @Bean
     @ConditionalOnExpression("'${app.event.provider:redis}'.equals('kafka') && '${app.event.consumer.enabled:false}'.equals('true')")
-    public EventListenerContainer kafkaEventListenerContainer(List<MessageHandler> messageHandlers) {
-        KafkaEventListenerContainer container = new KafkaEventListenerContainer();
+    public EventListenerContainer kafkaEventListenerContainer(EventDispatcher eventDispatcher,
+                                                              List<MessageHandler> messageHandlers) {
+        KafkaEventListenerContainer container = new KafkaEventListenerContainer(eventDispatcher);
 
         if (messageHandlers != null) {
             messageHandlers.forEach(container::registerHandler);
@@ -201,28 +344,46 @@ public class SharedEventConfig {
 
     // ==================== 事件系统专用配置 ====================
 
+    /**
+     * 事件类型注册表，扫描事件包中标注了@EventType的事件
+     */
+    @Bean
+    @SuppressWarnings("deprecation")
+    public EventTypeRegistry eventTypeRegistry(EventProperties eventProperties) {
+        Set<String> packages = new LinkedHashSet<>(eventProperties.getEventPackages());
+        packages.addAll(eventProperties.getKafka().getTrustedPackages());
+        return new EventTypeRegistry(packages).scan();
+    }
+
+    /**
+     * 事件编解码器，Redis、Redis Streams和Kafka共用的二进制事件信封
+     * 默认不解码旧JSON格式，开启后旧格式使用仅信任事件包的ObjectMapper
+     */
+    @Bean
+    @SuppressWarnings("deprecation")
+    public EventCodec eventCodec(EventTypeRegistry eventTypeRegistry, EventProperties eventProperties) {
+        ObjectMapper legacyMapper = null;
+        if (eventProperties.isLegacyJsonEnabled()) {
+            legacyMapper = EventCodec.legacyMapper(trustedEventPackages(eventProperties));
+        }
+        return new EventCodec(eventTypeRegistry, legacyMapper);
+    }
+
+    private static Set<String> trustedEventPackages(EventProperties eventProperties) {
+        Set<String> packages = new LinkedHashSet<>(eventProperties.getEventPackages());
+        packages.addAll(eventProperties.getKafka().getTrustedPackages());
+        return packages;
+    }
+
     /**
      * 配置专门用于事件系统的ObjectMapper
-     * Redis和Kafka事件都使用此配置，确保序列化格式一致
+     * 用于发件箱中事件的存储，JSON中携带类型信息，发件箱中继可直接反序列化为具体事件类型。
+     * 与事件编解码器的旧格式共用类型校验，类型只允许是事件包中的类，
+     * 避免发件箱表中的数据指定任意类触发反序列化漏洞；已写入的发件箱数据格式不变
      */
     @Bean
-    public ObjectMapper eventObjectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        // 注册Java 8时间模块
-        objectMapper.registerModule(new JavaTimeModule());
-        // 自动发现并注册模块
-        objectMapper.findAndRegisterModules();
-        // 不使用时间戳格式
-        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-
-        // 关键：使用activateDefaultTyping来处理多态类型
-        // 这样GenericJackson2JsonRedisSerializer就能正确反序列化事件对象
-        objectMapper.activateDefaultTyping(
-            objectMapper.getPolymorphicTypeValidator(),
-            ObjectMapper.DefaultTyping.NON_FINAL
-        );
-
-        return objectMapper;
+    public ObjectMapper eventObjectMapper(EventProperties eventProperties) {
+        return EventCodec.legacyMapper(trustedEventPackages(eventProperties));
     }
 
     /**
@@ -232,7 +393,7 @@ public class SharedEventConfig {
     @Bean
     @ConditionalOnProperty(name = "app.event.provider", havingValue = "redis", matchIfMissing = true)
     public RedisTemplate<String, Object> eventRedisTemplate(RedisConnectionFactory connectionFactory,
-                                                           @Qualifier("eventObjectMapper") ObjectMapper eventObjectMapper) {
+                                                           EventCodec eventCodec) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
@@ -240,12 +401,11 @@ public class SharedEventConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
 
-        // Value序列化：使用GenericJackson2JsonRedisSerializer + 事件专用ObjectMapper
-        // 这样可以正确处理多态类型，避免反序列化成LinkedHashMap
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(eventObjectMapper);
+        // Value序列化：使用二进制事件信封，事件类型由信封中的类型ID确定
+        EventEnvelopeRedisSerializer eventSerializer = new EventEnvelopeRedisSerializer(eventCodec);
 
-        template.setValueSerializer(jsonSerializer);
-        template.setHashValueSerializer(jsonSerializer);
+        template.setValueSerializer(eventSerializer);
+        template.setHashValueSerializer(eventSerializer);
 
         template.afterPropertiesSet();
         return template;
@@ -253,22 +413,90 @@ public class SharedEventConfig {
 
     // ==================== 通用配置 ====================
 
+    /**
+     * 事件分发器，各监听容器共用
+     * 只有消费者服务才需要
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.event.consumer.enabled", havingValue = "true")
+    public EventDispatcher eventDispatcher(EventProperties eventProperties,
+                                           @Qualifier("messageListenerExecutor") Executor messageListenerExecutor,
+                                           ObjectProvider<MeterRegistry> meterRegistry,
+                                           ObjectProvider<EventRetryScheduler> eventRetryScheduler) {
+        Executor asyncExecutor = eventProperties.getConsumer().isAsyncHandlers() ? messageListenerExecutor : null;
+        return new EventDispatcher(asyncExecutor, meterRegistry.getIfAvailable(), eventRetryScheduler.getIfAvailable());
+    }
+
+    /**
+     * 失败事件重试调度器
+     * 只有消费者服务才需要，可通过app.event.retry.enabled关闭
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.event.consumer.enabled:false}'.equals('true') && '${app.event.retry.enabled:true}'.equals('true')")
+    public EventRetryScheduler eventRetryScheduler(EventProperties eventProperties,
+                                                   DeadLetterStore deadLetterStore,
+                                                   RetryStore retryStore,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new EventRetryScheduler(eventProperties.getRetry(), deadLetterStore, retryStore,
+                meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * 重试存储，等待重试的事件在确认消息前写入，进程停止后由其他实例或重启后恢复
+     * 有Redis时写入{channel}:retry，进程内提供者和没有Redis的服务只保存在内存中
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.event.consumer.enabled:false}'.equals('true') && '${app.event.retry.enabled:true}'.equals('true')")
+    public RetryStore retryStore(EventProperties eventProperties,
+                                 ObjectProvider<StringRedisTemplate> stringRedisTemplate,
+                                 EventCodec eventCodec) {
+        StringRedisTemplate template = stringRedisTemplate.getIfAvailable();
+        if ("local".equals(eventProperties.getProvider()) || template == null) {
+            return new InMemoryRetryStore();
+        }
+        return new RedisRetryStore(template, eventCodec, eventProperties.getChannel() + ":retry");
+    }
+
+    /**
+     * 死信存储，重试耗尽的事件写入与事件通道对应的死信主题或死信流
+     * Kafka写入{channel}.DLT主题，Redis写入{channel}:dead-letter流，进程内提供者只记录日志
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.event.consumer.enabled:false}'.equals('true') && '${app.event.retry.enabled:true}'.equals('true')")
+    public DeadLetterStore deadLetterStore(EventProperties eventProperties,
+                                           ObjectProvider<KafkaTemplate<String, Object>> kafkaTemplate,
+                                           ObjectProvider<StringRedisTemplate> stringRedisTemplate,
+                                           EventCodec eventCodec) {
+        String channel = eventProperties.getChannel();
+        switch (eventProperties.getProvider()) {
+            case "kafka":
+                return new KafkaDeadLetterStore(kafkaTemplate.getObject(), channel + ".DLT");
+            case "redis":
+            case "redis-stream":
+                return new RedisStreamDeadLetterStore(stringRedisTemplate.getObject(), eventCodec,
+                        channel + ":dead-letter", eventProperties.getRetry().getDeadLetterMaxLen());
+            default:
+                return new LoggingDeadLetterStore();
+        }
+    }
+
     /**
      * 为消息监听器提供专用线程池
      * 只有消费者服务才需要
      */
     @Bean
     @ConditionalOnProperty(name = "app.event.consumer.enabled", havingValue = "true")
-    public Executor messageListenerExecutor(EventProperties eventProperties) {
+    public Executor messageListenerExecutor(EventProperties eventProperties,
+                                            ObjectProvider<MeterRegistry> meterRegistry) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         EventProperties.ThreadPool config = eventProperties.getThreadPool();
         executor.setCorePoolSize(config.getCoreSize());
         executor.setMaxPoolSize(config.getMaxSize());
         executor.setQueueCapacity(config.getQueueCapacity());
         executor.setThreadNamePrefix(config.getNamePrefix());
-        executor.setRejectedExecutionHandler((r, exec) -> {
-            System.err.println("Task rejected from event-listener: " + r.toString());
-        });
+        // 队列满时由提交线程执行，向监听线程施加背压而不是丢弃事件
+        executor.setRejectedExecutionHandler(
+                new CallerRunsRejectionPolicy(config.getNamePrefix(), meterRegistry.getIfAvailable()));
         executor.initialize();
         return executor;
     }
@@ -26,6 +26,11 @@ public class CacheProperties {
      */
     private Async async = new Async();
 
+    /**
+     * 缓存预热配置
+     */
+    private Warming warming = new Warming();
+
     /**
      * 本地缓存配置
      */
@@ -78,4 +83,31 @@ public class CacheProperties {
          */
         private int queueCapacity = 1000;
     }
+
+    /**
+     * 缓存预热配置
+     * 数据变更事件驱逐缓存后，在请求路径之外重新计算并写回缓存
+     */
+    @Data
+    public static class Warming {
+        /**
+         * 是否启用预热，关闭时只驱逐缓存
+         */
+        private boolean enabled = false;
+
+        /**
+         * 合并窗口，同一用户在窗口内的多次变更只预热一次
+         */
+        private Duration debounce = Duration.ofSeconds(2);
+
+        /**
+         * 预热线程数
+         */
+        private int threads = 2;
+
+        /**
+         * 同时等待预热的最大用户数，超过后新的变更只驱逐不预热
+         */
+        private int maxPendingUsers = 10000;
+    }
 }
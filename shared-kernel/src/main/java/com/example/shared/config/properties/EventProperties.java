@@ -1,7 +1,10 @@
 package com.example.shared.config.properties;
 
+import com.example.shared.event.local.WaitStrategy;
 import lombok.Data;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -13,7 +16,7 @@ import java.util.List;
 public class EventProperties {
 
     /**
-     * 事件提供者类型，可选值: redis, kafka
+     * 事件提供者类型，可选值: redis, redis-stream, kafka, local
      */
     private String provider = "redis";
 
@@ -22,6 +25,28 @@ public class EventProperties {
      */
     private String channel = "domain-events";
 
+    /**
+     * 事件类所在的包
+     * 启动时扫描其中标注了@EventType的事件注册类型ID，未注册的事件也只有位于这些包中才允许反序列化
+     */
+    private List<String> eventPackages = new ArrayList<>(Arrays.asList(
+        "com.example.shared.event",
+        "com.example.diet.event",
+        "com.example.nutrition.event",
+        "com.example.food.event"
+    ));
+
+    /**
+     * 是否解码升级到二进制信封之前以JSON格式发送的事件
+     * 仅在升级期间仍有旧消息待消费时开启，旧消息中的类型只允许是eventPackages中的类
+     */
+    private boolean legacyJsonEnabled = false;
+
+    /**
+     * 发布器配置
+     */
+    private Publisher publisher = new Publisher();
+
     /**
      * 消费者配置
      */
@@ -37,6 +62,42 @@ public class EventProperties {
      */
     private Kafka kafka = new Kafka();
 
+    /**
+     * Redis Streams相关配置
+     */
+    private RedisStream redisStream = new RedisStream();
+
+    /**
+     * 进程内事件总线配置
+     */
+    private Local local = new Local();
+
+    /**
+     * 事务发件箱配置
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * 处理失败重试配置
+     */
+    private Retry retry = new Retry();
+
+    /**
+     * 发布器配置
+     */
+    @Data
+    public static class Publisher {
+        /**
+         * Redis发布器异步发布时等待发送的最大事件数，已满时publishAsync立即以异常完成
+         */
+        private int asyncQueueCapacity = 10000;
+
+        /**
+         * Redis发布器异步发布时单个管道批次的最大事件数
+         */
+        private int asyncBatchSize = 100;
+    }
+
     /**
      * 消费者配置
      */
@@ -46,6 +107,13 @@ public class EventProperties {
          * 是否启用事件消费者
          */
         private boolean enabled = false;
+
+        /**
+         * 是否在线程池中异步执行处理器
+         * 开启后各处理器在独立的串行通道中并行执行；Kafka和Redis Streams仍等待整批处理完成后
+         * 才提交位点或确认，Redis Pub/Sub和进程内事件总线不等待处理完成
+         */
+        private boolean asyncHandlers = false;
     }
 
     /**
@@ -85,12 +153,205 @@ public class EventProperties {
         private int concurrency = 3;
 
         /**
-         * JsonDeserializer信任的包列表
+         * 发布事件时等待broker确认的超时时间
          */
+        private Duration sendTimeout = Duration.ofSeconds(10);
+
+        /**
+         * producer发送前等待凑批的时间（linger.ms），批量发布时多个事件合并为一个请求
+         */
+        private Duration linger = Duration.ofMillis(5);
+
+        /**
+         * producer单个分区批次的最大字节数（batch.size）
+         */
+        private int batchSize = 32768;
+
+        /**
+         * 批量消费时单个批次的最大记录数（max.poll.records）
+         */
+        private int maxBatchSize = 500;
+
+        /**
+         * 批量消费时broker凑批的最小字节数（fetch.min.bytes），
+         * 大于1时broker会等待数据累积到该大小或达到batchLinger后才返回
+         */
+        private int batchMinBytes = 1;
+
+        /**
+         * 批量消费时broker凑批的最长等待时间（fetch.max.wait.ms）
+         */
+        private Duration batchLinger = Duration.ofMillis(500);
+
+        /**
+         * 信任的事件包列表
+         * @deprecated 事件改用二进制信封编码后由eventPackages统一配置，此处配置的包会合并到eventPackages中
+         */
+        @Deprecated
         private List<String> trustedPackages = Arrays.asList(
             "com.example.shared.event",
             "com.example.diet.event",
             "com.example.nutrition.event"
         );
     }
+
+    /**
+     * Redis Streams相关配置
+     */
+    @Data
+    public static class RedisStream {
+        /**
+         * 消费组名称，为空时使用spring.application.name
+         */
+        private String group;
+
+        /**
+         * 组内消费者名称，为空时使用"进程号-主机名"
+         */
+        private String consumerName;
+
+        /**
+         * 单次XREADGROUP读取的最大事件数
+         */
+        private int batchSize = 100;
+
+        /**
+         * XREADGROUP无新事件时的阻塞等待时间
+         */
+        private Duration blockTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Stream保留的最大事件数，发布时按此近似裁剪
+         */
+        private long maxLen = 100000;
+
+        /**
+         * 待确认事件空闲超过此时间后可被其他消费者接管
+         */
+        private Duration pendingIdle = Duration.ofMinutes(1);
+
+        /**
+         * 检查可接管待确认事件的间隔
+         */
+        private Duration reclaimInterval = Duration.ofSeconds(30);
+    }
+
+    /**
+     * 进程内事件总线配置
+     */
+    @Data
+    public static class Local {
+        /**
+         * 环形缓冲区大小，必须是2的幂
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * 消费线程的等待策略
+         */
+        private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+
+        /**
+         * 单次分发的最大事件数
+         */
+        private int maxBatchSize = 256;
+
+        /**
+         * 缓冲区已满时发布方的最长等待时间，超时后发布失败并抛出EventPublishException
+         */
+        private Duration publishTimeout = Duration.ofSeconds(5);
+
+        /**
+         * 本进程未启用事件消费时是否直接丢弃事件，关闭时发布失败并抛出EventPublishException。
+         * 丢弃时发布方法正常返回，使用事务发件箱的服务不能开启，否则发件箱会把丢弃的事件标记为已发布
+         */
+        private boolean discardWithoutConsumer = false;
+    }
+
+    /**
+     * 事务发件箱配置
+     */
+    @Data
+    public static class Outbox {
+        /**
+         * 中继每次从发件箱读取的最大事件数
+         */
+        private int batchSize = 100;
+
+        /**
+         * 中继轮询发件箱的间隔
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * 已发布事件在发件箱中的保留时间
+         */
+        private Duration retention = Duration.ofDays(7);
+
+        /**
+         * 单个事件的最大投递次数，达到后标记为发布失败不再投递，避免持续失败的事件反复重试
+         */
+        private int maxAttempts = 10;
+
+        /**
+         * 认领租期，中继认领事件后在该时间内独占投递，实例崩溃时事件在租期结束后被重新认领
+         */
+        private Duration claimTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 投递失败后到下次重试的间隔
+         */
+        private Duration retryDelay = Duration.ofSeconds(10);
+    }
+
+    /**
+     * 处理失败重试配置
+     */
+    @Data
+    public static class Retry {
+        /**
+         * 是否启用重试，关闭时处理失败的事件只记录日志
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最大尝试次数（包含首次处理），达到后转入死信
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * 首次重试的退避时间
+         */
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        /**
+         * 退避时间的增长倍数
+         */
+        private double multiplier = 2.0;
+
+        /**
+         * 退避时间上限
+         */
+        private Duration maxBackoff = Duration.ofMinutes(5);
+
+        /**
+         * 同时等待重试的最大事件数，超过后新的失败事件直接转入死信
+         */
+        private int maxPending = 10000;
+
+        /**
+         * Redis死信流的最大长度（近似裁剪）
+         */
+        private long deadLetterMaxLen = 100000;
+
+        /**
+         * 恢复间隔，超过到期时间该间隔仍未完成的重试（如实例停止时留下的重试）由任一实例恢复
+         */
+        private Duration recoveryInterval = Duration.ofSeconds(30);
+
+        /**
+         * 认领重试记录的租期，重试方在租期内未完成时记录可被其他实例重新认领
+         */
+        private Duration claimTimeout = Duration.ofMinutes(1);
+    }
 }
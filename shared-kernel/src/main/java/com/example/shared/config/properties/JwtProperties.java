@@ -2,6 +2,8 @@ package com.example.shared.config.properties;
 
 import lombok.Data;
 
+import java.time.Duration;
+
 /**
  * JWT配置属性类
  * 统一管理JWT相关的所有配置项
@@ -18,4 +20,36 @@ public class JwtProperties {
      * JWT过期时间（毫秒）
      */
     private long expiration = 86400000; // 默认24小时
+
+    /**
+     * 网关本地注销过滤器配置
+     */
+    private Revocation revocation = new Revocation();
+
+    /**
+     * 网关本地注销过滤器配置
+     * 布隆过滤器判定未注销的token无需查询Redis，只有命中的token才回源确认
+     */
+    @Data
+    public static class Revocation {
+        /**
+         * 是否启用本地注销过滤器，关闭时每个请求都查询Redis黑名单
+         */
+        private boolean localFilterEnabled = true;
+
+        /**
+         * 预计同时有效的注销token数，用于确定布隆过滤器大小
+         */
+        private int expectedRevocations = 100000;
+
+        /**
+         * 布隆过滤器的目标误判率
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * 从Redis全量重建过滤器的间隔，同时清理已过期的注销记录
+         */
+        private Duration resyncInterval = Duration.ofMinutes(5);
+    }
 }
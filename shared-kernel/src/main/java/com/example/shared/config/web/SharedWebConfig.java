@@ -0,0 +1,26 @@
+package com.example.shared.config.web;
+
+import com.example.shared.response.FieldProjectionAdvice;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 通用Web响应配置，只在Servlet应用中生效
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SharedWebConfig {
+
+    /**
+     * 响应字段投影，客户端通过fields参数只获取需要的字段
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.response.field-projection.enabled", havingValue = "true", matchIfMissing = true)
+    public FieldProjectionAdvice fieldProjectionAdvice(@Qualifier("objectMapper") ObjectMapper objectMapper) {
+        return new FieldProjectionAdvice(objectMapper);
+    }
+}
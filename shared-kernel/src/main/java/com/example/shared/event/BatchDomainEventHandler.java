@@ -0,0 +1,32 @@
+package com.example.shared.event;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量领域事件处理器接口
+ * 监听容器按批次拉取事件时，将同一批次中该处理器支持的事件一次性交给处理器，
+ * 便于业务侧在批次内去重、合并副作用（如缓存驱逐）
+ *
+ * @param <E> 领域事件类型
+ */
+public interface BatchDomainEventHandler<E extends DomainEvent> extends DomainEventHandler<E> {
+
+    /**
+     * 批量处理特定类型的领域事件
+     *
+     * @param events 同一批次中支持的事件，按接收顺序排列，不为空
+     */
+    void handleBatch(List<E> events);
+
+    /**
+     * 单条事件处理，按只包含一个事件的批次处理
+     * 供不支持批量投递的监听容器（如Redis Pub/Sub）使用
+     *
+     * @param event 领域事件
+     */
+    @Override
+    default void handle(E event) {
+        handleBatch(Collections.singletonList(event));
+    }
+}
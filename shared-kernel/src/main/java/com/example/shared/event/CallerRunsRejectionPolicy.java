@@ -0,0 +1,50 @@
+package com.example.shared.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 事件监听线程池的拒绝策略
+ * 队列已满时由提交任务的监听线程直接执行，使消费速度降到处理速度而不是丢弃事件，
+ * 同时记录拒绝次数，便于判断线程池容量是否需要调整
+ */
+public class CallerRunsRejectionPolicy implements RejectedExecutionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(CallerRunsRejectionPolicy.class);
+
+    private final String poolName;
+    private final Counter rejected;
+
+    /**
+     * @param poolName 线程池名称，用于日志和指标标签
+     * @param meterRegistry 指标注册表，为空时不记录指标
+     */
+    public CallerRunsRejectionPolicy(String poolName, MeterRegistry meterRegistry) {
+        this.poolName = poolName;
+        this.rejected = meterRegistry != null
+                ? Counter.builder("event.listener.rejected")
+                        .description("Tasks rejected by a saturated event listener pool and run by the caller")
+                        .tag("pool", poolName)
+                        .register(meterRegistry)
+                : null;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        if (rejected != null) {
+            rejected.increment();
+        }
+        if (executor.isShutdown()) {
+            log.warn("Task rejected from {} after shutdown, dropping: {}", poolName, task);
+            return;
+        }
+        log.debug("{} saturated (active={}, queued={}), running task in caller thread",
+                 poolName, executor.getActiveCount(), executor.getQueue().size());
+        task.run();
+    }
+}
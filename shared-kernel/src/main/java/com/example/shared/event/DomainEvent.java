@@ -68,6 +68,17 @@ public abstract class DomainEvent {
         this.source = source;
     }
 
+    /**
+     * 获取消息分区键
+     * 分区键相同的事件会投递到同一分区并按发布顺序消费，不同分区键的事件可以并行消费。
+     * 默认使用聚合根ID，保证同一聚合的事件有序；子类可覆盖此方法按其他维度分区
+     *
+     * @return 分区键，聚合根ID为空时退化为事件类型名称
+     */
+    public String partitionKey() {
+        return aggregateId != null ? aggregateId : this.getClass().getSimpleName();
+    }
+
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + "{" +
@@ -0,0 +1,402 @@
+package com.example.shared.event;
+
+import com.example.shared.event.retry.EventRetryScheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事件分发器
+ * 维护已注册的消息处理器，将监听容器接收的事件分发给各处理器，供所有监听容器复用。
+ * <p>
+ * 事件类型到处理器列表的映射在首次遇到该类型时计算并缓存，注册新处理器时重建，
+ * 分发时只遍历匹配的处理器，不再对每个事件逐一调用所有处理器的supports。
+ * <p>
+ * 配置了执行器时各处理器在各自的串行通道中异步执行：不同处理器之间并行，
+ * 同一处理器仍按接收顺序依次处理，慢处理器不会拖慢其他处理器。
+ * dispatch返回该批事件全部处理完成的Future，需要提交位点或确认消息的监听容器应等待其完成后再确认，
+ * 保证至少一次投递；每个串行通道的积压任务数有上限，达到上限时提交方等待。
+ * 配置了MeterRegistry时记录每个处理器的耗时、处理事件数和失败次数。
+ * <p>
+ * 配置了重试调度器时，处理失败的事件按指数退避重新投递给失败的处理器，重试耗尽后转入死信存储；
+ * 失败事件在本批的Future完成前写入重试存储，确认消息后进程停止也不会丢失等待重试的事件。
+ * 未配置时只记录错误日志。
+ */
+public class EventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EventDispatcher.class);
+
+    private static final String METRIC_DURATION = "event.handler.duration";
+    private static final String METRIC_EVENTS = "event.handler.events";
+
+    /**
+     * 单个串行通道最多积压的任务数
+     */
+    private static final int LANE_CAPACITY = 1024;
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    private final List<MessageHandler> handlers = new CopyOnWriteArrayList<>();
+
+    /**
+     * 事件类型 -> 匹配的处理器，注册处理器时清空
+     */
+    private final Map<Class<?>, List<MessageHandler>> dispatchTable = new ConcurrentHashMap<>();
+
+    /**
+     * 处理器 -> 异步串行通道，仅在配置了执行器时使用
+     */
+    private final Map<MessageHandler, SerialExecutor> lanes = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private final Map<MessageHandler, HandlerMetrics> metrics = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private final Executor asyncExecutor;
+    private final MeterRegistry meterRegistry;
+    private final EventRetryScheduler retryScheduler;
+
+    /**
+     * 创建同步分发、不记录指标的分发器
+     */
+    public EventDispatcher() {
+        this(null, null);
+    }
+
+    /**
+     * @param asyncExecutor 处理器异步执行使用的执行器，为空时在监听线程中同步执行
+     * @param meterRegistry 指标注册表，为空时不记录指标
+     */
+    public EventDispatcher(Executor asyncExecutor, MeterRegistry meterRegistry) {
+        this(asyncExecutor, meterRegistry, null);
+    }
+
+    /**
+     * @param asyncExecutor 处理器异步执行使用的执行器，为空时在监听线程中同步执行
+     * @param meterRegistry 指标注册表，为空时不记录指标
+     * @param retryScheduler 失败事件的重试调度器，为空时失败事件只记录日志
+     */
+    public EventDispatcher(Executor asyncExecutor, MeterRegistry meterRegistry, EventRetryScheduler retryScheduler) {
+        this.asyncExecutor = asyncExecutor;
+        this.meterRegistry = meterRegistry;
+        this.retryScheduler = retryScheduler;
+        if (retryScheduler != null) {
+            retryScheduler.bind(this::redeliver);
+        }
+    }
+
+    /**
+     * 注册消息处理器
+     *
+     * @param handler 消息处理器
+     */
+    public void registerHandler(MessageHandler handler) {
+        if (handler != null) {
+            this.handlers.add(handler);
+            this.dispatchTable.clear();
+            log.info("Registered MessageHandler: {}", handler.getClass().getName());
+        }
+    }
+
+    /**
+     * 分发单个事件
+     *
+     * @param event 领域事件
+     * @return 事件处理完成时完成的Future
+     */
+    public CompletableFuture<Void> dispatch(DomainEvent event) {
+        if (event == null) {
+            return COMPLETED;
+        }
+        return dispatch(Collections.singletonList(event));
+    }
+
+    /**
+     * 将一批事件分发给匹配的处理器
+     * 单个处理器异常不影响其他处理器；同步分发时返回已完成的Future
+     *
+     * @param events 事件列表，按接收顺序排列
+     * @return 所有匹配的处理器都处理完这批事件时完成的Future，处理器异常不会使其异常完成
+     */
+    public CompletableFuture<Void> dispatch(List<DomainEvent> events) {
+        if (events.isEmpty()) {
+            return COMPLETED;
+        }
+
+        // 按处理器归集事件，保持处理器注册顺序和事件接收顺序
+        Map<MessageHandler, List<DomainEvent>> routed = new LinkedHashMap<>();
+        for (DomainEvent event : events) {
+            for (MessageHandler handler : handlersFor(event.getClass())) {
+                routed.computeIfAbsent(handler, h -> new ArrayList<>(events.size())).add(event);
+            }
+        }
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>(routed.size());
+        for (Map.Entry<MessageHandler, List<DomainEvent>> entry : routed.entrySet()) {
+            MessageHandler handler = entry.getKey();
+            List<DomainEvent> handlerEvents = entry.getValue();
+            CompletableFuture<Void> done = execute(handler, () -> invoke(handler, handlerEvents));
+            if (!done.isDone()) {
+                pending.add(done);
+            }
+        }
+        return pending.isEmpty() ? COMPLETED : CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * 获取事件类型对应的处理器列表
+     */
+    List<MessageHandler> handlersFor(Class<? extends DomainEvent> eventType) {
+        return dispatchTable.computeIfAbsent(eventType, this::resolveHandlers);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private List<MessageHandler> resolveHandlers(Class<?> eventType) {
+        @SuppressWarnings("unchecked")
+        Class<? extends DomainEvent> domainEventType = (Class<? extends DomainEvent>) eventType;
+        List<MessageHandler> matched = new ArrayList<>();
+        for (MessageHandler handler : handlers) {
+            // 非 DomainEventHandler 的通用 MessageHandler 接收所有事件
+            if (!(handler instanceof DomainEventHandler)
+                    || ((DomainEventHandler) handler).supports(domainEventType)) {
+                matched.add(handler);
+            }
+        }
+        log.debug("Resolved {} handlers for event type {}", matched.size(), eventType.getName());
+        return Collections.unmodifiableList(matched);
+    }
+
+    /**
+     * 执行处理器任务，返回任务完成时完成的Future
+     */
+    private CompletableFuture<Void> execute(MessageHandler handler, Runnable task) {
+        if (asyncExecutor == null) {
+            task.run();
+            return COMPLETED;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            lane(handler).execute(() -> {
+                try {
+                    task.run();
+                    done.complete(null);
+                } catch (Throwable e) {
+                    done.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            done.completeExceptionally(e);
+        }
+        return done;
+    }
+
+    private void invoke(MessageHandler handler, List<DomainEvent> events) {
+        long start = System.nanoTime();
+        int failures = invokeHandler(handler, events, 1);
+        if (meterRegistry != null) {
+            metrics(handler).record(System.nanoTime() - start, events.size(), failures);
+        }
+    }
+
+    /**
+     * 重新投递一个之前处理失败的事件
+     * 重试记录只保存处理器名称，按名称查找已注册的处理器
+     *
+     * @return 处理完成时完成的Future，没有该名称的处理器时返回null
+     */
+    private CompletableFuture<Void> redeliver(String handlerName, DomainEvent event, int attempt) {
+        for (MessageHandler handler : handlers) {
+            if (handlerName(handler).equals(handlerName)) {
+                return redeliver(handler, event, attempt);
+            }
+        }
+        return null;
+    }
+
+    private CompletableFuture<Void> redeliver(MessageHandler handler, DomainEvent event, int attempt) {
+        return execute(handler, () -> {
+            long start = System.nanoTime();
+            int failures = invokeHandler(handler, Collections.singletonList(event), attempt);
+            if (meterRegistry != null) {
+                metrics(handler).record(System.nanoTime() - start, 1, failures);
+            }
+        });
+    }
+
+    /**
+     * 调用处理器，返回处理失败的事件数
+     * 批量处理器一次接收所有事件，其他处理器逐条调用
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private int invokeHandler(MessageHandler handler, List<DomainEvent> events, int attempt) {
+        if (handler instanceof BatchDomainEventHandler) {
+            try {
+                ((BatchDomainEventHandler) handler).handleBatch(events);
+                return 0;
+            } catch (Exception e) {
+                log.error("Error processing batch of {} events with handler {}: {}",
+                          events.size(), handler.getClass().getName(), e.getMessage(), e);
+                // 整批失败时逐条重试，避免一个坏事件拖累整批
+                for (DomainEvent event : events) {
+                    failed(handler, event, attempt, e);
+                }
+                return events.size();
+            }
+        }
+
+        int failures = 0;
+        for (DomainEvent event : events) {
+            try {
+                if (handler instanceof DomainEventHandler) {
+                    // 分发表已按supports筛选，直接调用handle
+                    ((DomainEventHandler) handler).handle(event);
+                } else {
+                    handler.onMessage(event);
+                }
+            } catch (Exception e) {
+                failures++;
+                log.error("Error processing event {} with handler {}: {}",
+                          event, handler.getClass().getName(), e.getMessage(), e);
+                // 单条事件异常不应影响同批次的其他事件
+                failed(handler, event, attempt, e);
+            }
+        }
+        return failures;
+    }
+
+    private void failed(MessageHandler handler, DomainEvent event, int attempt, Exception cause) {
+        if (retryScheduler != null) {
+            retryScheduler.onFailure(handlerName(handler), event, attempt, cause);
+        }
+    }
+
+    private static String handlerName(MessageHandler handler) {
+        return handler.getClass().getSimpleName();
+    }
+
+    private SerialExecutor lane(MessageHandler handler) {
+        synchronized (lanes) {
+            return lanes.computeIfAbsent(handler, h -> new SerialExecutor(asyncExecutor, LANE_CAPACITY));
+        }
+    }
+
+    private HandlerMetrics metrics(MessageHandler handler) {
+        synchronized (metrics) {
+            return metrics.computeIfAbsent(handler, h -> new HandlerMetrics(meterRegistry, h.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * 单个处理器的指标
+     */
+    private static final class HandlerMetrics {
+        private final Timer duration;
+        private final Counter succeeded;
+        private final Counter failed;
+
+        HandlerMetrics(MeterRegistry registry, String handler) {
+            this.duration = Timer.builder(METRIC_DURATION)
+                    .description("Time spent in an event handler per dispatch")
+                    .tag("handler", handler)
+                    .register(registry);
+            this.succeeded = Counter.builder(METRIC_EVENTS)
+                    .description("Events processed by an event handler")
+                    .tag("handler", handler)
+                    .tag("outcome", "success")
+                    .register(registry);
+            this.failed = Counter.builder(METRIC_EVENTS)
+                    .description("Events processed by an event handler")
+                    .tag("handler", handler)
+                    .tag("outcome", "failure")
+                    .register(registry);
+        }
+
+        void record(long nanos, int events, int failures) {
+            duration.record(nanos, TimeUnit.NANOSECONDS);
+            if (events > failures) {
+                succeeded.increment(events - failures);
+            }
+            if (failures > 0) {
+                failed.increment(failures);
+            }
+        }
+    }
+
+    /**
+     * 串行执行器
+     * 任务提交到共享执行器，但同一串行执行器中的任务按提交顺序依次执行。
+     * 同一时刻最多只有一个排空任务在执行器中循环执行积压的任务；执行器拒绝时由提交线程在锁外排空，
+     * 不会递归调用，也不会在持有通道锁时执行任务。积压达到上限时提交方等待，向监听线程施加背压
+     */
+    private static final class SerialExecutor implements Executor {
+        private final Queue<Runnable> tasks;
+        private final Executor executor;
+        private final int capacity;
+        private boolean draining;
+
+        SerialExecutor(Executor executor, int capacity) {
+            this.executor = executor;
+            this.capacity = capacity;
+            this.tasks = new ArrayDeque<>(Math.min(capacity, 16));
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            synchronized (this) {
+                while (tasks.size() >= capacity) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for a full handler lane", e);
+                    }
+                }
+                tasks.add(task);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 执行器已关闭时由提交线程排空，避免通道停滞
+                drain();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        draining = false;
+                        return;
+                    }
+                    notifyAll();
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Error running event handler task: {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.shared.event;
+
+/**
+ * 事件发布异常
+ * 当消息中间件未能确认接收事件时抛出，调用方可据此决定重试
+ */
+public class EventPublishException extends RuntimeException {
+
+    public EventPublishException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.shared.event;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 事件发布器接口
  * 负责发布领域事件到消息中间件
@@ -8,8 +11,43 @@ public interface EventPublisher {
     
     /**
      * 发布领域事件
+     * 方法返回即表示消息中间件已确认接收
      * 
      * @param event 领域事件
+     * @throws EventPublishException 消息中间件未能确认接收时抛出
      */
     void publish(DomainEvent event);
+
+    /**
+     * 异步发布领域事件
+     * 返回的Future在消息中间件确认接收后完成，失败时以EventPublishException异常完成。
+     * 默认实现同步发布后返回已完成的Future，支持异步发送的实现会覆盖此方法
+     *
+     * @param event 领域事件
+     * @return 发布结果
+     */
+    default CompletableFuture<Void> publishAsync(DomainEvent event) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            publish(event);
+            future.complete(null);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 批量发布领域事件
+     * 方法返回即表示所有事件均已被消息中间件确认接收，事件按集合迭代顺序发送。
+     * 默认实现逐条发布，支持批量发送的实现会覆盖此方法以减少网络往返
+     *
+     * @param events 领域事件集合
+     * @throws EventPublishException 任一事件未能确认接收时抛出，此时部分事件可能已经发布
+     */
+    default void publishAll(Collection<? extends DomainEvent> events) {
+        for (DomainEvent event : events) {
+            publish(event);
+        }
+    }
 }
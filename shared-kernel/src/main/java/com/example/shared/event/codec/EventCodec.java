@@ -0,0 +1,155 @@
+package com.example.shared.event.codec;
+
+import com.example.shared.event.DomainEvent;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * 领域事件编解码器
+ * 所有消息中间件共用的二进制事件信封，格式如下：
+ * <pre>
+ * +-------+--------+-------------+---------+---------------+---------+
+ * | magic | format | typeId长度  | typeId  | 事件结构版本  | payload |
+ * | 1字节 | 1字节  | 2字节       | UTF-8   | 2字节         | JSON    |
+ * +-------+--------+-------------+---------+---------------+---------+
+ * </pre>
+ * 事件类型由信封头中的短类型ID确定，payload是不含类型信息的事件字段JSON，
+ * 相比开启默认多态类型的JSON，不再携带全限定类名，反序列化也无需解析类型包装。
+ * 为兼容升级期间仍在传输的旧消息，开启旧格式解码后以JSON开头的数据按旧格式解码，
+ * 旧格式中的类型信息只允许解析为受信任包中的类，见{@link #legacyMapper(Collection)}
+ */
+public class EventCodec {
+
+    private static final byte MAGIC = (byte) 0xDE;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final EventTypeRegistry registry;
+    private final ObjectMapper payloadMapper;
+    private final ObjectMapper legacyMapper;
+
+    /**
+     * @param registry 事件类型注册表
+     * @param legacyMapper 旧格式（开启默认多态类型的JSON）使用的ObjectMapper，为null时不解码旧格式
+     */
+    public EventCodec(EventTypeRegistry registry, ObjectMapper legacyMapper) {
+        this.registry = registry;
+        this.legacyMapper = legacyMapper;
+        this.payloadMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                // 新增字段的事件可以被旧版本消费者解码
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * 创建解码旧格式使用的ObjectMapper
+     * 旧格式在JSON中携带全限定类名，类型只允许是受信任包中的类以及事件字段常用的JDK值类型，
+     * 避免消息中指定任意类触发反序列化漏洞
+     *
+     * @param trustedPackages 事件类所在的包
+     * @return 旧格式ObjectMapper
+     */
+    public static ObjectMapper legacyMapper(Collection<String> trustedPackages) {
+        BasicPolymorphicTypeValidator.Builder validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .allowIfSubType("java.math.");
+        for (String trustedPackage : trustedPackages) {
+            validator.allowIfSubType(trustedPackage + ".");
+        }
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        mapper.activateDefaultTyping(validator.build(), ObjectMapper.DefaultTyping.NON_FINAL);
+        return mapper;
+    }
+
+    /**
+     * 编码领域事件
+     *
+     * @param event 领域事件
+     * @return 事件信封字节
+     */
+    public byte[] encode(DomainEvent event) {
+        Class<? extends DomainEvent> eventType = event.getClass();
+        byte[] typeId = registry.typeIdOf(eventType).getBytes(StandardCharsets.UTF_8);
+        try {
+            byte[] payload = payloadMapper.writeValueAsBytes(event);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(6 + typeId.length + payload.length);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeByte(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeShort(typeId.length);
+            out.write(typeId);
+            out.writeShort(registry.versionOf(eventType));
+            out.write(payload);
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to encode event " + event.getEventId(), e);
+        }
+    }
+
+    /**
+     * 解码事件信封
+     *
+     * @param data 事件信封字节
+     * @return 领域事件
+     * @throws IllegalArgumentException 数据无法解码或事件类型不受信任
+     */
+    public DomainEvent decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Empty event data");
+        }
+        if (data[0] != MAGIC) {
+            return decodeLegacy(data);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        buffer.get();
+        byte format = buffer.get();
+        if (format != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported event envelope format " + format);
+        }
+        int typeIdLength = buffer.getShort() & 0xFFFF;
+        String typeId = new String(data, buffer.position(), typeIdLength, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + typeIdLength);
+        // 事件结构版本预留给需要按版本迁移的事件，当前均向后兼容
+        buffer.getShort();
+
+        Class<? extends DomainEvent> eventType = registry.resolve(typeId);
+        try {
+            return payloadMapper.readValue(data, buffer.position(), buffer.remaining(), eventType);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to decode event of type '" + typeId + "'", e);
+        }
+    }
+
+    private DomainEvent decodeLegacy(byte[] data) {
+        if (data[0] != '[' && data[0] != '{') {
+            throw new IllegalArgumentException("Unknown event data format, first byte " + (data[0] & 0xFF));
+        }
+        if (legacyMapper == null) {
+            throw new IllegalArgumentException("Legacy JSON event decoding is disabled");
+        }
+        try {
+            Object decoded = legacyMapper.readValue(data, Object.class);
+            if (!(decoded instanceof DomainEvent)) {
+                throw new IllegalArgumentException("Decoded object is not a DomainEvent: "
+                        + (decoded != null ? decoded.getClass().getName() : "null"));
+            }
+            return (DomainEvent) decoded;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to decode legacy JSON event", e);
+        }
+    }
+}
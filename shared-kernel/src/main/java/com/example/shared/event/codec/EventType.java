@@ -0,0 +1,28 @@
+package com.example.shared.event.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明领域事件的类型ID和结构版本
+ * 事件信封中只携带类型ID，不再携带全限定类名；类型ID一经发布不应修改，
+ * 事件结构发生不兼容变化时递增version
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EventType {
+
+    /**
+     * 类型ID，建议使用"领域.事件"形式，如 diet.record-added
+     */
+    String value();
+
+    /**
+     * 事件结构版本
+     */
+    int version() default 1;
+}
@@ -0,0 +1,126 @@
+package com.example.shared.event.codec;
+
+import com.example.shared.event.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 事件类型注册表
+ * 维护类型ID与事件类之间的双向映射，同时限定可被反序列化的事件所在的包。
+ * 标注了{@link EventType}的事件使用注解中的类型ID，未标注的事件退化为使用全限定类名
+ */
+public class EventTypeRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(EventTypeRegistry.class);
+
+    private final Map<String, Class<? extends DomainEvent>> typesById = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> idsByType = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Integer> versionsByType = new ConcurrentHashMap<>();
+    private final Collection<String> trustedPackages;
+
+    /**
+     * @param trustedPackages 事件类所在的包，未注册的类型只有位于这些包中才允许反序列化
+     */
+    public EventTypeRegistry(Collection<String> trustedPackages) {
+        this.trustedPackages = trustedPackages;
+    }
+
+    /**
+     * 扫描受信任的包，注册其中所有标注了{@link EventType}的事件
+     *
+     * @return 当前注册表
+     */
+    public EventTypeRegistry scan() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(EventType.class));
+        for (String basePackage : trustedPackages) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(), getClass().getClassLoader());
+                if (DomainEvent.class.isAssignableFrom(type)) {
+                    @SuppressWarnings("unchecked")
+                    Class<? extends DomainEvent> eventType = (Class<? extends DomainEvent>) type;
+                    register(eventType);
+                }
+            }
+        }
+        log.info("Registered {} event types from packages {}", typesById.size(), trustedPackages);
+        return this;
+    }
+
+    /**
+     * 注册标注了{@link EventType}的事件类
+     *
+     * @param eventType 事件类
+     */
+    public void register(Class<? extends DomainEvent> eventType) {
+        EventType annotation = eventType.getAnnotation(EventType.class);
+        if (annotation == null) {
+            throw new IllegalArgumentException("Event class " + eventType.getName() + " is not annotated with @EventType");
+        }
+        Class<? extends DomainEvent> existing = typesById.putIfAbsent(annotation.value(), eventType);
+        if (existing != null && existing != eventType) {
+            throw new IllegalStateException("Duplicate event type id '" + annotation.value() + "' for "
+                    + existing.getName() + " and " + eventType.getName());
+        }
+        idsByType.put(eventType, annotation.value());
+        versionsByType.put(eventType, annotation.version());
+    }
+
+    /**
+     * 获取事件类的类型ID
+     */
+    public String typeIdOf(Class<? extends DomainEvent> eventType) {
+        String typeId = idsByType.get(eventType);
+        return typeId != null ? typeId : eventType.getName();
+    }
+
+    /**
+     * 获取事件类的结构版本
+     */
+    public int versionOf(Class<? extends DomainEvent> eventType) {
+        return versionsByType.getOrDefault(eventType, 1);
+    }
+
+    /**
+     * 根据类型ID解析事件类
+     *
+     * @param typeId 类型ID
+     * @return 事件类
+     * @throws IllegalArgumentException 类型未注册且不在受信任的包中
+     */
+    public Class<? extends DomainEvent> resolve(String typeId) {
+        Class<? extends DomainEvent> eventType = typesById.get(typeId);
+        if (eventType != null) {
+            return eventType;
+        }
+        // 未标注@EventType的事件以全限定类名作为类型ID
+        if (!isTrusted(typeId)) {
+            throw new IllegalArgumentException("Event type '" + typeId + "' is not registered or trusted");
+        }
+        Class<?> type = ClassUtils.resolveClassName(typeId, getClass().getClassLoader());
+        if (!DomainEvent.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Class '" + typeId + "' is not a DomainEvent");
+        }
+        @SuppressWarnings("unchecked")
+        Class<? extends DomainEvent> resolved = (Class<? extends DomainEvent>) type;
+        typesById.putIfAbsent(typeId, resolved);
+        return resolved;
+    }
+
+    private boolean isTrusted(String className) {
+        for (String trustedPackage : trustedPackages) {
+            if (className.startsWith(trustedPackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
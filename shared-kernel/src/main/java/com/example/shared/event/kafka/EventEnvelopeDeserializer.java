@@ -0,0 +1,29 @@
+package com.example.shared.event.kafka;
+
+import com.example.shared.event.codec.EventCodec;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * 基于二进制事件信封的Kafka反序列化器
+ */
+public class EventEnvelopeDeserializer implements Deserializer<Object> {
+
+    private final EventCodec eventCodec;
+
+    public EventEnvelopeDeserializer(EventCodec eventCodec) {
+        this.eventCodec = eventCodec;
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            return eventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Failed to decode event from topic " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.shared.event.kafka;
+
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.codec.EventCodec;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * 基于二进制事件信封的Kafka序列化器
+ */
+public class EventEnvelopeSerializer implements Serializer<Object> {
+
+    private final EventCodec eventCodec;
+
+    public EventEnvelopeSerializer(EventCodec eventCodec) {
+        this.eventCodec = eventCodec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (!(data instanceof DomainEvent)) {
+            throw new SerializationException("Only DomainEvent can be serialized, got " + data.getClass().getName());
+        }
+        try {
+            return eventCodec.encode((DomainEvent) data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+}
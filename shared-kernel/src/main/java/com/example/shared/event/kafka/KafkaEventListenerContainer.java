@@ -1,7 +1,7 @@
 package com.example.shared.event.kafka;
 
 import com.example.shared.event.DomainEvent;
-import com.example.shared.event.DomainEventHandler;
+import com.example.shared.event.EventDispatcher;
 import com.example.shared.event.EventListenerContainer;
 import com.example.shared.event.MessageHandler;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -10,78 +10,53 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.kafka.annotation.KafkaListener;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Kafka事件监听容器
- * 基于Kafka Topic监听和处理领域事件
+ * 基于Kafka Topic监听和处理领域事件，按poll批次接收记录并分发给处理器。
+ * 监听方法等待整批事件处理完成后才返回，异步处理器模式下位点同样在处理完成后提交
  */
 public class KafkaEventListenerContainer implements EventListenerContainer, InitializingBean {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaEventListenerContainer.class);
 
-    private final List<MessageHandler> handlers = new CopyOnWriteArrayList<>();
+    private final EventDispatcher dispatcher;
+
+    public KafkaEventListenerContainer(EventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
 
     @Override
     public void registerHandler(MessageHandler handler) {
-        if (handler != null) {
-            this.handlers.add(handler);
-            log.info("Registered MessageHandler: {}", handler.getClass().getName());
-        }
+        dispatcher.registerHandler(handler);
     }
 
     /**
-     * Kafka监听器方法
-     * 使用配置文件中的topic和group-id
+     * Kafka批量监听器方法
+     * 使用配置文件中的topic和group-id，每次接收一次poll返回的全部记录
      */
     @KafkaListener(topics = "${app.event.channel:domain-events}",
-                   groupId = "${spring.kafka.consumer.group-id:default-group}")
-    public void handleEvent(ConsumerRecord<String, DomainEvent> record) {
-        try {
-            DomainEvent event = record.value();
-            String topic = record.topic();
-            int partition = record.partition();
-            long offset = record.offset();
-
-            log.debug("Received event from Kafka topic '{}', partition {}, offset {}",
-                     topic, partition, offset);
-
-            if (event != null) {
-                log.info("Processing event of type '{}' with ID '{}' from Kafka",
-                         event.getClass().getSimpleName(), event.getEventId());
-
-                // 与Redis实现相同的Handler调用逻辑
-                for (MessageHandler handler : handlers) {
-                    try {
-                        if (handler instanceof DomainEventHandler) {
-                            @SuppressWarnings("rawtypes")
-                            DomainEventHandler domainEventHandler = (DomainEventHandler) handler;
-                            if (domainEventHandler.supports(event.getClass())) {
-                                log.debug("Dispatching event {} to handler {}",
-                                         event.getClass().getSimpleName(),
-                                         handler.getClass().getName());
-                                domainEventHandler.onMessage(event);
-                            }
-                        } else {
-                            // 对于非 DomainEventHandler 的通用 MessageHandler，直接调用
-                            log.debug("Dispatching event {} to generic handler {}",
-                                     event.getClass().getSimpleName(),
-                                     handler.getClass().getName());
-                            handler.onMessage(event);
-                        }
-                    } catch (Exception e) {
-                        log.error("Error processing event {} with handler {}: {}",
-                                  event, handler.getClass().getName(), e.getMessage(), e);
-                        // 单个处理器异常不应影响其他处理器
-                    }
-                }
+                   groupId = "${spring.kafka.consumer.group-id:default-group}",
+                   batch = "true")
+    public void handleEvents(List<ConsumerRecord<String, DomainEvent>> records) {
+        List<DomainEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, DomainEvent> record : records) {
+            if (record.value() != null) {
+                events.add(record.value());
             } else {
-                log.warn("Received null event from Kafka topic '{}'", topic);
+                log.warn("Received null event from Kafka topic '{}', partition {}, offset {}",
+                         record.topic(), record.partition(), record.offset());
             }
-        } catch (Exception e) {
-            log.error("Error processing Kafka message: {}", e.getMessage(), e);
         }
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        log.debug("Processing batch of {} events from Kafka", events.size());
+        dispatcher.dispatch(events).join();
     }
 
     @Override
@@ -99,4 +74,4 @@ public class KafkaEventListenerContainer implements EventListenerContainer, Init
         start();
         log.info("Subscribed to Kafka topic: ${app.event.channel:domain-events}");
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,27 @@
 package com.example.shared.event.kafka;
 
 import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventPublishException;
 import com.example.shared.event.EventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
-import org.springframework.util.concurrent.ListenableFuture;
-import org.springframework.util.concurrent.ListenableFutureCallback;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Kafka事件发布器
- * 基于Kafka Topic发布领域事件
+ * 基于Kafka Topic发布领域事件，批量发布时由producer按linger和batch设置合并请求
  */
 public class KafkaEventPublisher implements EventPublisher {
 
@@ -22,9 +31,11 @@ public class KafkaEventPublisher implements EventPublisher {
     private String eventTopic;
 
     private final KafkaTemplate<String, DomainEvent> kafkaTemplate;
+    private final Duration sendTimeout; // 等待broker确认的最长时间
 
-    public KafkaEventPublisher(KafkaTemplate<String, DomainEvent> kafkaTemplate) {
+    public KafkaEventPublisher(KafkaTemplate<String, DomainEvent> kafkaTemplate, Duration sendTimeout) {
         this.kafkaTemplate = kafkaTemplate;
+        this.sendTimeout = sendTimeout;
     }
 
     @Override
@@ -33,35 +44,79 @@ public class KafkaEventPublisher implements EventPublisher {
             log.warn("Attempted to publish a null event.");
             return;
         }
+        await(Collections.singletonList(send(event)), Collections.singletonList(event));
+    }
 
-        try {
-            // 使用事件类型作为分区键，确保同类型事件有序
-            String partitionKey = event.getClass().getSimpleName();
-
-            log.info("Publishing event of type '{}' with ID '{}' to Kafka topic '{}'",
-                     event.getClass().getSimpleName(), event.getEventId(), eventTopic);
+    @Override
+    public CompletableFuture<Void> publishAsync(DomainEvent event) {
+        if (event == null) {
+            log.warn("Attempted to publish a null event.");
+            return CompletableFuture.completedFuture(null);
+        }
+        return send(event).handle((result, e) -> {
+            if (e != null) {
+                throw failure(event, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+            return null;
+        });
+    }
 
-            // 发送到Kafka Topic
-            ListenableFuture<SendResult<String, DomainEvent>> future =
-                kafkaTemplate.send(eventTopic, partitionKey, event);
+    @Override
+    public void publishAll(Collection<? extends DomainEvent> events) {
+        // 先全部交给producer，由producer按linger和batch设置合并发送，再统一等待确认
+        List<CompletableFuture<SendResult<String, DomainEvent>>> futures = new ArrayList<>(events.size());
+        List<DomainEvent> sent = new ArrayList<>(events.size());
+        for (DomainEvent event : events) {
+            if (event != null) {
+                futures.add(send(event));
+                sent.add(event);
+            }
+        }
+        await(futures, sent);
+    }
 
-            // 添加回调处理
-            future.addCallback(new ListenableFutureCallback<SendResult<String, DomainEvent>>() {
-                @Override
-                public void onSuccess(SendResult<String, DomainEvent> result) {
-                    log.debug("Successfully published event: {} to partition: {}, offset: {}",
-                             event, result.getRecordMetadata().partition(),
-                             result.getRecordMetadata().offset());
-                }
+    private CompletableFuture<SendResult<String, DomainEvent>> send(DomainEvent event) {
+        // 使用事件自身的分区键（默认聚合根ID），同一聚合的事件有序，不同聚合的事件分散到各分区并行消费
+        String partitionKey = event.partitionKey();
 
-                @Override
-                public void onFailure(Throwable ex) {
-                    log.error("Failed to publish event: {}", event, ex);
-                }
-            });
+        log.debug("Publishing event of type '{}' with ID '{}' to Kafka topic '{}', key '{}'",
+                 event.getClass().getSimpleName(), event.getEventId(), eventTopic, partitionKey);
 
+        try {
+            return kafkaTemplate.send(eventTopic, partitionKey, event).completable();
         } catch (Exception e) {
-            log.error("Error publishing event {} to Kafka: {}", event, e.getMessage(), e);
+            CompletableFuture<SendResult<String, DomainEvent>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 等待一批发送结果，超时或任一失败时抛出异常，确认失败时由调用方重试
+     */
+    private void await(List<CompletableFuture<SendResult<String, DomainEvent>>> futures, List<DomainEvent> events) {
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < futures.size(); i++) {
+            DomainEvent event = events.get(i);
+            try {
+                SendResult<String, DomainEvent> result = futures.get(i)
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                log.debug("Successfully published event: {} to partition: {}, offset: {}",
+                         event, result.getRecordMetadata().partition(),
+                         result.getRecordMetadata().offset());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EventPublishException("Interrupted while publishing event " + event.getEventId() + " to Kafka", e);
+            } catch (ExecutionException e) {
+                throw failure(event, e.getCause() != null ? e.getCause() : e);
+            } catch (Exception e) {
+                throw failure(event, e);
+            }
+        }
+    }
+
+    private EventPublishException failure(DomainEvent event, Throwable cause) {
+        log.error("Error publishing event {} to Kafka: {}", event, cause.getMessage(), cause);
+        return new EventPublishException("Failed to publish event " + event.getEventId() + " to Kafka", cause);
+    }
+}
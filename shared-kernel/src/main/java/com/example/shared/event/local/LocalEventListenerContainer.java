@@ -0,0 +1,107 @@
+package com.example.shared.event.local;
+
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventDispatcher;
+import com.example.shared.event.EventListenerContainer;
+import com.example.shared.event.MessageHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内事件监听容器
+ * 单个消费线程按批次从本地环形缓冲区读取事件并分发给处理器，事件按发布顺序处理
+ */
+public class LocalEventListenerContainer implements EventListenerContainer, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalEventListenerContainer.class);
+
+    private static final long POLL_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    private final LocalEventRingBuffer ringBuffer;
+    private final int maxBatchSize;
+    private final EventDispatcher dispatcher;
+
+    private volatile boolean running;
+    private volatile Thread consumerThread;
+
+    public LocalEventListenerContainer(LocalEventRingBuffer ringBuffer, int maxBatchSize) {
+        this(ringBuffer, maxBatchSize, new EventDispatcher());
+    }
+
+    public LocalEventListenerContainer(LocalEventRingBuffer ringBuffer, int maxBatchSize, EventDispatcher dispatcher) {
+        this.ringBuffer = ringBuffer;
+        this.maxBatchSize = maxBatchSize;
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void registerHandler(MessageHandler handler) {
+        dispatcher.registerHandler(handler);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        ringBuffer.setConsumerRunning(true);
+        Thread thread = new Thread(this::consumeLoop, "local-event-consumer");
+        thread.setDaemon(true);
+        consumerThread = thread;
+        thread.start();
+        log.info("LocalEventListenerContainer started.");
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = consumerThread;
+        if (thread != null) {
+            try {
+                thread.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("LocalEventListenerContainer stopped, {} events left unprocessed.", ringBuffer.backlog());
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        stop();
+    }
+
+    private void consumeLoop() {
+        List<DomainEvent> batch = new ArrayList<>(maxBatchSize);
+        // 停止后继续处理已发布的事件，直到缓冲区为空
+        while (running || ringBuffer.backlog() > 0) {
+            try {
+                if (ringBuffer.poll(batch, maxBatchSize, POLL_TIMEOUT_NANOS) > 0) {
+                    dispatcher.dispatch(batch);
+                }
+            } catch (Exception e) {
+                log.error("Error dispatching local events: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+        // 消费线程退出后不再释放槽位，通知生产者在缓冲区写满时直接丢弃事件
+        ringBuffer.setConsumerRunning(false);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.shared.event.local;
+
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventPublishException;
+import com.example.shared.event.EventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 进程内事件发布器
+ * 事件直接写入本地环形缓冲区，由同一JVM内的LocalEventListenerContainer分发，不经过序列化和网络。
+ * 缓冲区已满超时或本进程未启用消费时抛出EventPublishException，发件箱据此保留事件稍后重试
+ */
+public class LocalEventPublisher implements EventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalEventPublisher.class);
+
+    private final LocalEventRingBuffer ringBuffer;
+    private final boolean consumerEnabled;
+    private final boolean discardWithoutConsumer;
+
+    /**
+     * @param ringBuffer 本地环形缓冲区
+     * @param consumerEnabled 本进程是否启用了事件消费
+     */
+    public LocalEventPublisher(LocalEventRingBuffer ringBuffer, boolean consumerEnabled) {
+        this(ringBuffer, consumerEnabled, false);
+    }
+
+    /**
+     * @param ringBuffer 本地环形缓冲区
+     * @param consumerEnabled 本进程是否启用了事件消费，未启用时事件无人消费，不写入缓冲区以免写满阻塞发布方
+     * @param discardWithoutConsumer 未启用消费时是否直接丢弃事件并正常返回，关闭时抛出EventPublishException
+     */
+    public LocalEventPublisher(LocalEventRingBuffer ringBuffer, boolean consumerEnabled,
+                               boolean discardWithoutConsumer) {
+        this.ringBuffer = ringBuffer;
+        this.consumerEnabled = consumerEnabled;
+        this.discardWithoutConsumer = discardWithoutConsumer;
+    }
+
+    @Override
+    public void publish(DomainEvent event) {
+        if (event == null) {
+            log.warn("Attempted to publish a null event.");
+            return;
+        }
+        if (!consumerEnabled) {
+            if (discardWithoutConsumer) {
+                log.debug("No local event consumer enabled, discarding event {}", event.getEventId());
+                return;
+            }
+            throw new EventPublishException("No local event consumer enabled, event "
+                    + event.getEventId() + " was not accepted", null);
+        }
+        if (!ringBuffer.publish(event)) {
+            log.warn("Local ring buffer full, rejected event {} of type '{}' ({} rejected in total)",
+                     event.getEventId(), event.getClass().getSimpleName(), ringBuffer.dropped());
+            throw new EventPublishException("Local ring buffer full, event "
+                    + event.getEventId() + " was not accepted", null);
+        }
+        log.debug("Published event {} of type '{}' to local ring buffer",
+                 event.getEventId(), event.getClass().getSimpleName());
+    }
+}
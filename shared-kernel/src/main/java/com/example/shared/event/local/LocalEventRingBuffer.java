@@ -0,0 +1,244 @@
+package com.example.shared.event.local;
+
+import com.example.shared.event.DomainEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 多生产者、单消费者的无锁环形缓冲区
+ * <p>
+ * 生产者通过原子自增领取序号，写入对应槽位后在可用标记数组中记录该序号所在的圈数，
+ * 消费者按序号顺序读取已发布的连续区间，读取后推进消费序号释放槽位。
+ * 缓冲区写满时生产者短暂停顿等待消费者，形成背压；等待超过发布超时或消费者已经停止时丢弃事件并计数，
+ * 避免业务线程在停机或消费者异常时无限等待。
+ */
+public final class LocalEventRingBuffer {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long SLEEP_NANOS = 100;
+    private static final long BLOCK_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Duration DEFAULT_PUBLISH_TIMEOUT = Duration.ofSeconds(5);
+
+    private final DomainEvent[] entries;
+    private final int mask;
+    private final int indexShift;
+
+    /**
+     * 每个槽位最近一次发布的圈数，初始为-1表示未发布
+     */
+    private final AtomicIntegerArray availableRounds;
+
+    /**
+     * 生产者已领取的最大序号
+     */
+    private final AtomicLong cursor = new AtomicLong(-1);
+
+    /**
+     * 消费者已处理的最大序号
+     */
+    private volatile long consumed = -1;
+
+    private final WaitStrategy waitStrategy;
+    private final long publishTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private volatile boolean consumerBlocked;
+
+    /**
+     * 消费者是否已经停止，停止后缓冲区不会再释放槽位
+     */
+    private volatile boolean consumerStopped;
+
+    /**
+     * 缓冲区写满而未能发布的事件数
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param bufferSize 缓冲区大小，必须是2的幂
+     * @param waitStrategy 消费者等待策略
+     */
+    public LocalEventRingBuffer(int bufferSize, WaitStrategy waitStrategy) {
+        this(bufferSize, waitStrategy, DEFAULT_PUBLISH_TIMEOUT);
+    }
+
+    /**
+     * @param bufferSize 缓冲区大小，必须是2的幂
+     * @param waitStrategy 消费者等待策略
+     * @param publishTimeout 缓冲区已满时生产者的最长等待时间
+     */
+    public LocalEventRingBuffer(int bufferSize, WaitStrategy waitStrategy, Duration publishTimeout) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a positive power of 2: " + bufferSize);
+        }
+        this.entries = new DomainEvent[bufferSize];
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.availableRounds = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            availableRounds.set(i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+        this.publishTimeoutNanos = publishTimeout.toNanos();
+    }
+
+    /**
+     * 发布事件，缓冲区已满时等待消费者释放槽位
+     * 只有确认有空闲槽位后才领取序号，放弃发布的生产者不会留下消费者永远等不到的空序号
+     *
+     * @param event 领域事件
+     * @return 是否发布成功，等待超时或消费者已停止时丢弃事件并返回false
+     */
+    public boolean publish(DomainEvent event) {
+        long deadline = 0;
+        long sequence;
+        while (true) {
+            long current = cursor.get();
+            sequence = current + 1;
+            if (sequence - entries.length > consumed) {
+                // 缓冲区已满
+                if (deadline == 0) {
+                    deadline = System.nanoTime() + publishTimeoutNanos;
+                } else if (consumerStopped || System.nanoTime() - deadline >= 0) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                LockSupport.parkNanos(SLEEP_NANOS);
+            } else if (cursor.compareAndSet(current, sequence)) {
+                break;
+            }
+        }
+
+        int index = (int) sequence & mask;
+        entries[index] = event;
+        // volatile写入可用标记，保证消费者看到标记时槽位内容已经可见，
+        // 同时保证随后读取consumerBlocked不会被重排到标记写入之前而错过唤醒
+        availableRounds.set(index, (int) (sequence >>> indexShift));
+
+        if (consumerBlocked) {
+            signalConsumer();
+        }
+        return true;
+    }
+
+    /**
+     * 读取下一批已发布的事件，没有事件时按等待策略等待
+     *
+     * @param batch 用于接收事件的列表，调用方负责在下次调用前清空
+     * @param maxBatchSize 单批次最大事件数
+     * @param timeoutNanos 最长等待时间，超时返回0
+     * @return 读取到的事件数
+     */
+    public int poll(List<DomainEvent> batch, int maxBatchSize, long timeoutNanos) {
+        long next = consumed + 1;
+        if (!awaitAvailable(next, timeoutNanos)) {
+            return 0;
+        }
+
+        long last = next;
+        long limit = Math.min(cursor.get(), next + maxBatchSize - 1);
+        while (last < limit && isAvailable(last + 1)) {
+            last++;
+        }
+
+        for (long sequence = next; sequence <= last; sequence++) {
+            int index = (int) sequence & mask;
+            batch.add(entries[index]);
+            entries[index] = null;
+        }
+        consumed = last;
+        return (int) (last - next + 1);
+    }
+
+    /**
+     * 当前积压的事件数
+     */
+    public long backlog() {
+        return cursor.get() - consumed;
+    }
+
+    /**
+     * 缓冲区写满而未能发布的事件总数
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * 标记消费者是否在运行，消费者停止后缓冲区写满时生产者立即丢弃事件而不再等待
+     */
+    public void setConsumerRunning(boolean running) {
+        this.consumerStopped = !running;
+    }
+
+    private boolean isAvailable(long sequence) {
+        return availableRounds.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    private boolean awaitAvailable(long sequence, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        int counter = 0;
+        while (!isAvailable(sequence)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            switch (waitStrategy) {
+                case BUSY_SPIN:
+                    break;
+                case YIELDING:
+                    if (counter++ >= SPIN_TRIES) {
+                        Thread.yield();
+                    }
+                    break;
+                case SLEEPING:
+                    if (counter >= SPIN_TRIES + YIELD_TRIES) {
+                        LockSupport.parkNanos(SLEEP_NANOS);
+                    } else if (counter++ >= SPIN_TRIES) {
+                        Thread.yield();
+                    }
+                    break;
+                case BLOCKING:
+                default:
+                    block(sequence, Math.min(BLOCK_TIMEOUT_NANOS, deadline - System.nanoTime()));
+                    break;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void block(long sequence, long nanos) {
+        lock.lock();
+        try {
+            consumerBlocked = true;
+            // 设置标记后再检查一次，避免与发布方的唤醒错过
+            if (!isAvailable(sequence) && nanos > 0) {
+                notEmpty.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            consumerBlocked = false;
+            lock.unlock();
+        }
+    }
+
+    private void signalConsumer() {
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.shared.event.local;
+
+/**
+ * 本地事件环形缓冲区的消费者等待策略
+ * 在没有新事件时消费线程如何等待，决定了投递延迟与CPU占用之间的取舍
+ */
+public enum WaitStrategy {
+
+    /**
+     * 使用锁和条件变量挂起，发布时唤醒；CPU占用最低，延迟在数十微秒级，适合大多数部署
+     */
+    BLOCKING,
+
+    /**
+     * 先自旋、再让出CPU、最后短暂休眠；空闲时CPU占用低，延迟低于BLOCKING
+     */
+    SLEEPING,
+
+    /**
+     * 自旋后持续让出CPU；延迟低，但空闲时会占满一个核心的调度时间片
+     */
+    YIELDING,
+
+    /**
+     * 持续自旋；延迟最低，但会独占一个CPU核心，仅适合有专用核心的场景
+     */
+    BUSY_SPIN
+}
@@ -0,0 +1,45 @@
+package com.example.shared.event.redis;
+
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.codec.EventCodec;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 基于二进制事件信封的Redis序列化器
+ */
+public class EventEnvelopeRedisSerializer implements RedisSerializer<Object> {
+
+    private final EventCodec eventCodec;
+
+    public EventEnvelopeRedisSerializer(EventCodec eventCodec) {
+        this.eventCodec = eventCodec;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof DomainEvent)) {
+            throw new SerializationException("Only DomainEvent can be serialized, got " + value.getClass().getName());
+        }
+        try {
+            return eventCodec.encode((DomainEvent) value);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return eventCodec.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.shared.event.redis;
+
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventPublishException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Redis发布器的异步发布队列
+ * publishAsync提交的事件先进入有界队列，由发布线程按批取出后走publishAll的管道路径发送，
+ * 调用方不等待网络往返；队列已满时返回以EventPublishException异常完成的Future，而不是阻塞调用方
+ */
+class PipelinedPublishQueue {
+
+    private final Consumer<List<DomainEvent>> batchPublisher;
+    private final Executor executor;
+    private final BlockingQueue<PendingEvent> queue;
+    private final int maxBatchSize;
+    // 同一时刻最多一个排空任务，保证批次按提交顺序发送
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * @param batchPublisher 批量发布，失败时抛出异常
+     * @param executor 执行排空任务的发布线程池
+     * @param capacity 等待发布的最大事件数
+     * @param maxBatchSize 单个管道批次的最大事件数
+     */
+    PipelinedPublishQueue(Consumer<List<DomainEvent>> batchPublisher, Executor executor,
+                          int capacity, int maxBatchSize) {
+        this.batchPublisher = batchPublisher;
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 提交事件
+     *
+     * @param event 领域事件
+     * @return 事件所在批次发布完成后完成的Future
+     */
+    CompletableFuture<Void> submit(DomainEvent event) {
+        PendingEvent pending = new PendingEvent(event);
+        if (!queue.offer(pending)) {
+            pending.future.completeExceptionally(new EventPublishException(
+                    "Async publish queue is full, event " + event.getEventId() + " rejected", null));
+            return pending.future;
+        }
+        scheduleDrain();
+        return pending.future;
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            List<PendingEvent> rejected = new ArrayList<>();
+            queue.drainTo(rejected);
+            EventPublishException failure = new EventPublishException("Async event publisher is not accepting tasks", e);
+            for (PendingEvent pending : rejected) {
+                pending.future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private void drain() {
+        List<PendingEvent> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (queue.drainTo(batch, maxBatchSize) > 0) {
+                publish(batch);
+                batch.clear();
+            }
+        } finally {
+            draining.set(false);
+        }
+        // 清除标记前入队的事件可能没有触发新的排空任务
+        if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void publish(List<PendingEvent> batch) {
+        List<DomainEvent> events = new ArrayList<>(batch.size());
+        for (PendingEvent pending : batch) {
+            events.add(pending.event);
+        }
+        try {
+            batchPublisher.accept(events);
+        } catch (Exception e) {
+            // 管道批次部分成功时无法区分，整批按失败处理，由调用方重试
+            for (PendingEvent pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (PendingEvent pending : batch) {
+            pending.future.complete(null);
+        }
+    }
+
+    private static class PendingEvent {
+        private final DomainEvent event;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingEvent(DomainEvent event) {
+            this.event = event;
+        }
+    }
+}
@@ -1,15 +1,13 @@
 package com.example.shared.event.redis;
 
 import com.example.shared.event.DomainEvent;
-import com.example.shared.event.DomainEventHandler;
+import com.example.shared.event.EventDispatcher;
 import com.example.shared.event.EventListenerContainer;
 import com.example.shared.event.MessageHandler;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
@@ -19,37 +17,30 @@ import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
 import org.springframework.data.redis.serializer.RedisSerializer;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 public class RedisEventListenerContainer implements EventListenerContainer, InitializingBean, DisposableBean, MessageListener {
 
     private static final Logger log = LoggerFactory.getLogger(RedisEventListenerContainer.class);
 
     private final RedisMessageListenerContainer redisContainer;
-    private final ObjectMapper eventObjectMapper; // 用于反序列化
     private final RedisTemplate<String, Object> redisTemplate; // 用于获取序列化器
     private final String eventChannel; // 可配置的事件channel
 
-    private final List<MessageHandler> handlers = new CopyOnWriteArrayList<>();
+    private final EventDispatcher dispatcher;
 
     public RedisEventListenerContainer(RedisMessageListenerContainer redisContainer,
-                                       @Qualifier("eventObjectMapper") ObjectMapper eventObjectMapper,
                                        RedisTemplate<String, Object> redisTemplate,
-                                       @Value("${app.event.channel:domain-events}") String eventChannel) {
+                                       @Value("${app.event.channel:domain-events}") String eventChannel,
+                                       EventDispatcher dispatcher) {
         this.redisContainer = redisContainer;
-        this.eventObjectMapper = eventObjectMapper;
         this.redisTemplate = redisTemplate;
         this.eventChannel = eventChannel;
+        this.dispatcher = dispatcher;
     }
 
     @Override
     public void registerHandler(MessageHandler handler) {
-        if (handler != null) {
-            this.handlers.add(handler);
-            log.info("Registered MessageHandler: {}", handler.getClass().getName());
-        }
+        dispatcher.registerHandler(handler);
     }
 
     @Override
@@ -113,45 +104,16 @@ public class RedisEventListenerContainer implements EventListenerContainer, Init
             }
 
             if (event != null) {
-                log.info("Deserialized event of type '{}' with ID '{}' from channel '{}'",
+                log.debug("Deserialized event of type '{}' with ID '{}' from channel '{}'",
                          event.getClass().getSimpleName(), event.getEventId(), channel);
-                for (MessageHandler handler : handlers) {
-                    try {
-                        if (handler instanceof DomainEventHandler) {
-                            @SuppressWarnings("rawtypes")
-                            DomainEventHandler domainEventHandler = (DomainEventHandler) handler;
-                            if (domainEventHandler.supports(event.getClass())) {
-                                log.debug("Dispatching event {} to handler {}", event.getClass().getSimpleName(), handler.getClass().getName());
-                                domainEventHandler.onMessage(event); // onMessage内部会调用handle
-                            }
-                        } else {
-                            // 对于非 DomainEventHandler 的通用 MessageHandler，直接调用
-                            log.debug("Dispatching event {} to generic handler {}", event.getClass().getSimpleName(), handler.getClass().getName());
-                            handler.onMessage(event);
-                        }
-                    } catch (Exception e) {
-                        log.error("Error processing event {} with handler {}: {}",
-                                  event, handler.getClass().getName(), e.getMessage(), e);
-                        // 单个处理器异常不应影响其他处理器
-                    }
-                }
+                dispatcher.dispatch(event);
             } else {
-                log.warn("Deserialized event is null from channel '{}'. Message body (hex): {}",
-                         channel, bytesToHex(body));
+                log.warn("Deserialized event is null from channel '{}', message size {} bytes",
+                         channel, body != null ? body.length : 0);
             }
         } catch (Exception e) {
-            log.error("Error deserializing or processing message from Redis channel '{}': {}",
-                      channel, e.getMessage(), e);
-            log.error("Failed message body (hex): {}", bytesToHex(body));
-        }
-    }
-
-    private static String bytesToHex(byte[] bytes) {
-        if (bytes == null) return "null";
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+            log.error("Error deserializing or processing message ({} bytes) from Redis channel '{}': {}",
+                      body != null ? body.length : 0, channel, e.getMessage(), e);
         }
-        return sb.toString();
     }
 }
@@ -1,13 +1,22 @@
 package com.example.shared.event.redis;
 
+import com.example.shared.config.properties.EventProperties;
 import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventPublishException;
 import com.example.shared.event.EventPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class RedisEventPublisher implements EventPublisher {
 
@@ -15,15 +24,20 @@ public class RedisEventPublisher implements EventPublisher {
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper redisObjectMapper; // 用于确定channel名称或序列化
     private final String eventChannel; // 可配置的事件channel名称
+    private final PipelinedPublishQueue asyncQueue; // publishAsync的事件按批走管道发送
 
     public RedisEventPublisher(RedisTemplate<String, Object> redisTemplate,
                                @Qualifier("redisObjectMapper") ObjectMapper redisObjectMapper,
-                               @Value("${app.event.channel:domain-events}") String eventChannel) {
+                               @Value("${app.event.channel:domain-events}") String eventChannel,
+                               Executor publishExecutor,
+                               EventProperties.Publisher config) {
         this.redisTemplate = redisTemplate;
         this.redisObjectMapper = redisObjectMapper; // 注意：redisTemplate本身已经配置了序列化器
                                                // 此处注入ObjectMapper主要是为了获取事件类型作为channel的一部分，或自定义更复杂的逻辑
                                                // 如果只是简单发布，redisTemplate内部的序列化器已足够。
         this.eventChannel = eventChannel;
+        this.asyncQueue = new PipelinedPublishQueue(this::publishAll, publishExecutor,
+                config.getAsyncQueueCapacity(), config.getAsyncBatchSize());
     }
 
     @Override
@@ -40,13 +54,49 @@ public class RedisEventPublisher implements EventPublisher {
             log.info("Publishing event of type '{}' with ID '{}' to Redis channel '{}'",
                      event.getClass().getSimpleName(), event.getEventId(), channel);
 
-            // RedisTemplate 已经配置了序列化器 (GenericJackson2JsonRedisSerializer with redisObjectMapper)
+            // RedisTemplate 已经配置了序列化器 (EventEnvelopeRedisSerializer，二进制事件信封)
             // 所以可以直接传递 event 对象，它会被正确序列化。
             redisTemplate.convertAndSend(channel, event);
             log.debug("Successfully published event: {}", event);
         } catch (Exception e) {
             log.error("Error publishing event {} to Redis: {}", event, e.getMessage(), e);
-            // 根据需要处理异常，例如重试或记录到死信队列
+            // 抛出异常交由调用方（如发件箱中继）重试
+            throw new EventPublishException("Failed to publish event " + event.getEventId() + " to Redis", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(DomainEvent event) {
+        if (event == null) {
+            log.warn("Attempted to publish a null event.");
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncQueue.submit(event);
+    }
+
+    @Override
+    public void publishAll(Collection<? extends DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+            byte[] channel = eventChannel.getBytes(StandardCharsets.UTF_8);
+
+            // 使用管道一次性发送所有PUBLISH命令，避免每个事件一次网络往返
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (DomainEvent event : events) {
+                    if (event != null) {
+                        connection.publish(channel, valueSerializer.serialize(event));
+                    }
+                }
+                return null;
+            });
+            log.debug("Successfully published {} events to Redis channel '{}'", events.size(), eventChannel);
+        } catch (Exception e) {
+            log.error("Error publishing {} events to Redis: {}", events.size(), e.getMessage(), e);
+            throw new EventPublishException("Failed to publish " + events.size() + " events to Redis", e);
         }
     }
 }
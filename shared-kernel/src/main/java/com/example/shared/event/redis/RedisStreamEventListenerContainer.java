@@ -0,0 +1,295 @@
+package com.example.shared.event.redis;
+
+import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventDispatcher;
+import com.example.shared.event.EventListenerContainer;
+import com.example.shared.event.MessageHandler;
+import com.example.shared.event.codec.EventCodec;
+import com.example.shared.event.retry.DeadLetterStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis Streams事件监听容器
+ * 同一消费组内的多个实例分摊消费Stream中的事件，每个事件只会被组内一个实例处理：
+ * <ul>
+ *     <li>单个读取线程通过XREADGROUP按批次阻塞拉取新事件</li>
+ *     <li>批次处理完成后用一条XACK确认整批事件</li>
+ *     <li>定期通过XPENDING/XCLAIM接管其他消费者（如已宕机实例）长时间未确认的事件</li>
+ * </ul>
+ * 事件在处理完成后才确认，实例重启或宕机时未确认的事件会被重新投递，处理器需保证幂等；
+ * 无法解码的消息先写入死信存储再确认，不会反复投递
+ */
+public class RedisStreamEventListenerContainer implements EventListenerContainer, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisStreamEventListenerContainer.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventCodec eventCodec;
+    private final String streamKey;
+    private final byte[] rawStreamKey;
+    private final String group;
+    private final Consumer consumer;
+    private final EventProperties.RedisStream config;
+
+    private final EventDispatcher dispatcher;
+    private final DeadLetterStore deadLetterStore;
+
+    private volatile boolean running;
+    private volatile Thread readerThread;
+    private long lastReclaimAt;
+
+    public RedisStreamEventListenerContainer(StringRedisTemplate stringRedisTemplate,
+                                             EventCodec eventCodec,
+                                             String streamKey,
+                                             String group,
+                                             EventProperties.RedisStream config,
+                                             EventDispatcher dispatcher) {
+        this(stringRedisTemplate, eventCodec, streamKey, group, config, dispatcher, null);
+    }
+
+    /**
+     * @param deadLetterStore 无法解码的消息写入的死信存储，为空时只记录日志
+     */
+    public RedisStreamEventListenerContainer(StringRedisTemplate stringRedisTemplate,
+                                             EventCodec eventCodec,
+                                             String streamKey,
+                                             String group,
+                                             EventProperties.RedisStream config,
+                                             EventDispatcher dispatcher,
+                                             DeadLetterStore deadLetterStore) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventCodec = eventCodec;
+        this.streamKey = streamKey;
+        this.rawStreamKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        this.group = group;
+        this.consumer = Consumer.from(group, config.getConsumerName() != null
+                ? config.getConsumerName()
+                : ManagementFactory.getRuntimeMXBean().getName().replace('@', '-'));
+        this.config = config;
+        this.dispatcher = dispatcher;
+        this.deadLetterStore = deadLetterStore;
+    }
+
+    @Override
+    public void registerHandler(MessageHandler handler) {
+        dispatcher.registerHandler(handler);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::pollLoop, "redis-stream-" + consumer.getName());
+        thread.setDaemon(true);
+        readerThread = thread;
+        thread.start();
+        log.info("RedisStreamEventListenerContainer started: stream={}, group={}, consumer={}",
+                 streamKey, group, consumer.getName());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = readerThread;
+        if (thread != null) {
+            try {
+                // 等待当前批次处理完成并确认，最长等待一个阻塞读取周期
+                thread.join(config.getBlockTimeout().toMillis() + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("RedisStreamEventListenerContainer stopped.");
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        createGroupIfAbsent();
+        start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        stop();
+    }
+
+    private void createGroupIfAbsent() {
+        try {
+            // 新建消费组从最新位置开始消费，MKSTREAM保证Stream尚不存在时也能创建
+            stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(rawStreamKey, group, ReadOffset.latest(), true));
+            log.info("Created consumer group '{}' on Redis stream '{}'", group, streamKey);
+        } catch (Exception e) {
+            if (isBusyGroup(e)) {
+                log.debug("Consumer group '{}' already exists on Redis stream '{}'", group, streamKey);
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    private static boolean isBusyGroup(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("BUSYGROUP")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                reclaimIfDue();
+                List<ByteRecord> records = readNew();
+                process(records);
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                log.error("Error polling Redis stream '{}': {}", streamKey, e.getMessage(), e);
+                sleepQuietly(config.getBlockTimeout());
+            }
+        }
+    }
+
+    private List<ByteRecord> readNew() {
+        StreamReadOptions options = StreamReadOptions.empty()
+                .count(config.getBatchSize())
+                .block(config.getBlockTimeout());
+        List<ByteRecord> records = stringRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xReadGroup(consumer, options,
+                        StreamOffset.create(rawStreamKey, ReadOffset.lastConsumed())));
+        return records != null ? records : Collections.emptyList();
+    }
+
+    /**
+     * 接管空闲时间超过阈值的待确认事件
+     * 事件投递给某个消费者后一直未确认，通常意味着该消费者已经宕机
+     */
+    void reclaimIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastReclaimAt < config.getReclaimInterval().toMillis()) {
+            return;
+        }
+        lastReclaimAt = now;
+
+        PendingMessages pending = stringRedisTemplate.opsForStream()
+                .pending(streamKey, group, Range.unbounded(), config.getBatchSize());
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+
+        List<RecordId> idle = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(config.getPendingIdle()) >= 0) {
+                idle.add(message.getId());
+            }
+        }
+        if (idle.isEmpty()) {
+            return;
+        }
+
+        // XCLAIM再次校验空闲时间，多个实例同时接管时只有一个能成功
+        XClaimOptions options = XClaimOptions.minIdle(config.getPendingIdle())
+                .ids(idle.toArray(new RecordId[0]));
+        List<ByteRecord> claimed = stringRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xClaim(rawStreamKey, group, consumer.getName(), options));
+        if (claimed != null && !claimed.isEmpty()) {
+            log.info("Reclaimed {} idle pending events from Redis stream '{}'", claimed.size(), streamKey);
+            process(claimed);
+        }
+    }
+
+    /**
+     * 反序列化并分发一批事件，完成后一次性确认
+     * 无法反序列化的事件写入死信存储后同样确认，避免其反复投递阻塞消费
+     */
+    void process(List<ByteRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        List<DomainEvent> events = new ArrayList<>(records.size());
+        List<RecordId> ids = new ArrayList<>(records.size());
+        for (ByteRecord record : records) {
+            ids.add(record.getId());
+            DomainEvent event = deserialize(record);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+
+        log.debug("Processing batch of {} events from Redis stream '{}'", events.size(), streamKey);
+        // 异步处理器模式下同样等待处理完成后再确认
+        dispatcher.dispatch(events).join();
+
+        stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.streamCommands().xAck(rawStreamKey, group, ids.toArray(new RecordId[0])));
+    }
+
+    private DomainEvent deserialize(ByteRecord record) {
+        byte[] payload = null;
+        for (Map.Entry<byte[], byte[]> field : record.getValue().entrySet()) {
+            if (RedisStreamEventPublisher.FIELD_PAYLOAD.equals(new String(field.getKey(), StandardCharsets.UTF_8))) {
+                payload = field.getValue();
+                break;
+            }
+        }
+        if (payload == null) {
+            log.error("Redis stream record {} has no payload field, skipping", record.getId());
+            deadLetter(record, null, new IllegalArgumentException("Missing payload field"));
+            return null;
+        }
+        try {
+            return eventCodec.decode(payload);
+        } catch (Exception e) {
+            log.error("Error deserializing Redis stream record {}: {}", record.getId(), e.getMessage(), e);
+            deadLetter(record, payload, e);
+            return null;
+        }
+    }
+
+    private void deadLetter(ByteRecord record, byte[] payload, Exception cause) {
+        if (deadLetterStore != null) {
+            deadLetterStore.storeUndecodable(streamKey, record.getId().getValue(), payload, cause);
+        }
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.shared.event.redis;
+
+import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventPublishException;
+import com.example.shared.event.EventPublisher;
+import com.example.shared.event.codec.EventCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Redis Streams事件发布器
+ * 事件以二进制事件信封写入Stream并持久保存，消费者离线期间的事件在其恢复后继续消费，
+ * 写入时按MAXLEN近似裁剪，避免Stream无限增长。
+ * 异步发布的事件由发布线程按批通过管道写入，调用方不阻塞
+ */
+public class RedisStreamEventPublisher implements EventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisStreamEventPublisher.class);
+
+    static final String FIELD_EVENT_ID = "eventId";
+    static final String FIELD_PAYLOAD = "payload";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventCodec eventCodec;
+    private final byte[] streamKey;
+    private final long maxLen;
+    private final PipelinedPublishQueue asyncQueue;
+
+    public RedisStreamEventPublisher(StringRedisTemplate stringRedisTemplate,
+                                     EventCodec eventCodec,
+                                     String streamKey,
+                                     long maxLen,
+                                     Executor publishExecutor,
+                                     EventProperties.Publisher config) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventCodec = eventCodec;
+        this.streamKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        this.maxLen = maxLen;
+        this.asyncQueue = new PipelinedPublishQueue(this::publishAll, publishExecutor,
+                config.getAsyncQueueCapacity(), config.getAsyncBatchSize());
+    }
+
+    @Override
+    public void publish(DomainEvent event) {
+        if (event == null) {
+            log.warn("Attempted to publish a null event.");
+            return;
+        }
+        try {
+            MapRecord<byte[], byte[], byte[]> record = toRecord(event);
+            RecordId recordId = stringRedisTemplate.execute(
+                    (RedisCallback<RecordId>) connection -> connection.streamCommands().xAdd(record, addOptions()));
+
+            log.debug("Published event {} of type '{}' to Redis stream with id {}",
+                     event.getEventId(), event.getClass().getSimpleName(), recordId);
+        } catch (Exception e) {
+            log.error("Error publishing event {} to Redis stream: {}", event, e.getMessage(), e);
+            throw new EventPublishException("Failed to publish event " + event.getEventId() + " to Redis stream", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(DomainEvent event) {
+        if (event == null) {
+            log.warn("Attempted to publish a null event.");
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncQueue.submit(event);
+    }
+
+    @Override
+    public void publishAll(Collection<? extends DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            List<MapRecord<byte[], byte[], byte[]>> records = new ArrayList<>(events.size());
+            for (DomainEvent event : events) {
+                if (event != null) {
+                    records.add(toRecord(event));
+                }
+            }
+
+            // 使用管道一次性发送所有XADD命令，避免每个事件一次网络往返
+            XAddOptions options = addOptions();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (MapRecord<byte[], byte[], byte[]> record : records) {
+                    connection.streamCommands().xAdd(record, options);
+                }
+                return null;
+            });
+            log.debug("Published {} events to Redis stream", records.size());
+        } catch (Exception e) {
+            log.error("Error publishing {} events to Redis stream: {}", events.size(), e.getMessage(), e);
+            throw new EventPublishException("Failed to publish " + events.size() + " events to Redis stream", e);
+        }
+    }
+
+    private MapRecord<byte[], byte[], byte[]> toRecord(DomainEvent event) {
+        Map<byte[], byte[]> fields = new HashMap<>(4);
+        fields.put(bytes(FIELD_EVENT_ID), bytes(event.getEventId()));
+        fields.put(bytes(FIELD_PAYLOAD), eventCodec.encode(event));
+        return StreamRecords.rawBytes(fields).withStreamKey(streamKey);
+    }
+
+    private XAddOptions addOptions() {
+        // ~ 近似裁剪只在整个宏节点可删除时才裁剪，开销远小于精确裁剪
+        return XAddOptions.maxlen(maxLen).approximateTrimming(true);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.event.DomainEvent;
+
+/**
+ * 死信存储
+ * 保存重试耗尽仍处理失败的事件，便于排查后人工或脚本重放
+ */
+public interface DeadLetterStore {
+
+    /**
+     * 保存处理失败的事件
+     *
+     * @param event 领域事件
+     * @param handler 处理失败的处理器名称
+     * @param attempts 已尝试次数
+     * @param cause 最后一次失败的异常
+     */
+    void store(DomainEvent event, String handler, int attempts, Throwable cause);
+
+    /**
+     * 保存无法解码为领域事件的原始消息
+     *
+     * @param source 消息来源，如Stream键或主题名
+     * @param recordId 消息在来源中的ID
+     * @param payload 原始消息内容，消息缺少内容字段时为null
+     * @param cause 解码失败的异常
+     */
+    void storeUndecodable(String source, String recordId, byte[] payload, Throwable cause);
+}
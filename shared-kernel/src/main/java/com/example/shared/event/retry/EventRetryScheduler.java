@@ -0,0 +1,291 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.DomainEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 事件处理重试调度器
+ * 处理器失败的事件按指数退避延迟后重新投递给同一处理器，
+ * 达到最大尝试次数或等待重试的事件超过上限时转入死信存储。
+ * <p>
+ * 失败事件在onFailure返回前写入重试存储，监听容器之后才提交位点或确认消息；
+ * 本进程按退避时间定时重试，重试完成后删除记录。进程在重试前停止或崩溃时记录仍在存储中，
+ * 各实例定期恢复超过到期时间一个恢复间隔仍未完成的记录，通过认领保证同一记录只由一个实例重试
+ */
+public class EventRetryScheduler implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EventRetryScheduler.class);
+
+    private static final String METRIC_RETRIES = "event.retry.scheduled";
+    private static final String METRIC_PENDING = "event.retry.pending";
+    private static final String METRIC_DEAD_LETTERS = "event.dead-letter";
+
+    /**
+     * 单轮恢复的最大记录数
+     */
+    private static final int RECOVERY_BATCH_SIZE = 100;
+
+    /**
+     * 重新投递回调
+     */
+    @FunctionalInterface
+    public interface Redelivery {
+        /**
+         * 重新投递事件
+         *
+         * @param handler 处理器名称
+         * @param event 领域事件
+         * @param attempt 本次是第几次尝试，从2开始
+         * @return 投递处理完成时完成的Future，没有该名称的处理器时返回null
+         */
+        CompletableFuture<Void> redeliver(String handler, DomainEvent event, int attempt);
+    }
+
+    private final EventProperties.Retry config;
+    private final DeadLetterStore deadLetterStore;
+    private final RetryStore retryStore;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Redelivery redelivery;
+
+    /**
+     * @param config 重试配置
+     * @param deadLetterStore 死信存储
+     * @param meterRegistry 指标注册表，为空时不记录指标
+     */
+    public EventRetryScheduler(EventProperties.Retry config, DeadLetterStore deadLetterStore, MeterRegistry meterRegistry) {
+        this(config, deadLetterStore, new InMemoryRetryStore(), meterRegistry);
+    }
+
+    /**
+     * @param config 重试配置
+     * @param deadLetterStore 死信存储
+     * @param retryStore 重试存储
+     * @param meterRegistry 指标注册表，为空时不记录指标
+     */
+    public EventRetryScheduler(EventProperties.Retry config, DeadLetterStore deadLetterStore, RetryStore retryStore,
+                               MeterRegistry meterRegistry) {
+        this.config = config;
+        this.deadLetterStore = deadLetterStore;
+        this.retryStore = retryStore;
+        this.meterRegistry = meterRegistry;
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "event-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+
+        if (meterRegistry != null) {
+            Gauge.builder(METRIC_PENDING, pending, AtomicInteger::get)
+                    .description("Events waiting for a retry")
+                    .register(meterRegistry);
+        }
+
+        // 首轮恢复延迟一个恢复间隔，等待监听容器注册完处理器
+        long recoveryMillis = config.getRecoveryInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::recover, recoveryMillis, recoveryMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 设置重新投递回调，由事件分发器在创建时设置
+     *
+     * @param redelivery 重新投递回调
+     */
+    public void bind(Redelivery redelivery) {
+        this.redelivery = redelivery;
+    }
+
+    /**
+     * 处理一次失败
+     * 尚未达到最大尝试次数时安排重试，否则转入死信存储
+     *
+     * @param handler 处理器名称
+     * @param event 领域事件
+     * @param attempt 失败的是第几次尝试，从1开始
+     * @param cause 失败异常
+     */
+    public void onFailure(String handler, DomainEvent event, int attempt, Throwable cause) {
+        if (attempt >= config.getMaxAttempts()) {
+            deadLetter(handler, event, attempt, cause, "exhausted");
+            return;
+        }
+        if (pending.incrementAndGet() > config.getMaxPending()) {
+            pending.decrementAndGet();
+            deadLetter(handler, event, attempt, cause, "overflow");
+            return;
+        }
+
+        long delay = backoffMillis(attempt);
+        PendingRetry retry = new PendingRetry(UUID.randomUUID().toString(), handler, event, attempt + 1,
+                System.currentTimeMillis() + delay);
+        boolean persisted = persist(retry);
+        try {
+            scheduler.schedule(() -> fire(retry, persisted), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 调度器已关闭，应用正在停止；已写入存储的记录由其他实例或重启后恢复
+            pending.decrementAndGet();
+            if (!persisted) {
+                deadLetter(handler, event, attempt, cause, "shutdown");
+            }
+            return;
+        }
+
+        if (meterRegistry != null) {
+            meterRegistry.counter(METRIC_RETRIES, "handler", handler).increment();
+        }
+        log.warn("Event {} failed in handler {} (attempt {}), retrying in {} ms: {}",
+                 event.getEventId(), handler, attempt, delay, cause != null ? cause.getMessage() : null);
+    }
+
+    private boolean persist(PendingRetry retry) {
+        try {
+            retryStore.save(retry);
+            return true;
+        } catch (Exception e) {
+            // 存储不可用时仍在本进程内重试，进程停止前未完成的重试会丢失
+            log.error("Failed to persist retry of event {} for handler {}, retrying in memory only: {}",
+                      retry.getEvent().getEventId(), retry.getHandler(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 到期时重试本进程安排的记录，已写入存储的记录先认领，已被其他实例恢复时跳过
+     */
+    private void fire(PendingRetry retry, boolean persisted) {
+        if (!persisted) {
+            redeliver(retry, false);
+            return;
+        }
+        PendingRetry claimed;
+        try {
+            claimed = retryStore.claim(retry.getId(), config.getClaimTimeout());
+        } catch (Exception e) {
+            log.warn("Failed to claim retry {} of event {}, retrying without claim: {}",
+                     retry.getId(), retry.getEvent().getEventId(), e.getMessage());
+            redeliver(retry, true);
+            return;
+        }
+        if (claimed == null) {
+            pending.decrementAndGet();
+            return;
+        }
+        redeliver(retry, true);
+    }
+
+    /**
+     * 恢复超过到期时间一个恢复间隔仍未完成的记录，包括已停止的实例留下的记录
+     */
+    void recover() {
+        if (redelivery == null) {
+            return;
+        }
+        try {
+            long dueBefore = System.currentTimeMillis() - config.getRecoveryInterval().toMillis();
+            List<String> ids = retryStore.due(dueBefore, RECOVERY_BATCH_SIZE);
+            for (String id : ids) {
+                PendingRetry retry = retryStore.claim(id, config.getClaimTimeout());
+                if (retry != null) {
+                    pending.incrementAndGet();
+                    log.info("Recovered retry of event {} for handler {} (attempt {})",
+                             retry.getEvent().getEventId(), retry.getHandler(), retry.getAttempt());
+                    redeliver(retry, true);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to recover pending event retries: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 重新投递并在处理完成后删除记录；再次失败时新的重试记录已在处理过程中写入
+     * 投递异常完成时保留记录，认领租期结束后重新恢复
+     */
+    private void redeliver(PendingRetry retry, boolean persisted) {
+        CompletableFuture<Void> done;
+        try {
+            done = redelivery.redeliver(retry.getHandler(), retry.getEvent(), retry.getAttempt());
+        } catch (Exception e) {
+            done = new CompletableFuture<>();
+            done.completeExceptionally(e);
+        }
+        if (done == null) {
+            // 处理器已不存在，例如恢复了已下线处理器的记录
+            pending.decrementAndGet();
+            deadLetter(retry.getHandler(), retry.getEvent(), retry.getAttempt() - 1,
+                    new IllegalStateException("No handler named " + retry.getHandler()), "orphaned");
+            remove(retry, persisted);
+            return;
+        }
+        done.whenComplete((result, e) -> {
+            pending.decrementAndGet();
+            if (e != null) {
+                log.warn("Redelivery of event {} to handler {} did not complete, keeping retry {}: {}",
+                         retry.getEvent().getEventId(), retry.getHandler(), retry.getId(), e.getMessage());
+                return;
+            }
+            remove(retry, persisted);
+        });
+    }
+
+    private void remove(PendingRetry retry, boolean persisted) {
+        if (!persisted) {
+            return;
+        }
+        try {
+            retryStore.remove(retry.getId());
+        } catch (Exception e) {
+            // 记录残留时会被再次恢复，事件重复投递一次
+            log.warn("Failed to remove completed retry {}: {}", retry.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 计算第attempt次失败后的退避时间
+     */
+    long backoffMillis(int attempt) {
+        double delay = config.getInitialBackoff().toMillis() * Math.pow(config.getMultiplier(), attempt - 1);
+        return (long) Math.min(delay, config.getMaxBackoff().toMillis());
+    }
+
+    /**
+     * 等待重试的事件数
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    private void deadLetter(String handler, DomainEvent event, int attempts, Throwable cause, String reason) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(METRIC_DEAD_LETTERS, "handler", handler, "reason", reason).increment();
+        }
+        deadLetterStore.store(event, handler, attempts, cause);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        if (pending.get() > 0) {
+            log.warn("EventRetryScheduler stopped with {} events still waiting for retry, "
+                     + "they will be recovered from the retry store", pending.get());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.shared.event.retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 进程内重试存储
+ * 重试记录只保存在内存中，进程重启时丢失，用于进程内事件总线和没有Redis的服务
+ */
+public class InMemoryRetryStore implements RetryStore {
+
+    private final Map<String, PendingRetry> retries = new ConcurrentHashMap<>();
+
+    /**
+     * 重试记录ID -> 认领到期时间（System.nanoTime）
+     */
+    private final Map<String, Long> claims = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(PendingRetry retry) {
+        retries.put(retry.getId(), retry);
+    }
+
+    @Override
+    public List<String> due(long dueBefore, int limit) {
+        return retries.values().stream()
+                .filter(retry -> retry.getDueAt() <= dueBefore)
+                .sorted((a, b) -> Long.compare(a.getDueAt(), b.getDueAt()))
+                .limit(limit)
+                .map(PendingRetry::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public PendingRetry claim(String id, Duration lease) {
+        long now = System.nanoTime();
+        long expiresAt = now + lease.toNanos();
+        boolean[] claimed = new boolean[1];
+        claims.compute(id, (key, current) -> {
+            if (current != null && current - now > 0) {
+                return current;
+            }
+            claimed[0] = true;
+            return expiresAt;
+        });
+        if (!claimed[0]) {
+            return null;
+        }
+        PendingRetry retry = retries.get(id);
+        if (retry == null) {
+            claims.remove(id);
+        }
+        return retry;
+    }
+
+    @Override
+    public void remove(String id) {
+        retries.remove(id);
+        claims.remove(id);
+    }
+}
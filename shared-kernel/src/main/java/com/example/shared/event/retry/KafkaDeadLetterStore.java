@@ -0,0 +1,74 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.event.DomainEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基于Kafka死信主题（DLT）的死信存储
+ * 事件原样写入死信主题，失败信息放在消息头中；
+ * 写入失败（包括broker未确认）时退回到日志死信存储，保证死信至少留下日志记录
+ */
+public class KafkaDeadLetterStore implements DeadLetterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaDeadLetterStore.class);
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String deadLetterTopic;
+    private final DeadLetterStore fallback;
+
+    public KafkaDeadLetterStore(KafkaTemplate<String, Object> kafkaTemplate, String deadLetterTopic) {
+        this(kafkaTemplate, deadLetterTopic, new LoggingDeadLetterStore());
+    }
+
+    KafkaDeadLetterStore(KafkaTemplate<String, Object> kafkaTemplate, String deadLetterTopic,
+                         DeadLetterStore fallback) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.deadLetterTopic = deadLetterTopic;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void store(DomainEvent event, String handler, int attempts, Throwable cause) {
+        try {
+            ProducerRecord<String, Object> record = new ProducerRecord<>(deadLetterTopic, event.partitionKey(), event);
+            record.headers().add("dlt-handler", bytes(handler));
+            record.headers().add("dlt-attempts", bytes(String.valueOf(attempts)));
+            record.headers().add("dlt-error", bytes(String.valueOf(cause)));
+            kafkaTemplate.send(record).completable().whenComplete((result, e) -> {
+                if (e == null) {
+                    log.warn("Event {} sent to dead letter topic {} after {} attempts in handler {}",
+                             event.getEventId(), deadLetterTopic, attempts, handler);
+                } else {
+                    storeFallback(event, handler, attempts, cause, e);
+                }
+            });
+        } catch (Exception e) {
+            storeFallback(event, handler, attempts, cause, e);
+        }
+    }
+
+    /**
+     * Kafka消息在反序列化阶段失败，由监听容器的错误处理器处理，这里只记录日志
+     */
+    @Override
+    public void storeUndecodable(String source, String recordId, byte[] payload, Throwable cause) {
+        log.error("Undecodable record {} from {} ({} bytes): {}",
+                  recordId, source, payload != null ? payload.length : 0,
+                  cause != null ? cause.getMessage() : null, cause);
+    }
+
+    private void storeFallback(DomainEvent event, String handler, int attempts, Throwable cause, Throwable sendError) {
+        log.error("Failed to send dead letter for event {} from handler {} to topic {}: {}",
+                  event.getEventId(), handler, deadLetterTopic, sendError.getMessage(), sendError);
+        fallback.store(event, handler, attempts, cause);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
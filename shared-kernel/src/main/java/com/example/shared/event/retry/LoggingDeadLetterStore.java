@@ -0,0 +1,27 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.event.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 仅记录日志的死信存储
+ * 用于没有外部存储的进程内事件总线
+ */
+public class LoggingDeadLetterStore implements DeadLetterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingDeadLetterStore.class);
+
+    @Override
+    public void store(DomainEvent event, String handler, int attempts, Throwable cause) {
+        log.error("Dead letter: event {} failed in handler {} after {} attempts: {}",
+                  event, handler, attempts, cause != null ? cause.getMessage() : null, cause);
+    }
+
+    @Override
+    public void storeUndecodable(String source, String recordId, byte[] payload, Throwable cause) {
+        log.error("Dead letter: undecodable record {} from {} ({} bytes): {}",
+                  recordId, source, payload != null ? payload.length : 0,
+                  cause != null ? cause.getMessage() : null, cause);
+    }
+}
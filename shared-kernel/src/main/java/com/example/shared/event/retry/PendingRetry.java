@@ -0,0 +1,50 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.event.DomainEvent;
+
+/**
+ * 等待重试的失败事件
+ */
+public final class PendingRetry {
+
+    private final String id;
+    private final String handler;
+    private final DomainEvent event;
+    private final int attempt;
+    private final long dueAt;
+
+    /**
+     * @param id 重试记录ID
+     * @param handler 处理失败的处理器名称
+     * @param event 领域事件
+     * @param attempt 下次重试是第几次尝试，从2开始
+     * @param dueAt 下次重试时间，毫秒时间戳
+     */
+    public PendingRetry(String id, String handler, DomainEvent event, int attempt, long dueAt) {
+        this.id = id;
+        this.handler = handler;
+        this.event = event;
+        this.attempt = attempt;
+        this.dueAt = dueAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public DomainEvent getEvent() {
+        return event;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public long getDueAt() {
+        return dueAt;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.codec.EventCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于Redis的重试存储
+ * 每条重试记录保存在独立的哈希中，有序集合按到期时间索引记录ID；
+ * 认领通过SET NX加租期锁实现，多个实例恢复同一批记录时只有一个实例重试
+ */
+public class RedisRetryStore implements RetryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRetryStore.class);
+
+    private static final String FIELD_HANDLER = "handler";
+    private static final String FIELD_ATTEMPT = "attempt";
+    private static final String FIELD_DUE_AT = "dueAt";
+    private static final String FIELD_PAYLOAD = "payload";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventCodec eventCodec;
+    private final String indexKey;
+
+    /**
+     * @param stringRedisTemplate Redis模板
+     * @param eventCodec 事件编解码器
+     * @param keyPrefix 键前缀，到期索引使用该键，每条记录使用{keyPrefix}:{id}
+     */
+    public RedisRetryStore(StringRedisTemplate stringRedisTemplate, EventCodec eventCodec, String keyPrefix) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventCodec = eventCodec;
+        this.indexKey = keyPrefix;
+    }
+
+    @Override
+    public void save(PendingRetry retry) {
+        Map<String, String> fields = new HashMap<>(8);
+        fields.put(FIELD_HANDLER, retry.getHandler());
+        fields.put(FIELD_ATTEMPT, String.valueOf(retry.getAttempt()));
+        fields.put(FIELD_DUE_AT, String.valueOf(retry.getDueAt()));
+        fields.put(FIELD_PAYLOAD, Base64.getEncoder().encodeToString(eventCodec.encode(retry.getEvent())));
+        // 先写记录再写索引，索引中的ID总能找到对应记录
+        stringRedisTemplate.opsForHash().putAll(entryKey(retry.getId()), fields);
+        stringRedisTemplate.opsForZSet().add(indexKey, retry.getId(), retry.getDueAt());
+    }
+
+    @Override
+    public List<String> due(long dueBefore, int limit) {
+        Set<String> ids = stringRedisTemplate.opsForZSet()
+                .rangeByScore(indexKey, Double.NEGATIVE_INFINITY, dueBefore, 0, limit);
+        return ids != null ? new ArrayList<>(ids) : new ArrayList<>();
+    }
+
+    @Override
+    public PendingRetry claim(String id, Duration lease) {
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(lockKey(id), "1", lease))) {
+            return null;
+        }
+        Map<Object, Object> fields = stringRedisTemplate.opsForHash().entries(entryKey(id));
+        if (fields == null || fields.isEmpty()) {
+            // 记录已被删除，清理残留的索引
+            remove(id);
+            return null;
+        }
+        try {
+            DomainEvent event = eventCodec.decode(Base64.getDecoder().decode((String) fields.get(FIELD_PAYLOAD)));
+            return new PendingRetry(id, (String) fields.get(FIELD_HANDLER), event,
+                    Integer.parseInt((String) fields.get(FIELD_ATTEMPT)),
+                    Long.parseLong((String) fields.get(FIELD_DUE_AT)));
+        } catch (Exception e) {
+            // 无法解析的记录重试也不会成功，删除后跳过，避免每轮恢复都遇到
+            log.error("Dropping unreadable retry record {}: {}", id, e.getMessage(), e);
+            remove(id);
+            return null;
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        stringRedisTemplate.delete(entryKey(id));
+        stringRedisTemplate.opsForZSet().remove(indexKey, id);
+        stringRedisTemplate.delete(lockKey(id));
+    }
+
+    private String entryKey(String id) {
+        return indexKey + ":" + id;
+    }
+
+    private String lockKey(String id) {
+        return indexKey + ":" + id + ":lock";
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.codec.EventCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于Redis Stream的死信存储
+ * 每条死信包含编码后的事件和失败信息，Stream按MAXLEN近似裁剪
+ */
+public class RedisStreamDeadLetterStore implements DeadLetterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisStreamDeadLetterStore.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EventCodec eventCodec;
+    private final byte[] streamKey;
+    private final long maxLen;
+
+    public RedisStreamDeadLetterStore(StringRedisTemplate stringRedisTemplate,
+                                      EventCodec eventCodec,
+                                      String streamKey,
+                                      long maxLen) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventCodec = eventCodec;
+        this.streamKey = bytes(streamKey);
+        this.maxLen = maxLen;
+    }
+
+    @Override
+    public void store(DomainEvent event, String handler, int attempts, Throwable cause) {
+        try {
+            Map<byte[], byte[]> fields = new HashMap<>(8);
+            fields.put(bytes("eventId"), bytes(event.getEventId()));
+            fields.put(bytes("handler"), bytes(handler));
+            fields.put(bytes("attempts"), bytes(String.valueOf(attempts)));
+            fields.put(bytes("error"), bytes(String.valueOf(cause)));
+            fields.put(bytes("failedAt"), bytes(Instant.now().toString()));
+            fields.put(bytes("payload"), eventCodec.encode(event));
+
+            XAddOptions options = XAddOptions.maxlen(maxLen).approximateTrimming(true);
+            stringRedisTemplate.execute((RedisCallback<Object>) connection ->
+                    connection.streamCommands().xAdd(StreamRecords.rawBytes(fields).withStreamKey(streamKey), options));
+            log.warn("Event {} moved to dead letter stream after {} attempts in handler {}",
+                     event.getEventId(), attempts, handler);
+        } catch (Exception e) {
+            log.error("Failed to store dead letter for event {} from handler {}: {}",
+                      event, handler, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 原始消息不含eventId和处理器信息，以handler=decode标记解码失败，payload保留原始字节
+     */
+    @Override
+    public void storeUndecodable(String source, String recordId, byte[] payload, Throwable cause) {
+        try {
+            Map<byte[], byte[]> fields = new HashMap<>(8);
+            fields.put(bytes("source"), bytes(source));
+            fields.put(bytes("recordId"), bytes(recordId));
+            fields.put(bytes("handler"), bytes("decode"));
+            fields.put(bytes("error"), bytes(String.valueOf(cause)));
+            fields.put(bytes("failedAt"), bytes(Instant.now().toString()));
+            fields.put(bytes("payload"), payload != null ? payload : new byte[0]);
+
+            XAddOptions options = XAddOptions.maxlen(maxLen).approximateTrimming(true);
+            stringRedisTemplate.execute((RedisCallback<Object>) connection ->
+                    connection.streamCommands().xAdd(StreamRecords.rawBytes(fields).withStreamKey(streamKey), options));
+            log.warn("Undecodable record {} from {} moved to dead letter stream", recordId, source);
+        } catch (Exception e) {
+            log.error("Failed to store undecodable record {} from {}: {}", recordId, source, e.getMessage(), e);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.shared.event.retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 重试存储
+ * 保存等待重试的失败事件。监听容器确认消息前失败事件已写入存储，
+ * 进程在重试前停止或崩溃时，由存活或重启后的实例从存储中恢复并继续重试
+ */
+public interface RetryStore {
+
+    /**
+     * 保存等待重试的事件
+     *
+     * @param retry 重试记录
+     */
+    void save(PendingRetry retry);
+
+    /**
+     * 查询到期的重试记录
+     *
+     * @param dueBefore 到期时间上限，毫秒时间戳
+     * @param limit 最大返回数
+     * @return 重试记录ID，按到期时间排列
+     */
+    List<String> due(long dueBefore, int limit);
+
+    /**
+     * 认领一条重试记录，认领期间其他实例无法认领
+     * 认领方在租期内未删除记录时，租期结束后记录可被重新认领
+     *
+     * @param id 重试记录ID
+     * @param lease 认领租期
+     * @return 重试记录，已被其他实例认领或已删除时返回null
+     */
+    PendingRetry claim(String id, Duration lease);
+
+    /**
+     * 删除重试完成的记录
+     *
+     * @param id 重试记录ID
+     */
+    void remove(String id);
+}
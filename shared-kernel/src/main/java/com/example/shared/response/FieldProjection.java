@@ -0,0 +1,102 @@
+package com.example.shared.response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 响应字段投影
+ * 根据fields参数裁剪JSON树，只保留客户端需要的字段，减少大对象的序列化和传输量。
+ * 字段路径以逗号分隔，嵌套字段使用点号，例如{@code id,name,nutrition.calories}；
+ * 数组对其元素透明，{@code records.id}保留分页结果中每条记录的id。
+ * 选中某个字段时保留其整个子树，同时指定{@code a}和{@code a.b}时以{@code a}为准
+ */
+public final class FieldProjection {
+
+    /**
+     * 单次请求最多接受的字段路径数，避免超长参数放大裁剪开销
+     */
+    public static final int MAX_PATHS = 64;
+
+    private final Map<String, FieldProjection> children = new LinkedHashMap<>();
+
+    private FieldProjection() {
+    }
+
+    /**
+     * 解析fields参数
+     * @param fields 逗号分隔的字段路径
+     * @return 参数为空、没有有效路径或路径数超过上限时返回null，表示不做投影
+     */
+    public static FieldProjection parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return null;
+        }
+        String[] paths = fields.split(",");
+        if (paths.length > MAX_PATHS) {
+            return null;
+        }
+
+        FieldProjection root = new FieldProjection();
+        for (String path : paths) {
+            root.add(path.trim());
+        }
+        return root.children.isEmpty() ? null : root;
+    }
+
+    private void add(String path) {
+        String[] names = path.split("\\.", -1);
+        for (String name : names) {
+            if (name.isEmpty()) {
+                // 忽略空路径和a..b这类格式错误的路径
+                return;
+            }
+        }
+        FieldProjection node = this;
+        for (String name : names) {
+            FieldProjection child = node.children.get(name);
+            if (child == null) {
+                child = new FieldProjection();
+                node.children.put(name, child);
+            } else if (child.children.isEmpty()) {
+                // 已选中整个字段，更深的路径不再生效
+                return;
+            }
+            node = child;
+        }
+        node.children.clear();
+    }
+
+    /**
+     * 按投影原地裁剪JSON树
+     * @param node 待裁剪的节点，对象和数组以外的节点保持不变
+     */
+    public void apply(JsonNode node) {
+        if (node == null || children.isEmpty()) {
+            return;
+        }
+        if (node.isArray()) {
+            for (JsonNode element : node) {
+                apply(element);
+            }
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> fields = ((ObjectNode) node).fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            FieldProjection child = children.get(field.getKey());
+            if (child == null) {
+                fields.remove();
+            } else {
+                child.apply(field.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.shared.response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 响应字段投影增强
+ * 请求带有fields参数时，在序列化前按{@link FieldProjection}裁剪JSON响应体，
+ * 对统一响应{@link ApiResponse}只裁剪data部分，code和message始终保留。
+ * 未携带参数的请求不做任何处理，响应格式与之前一致
+ */
+@ControllerAdvice
+public class FieldProjectionAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String FIELDS_PARAMETER = "fields";
+
+    private final ObjectMapper objectMapper;
+
+    public FieldProjectionAdvice(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+        FieldProjection projection = FieldProjection.parse(
+                ((ServletServerHttpRequest) request).getServletRequest().getParameter(FIELDS_PARAMETER));
+        if (projection == null) {
+            return body;
+        }
+
+        if (body instanceof ApiResponse) {
+            ApiResponse<?> apiResponse = (ApiResponse<?>) body;
+            if (apiResponse.getData() == null) {
+                return body;
+            }
+            JsonNode data = objectMapper.valueToTree(apiResponse.getData());
+            projection.apply(data);
+            return new ApiResponse<>(apiResponse.getCode(), apiResponse.getMessage(), data);
+        }
+
+        JsonNode tree = objectMapper.valueToTree(body);
+        projection.apply(tree);
+        return tree;
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.shared.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
 import java.util.Map;
@@ -18,16 +26,56 @@ import java.util.concurrent.TimeUnit;
 
 public class JwtUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
     private final Key key;
+    private final JwtParser parser;
     private final RedisTemplate<String, Object> redisTemplate;
     private final long expiration;
     private static final String JWT_BLACKLIST_PREFIX = "jwt:blacklist:jti:";
 
+    /**
+     * 注销通知频道，注销token后发布其JWT ID，供网关同步本地注销过滤器
+     */
+    public static final String JWT_REVOCATION_CHANNEL = "jwt:revocations";
+
+    /**
+     * 已验证token缓存的最大条目数
+     */
+    private static final int VERIFIED_CACHE_SIZE = 10000;
+
+    /**
+     * 已验证token的声明缓存，条目在token过期时失效
+     * 同一token的后续请求无需重复进行HMAC验签和声明解析
+     */
+    private final Cache<String, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_CACHE_SIZE)
+            .expireAfter(new Expiry<String, Claims>() {
+                @Override
+                public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                    long ttlMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(ttlMillis, 0));
+                }
+
+                @Override
+                public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
     @Autowired
     public JwtUtil(@Value("${jwt.secret}") String secret,
                    @Value("${jwt.expiration:86400000}") long expiration,
                    RedisTemplate<String, Object> redisTemplate) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        // JwtParser不可变且线程安全，构建一次后复用
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
         this.expiration = expiration;
         this.redisTemplate = redisTemplate;
     }
@@ -53,27 +101,47 @@ public class JwtUtil {
 
     public boolean validateToken(String token) {
         try {
-            Claims claims = parseToken(token);
-
-            // 获取JWT ID并检查是否在黑名单中
-            String jti = claims.getId();
-            if (jti != null && redisTemplate.opsForValue().get(JWT_BLACKLIST_PREFIX + jti) != null) {
+            Claims claims = verify(token);
+            if (claims == null) {
                 return false;
             }
 
-            // 检查是否过期
-            return !claims.getExpiration().before(new Date());
+            // 获取JWT ID并检查是否在黑名单中
+            String jti = claims.getId();
+            return jti == null || redisTemplate.opsForValue().get(blacklistKey(jti)) == null;
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * 验证token的签名和有效期，一次解析同时得到有效性和声明
+     * 验证通过的token在过期前缓存其声明，不检查黑名单
+     * @param token JWT token
+     * @return token有效时返回声明，签名错误、格式错误或已过期时返回null
+     */
+    public Claims verify(String token) {
+        Claims claims = verifiedTokens.getIfPresent(token);
+        if (claims != null) {
+            // 缓存按过期时间淘汰，但淘汰不是即时的
+            return claims.getExpiration().after(new Date()) ? claims : null;
+        }
+
+        try {
+            claims = parseToken(token);
+        } catch (Exception e) {
+            return null;
+        }
+        // 没有过期时间的token不缓存
+        if (claims.getExpiration() == null) {
+            return claims;
+        }
+        verifiedTokens.put(token, claims);
+        return claims;
+    }
+
     public Claims parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public void blacklistToken(String token) {
@@ -87,11 +155,27 @@ public class JwtUtil {
         // 只有当token还未过期且有JTI时，才将其加入黑名单
         if (ttl > 0 && jti != null) {
             redisTemplate.opsForValue().set(
-                    JWT_BLACKLIST_PREFIX + jti,
+                    blacklistKey(jti),
                     "blacklisted",
                     ttl,
                     TimeUnit.MILLISECONDS
             );
+            // 以原始字节发布JWT ID，订阅方无需依赖值序列化方式
+            byte[] channel = JWT_REVOCATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+            byte[] message = jti.getBytes(StandardCharsets.UTF_8);
+            try {
+                redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+            } catch (Exception e) {
+                // 黑名单已写入，注销已经生效；网关未收到通知时由回源Redis或定期全量重建兜底
+                log.warn("Failed to publish revocation of JWT {}: {}", jti, e.getMessage(), e);
+            }
         }
     }
+
+    /**
+     * 获取JWT ID对应的黑名单键，供非阻塞的黑名单检查使用
+     */
+    public static String blacklistKey(String jti) {
+        return JWT_BLACKLIST_PREFIX + jti;
+    }
 }
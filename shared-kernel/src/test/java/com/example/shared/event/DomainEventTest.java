@@ -0,0 +1,82 @@
+package com.example.shared.event;
+
+import com.example.shared.event.kafka.KafkaEventPublisher;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 领域事件分区键测试
+ * 按Kafka默认分区器的murmur2哈希计算分区，验证同一用户的事件落在同一分区、不同用户的事件分散到各分区
+ */
+public class DomainEventTest {
+
+    private static final int PARTITIONS = 6;
+
+    @Test
+    public void testSameUserEventsShareOnePartition() {
+        UserRecordEvent first = new UserRecordEvent("42");
+        UserRecordEvent second = new UserRecordEvent("42");
+
+        assertEquals("42", first.partitionKey());
+        assertEquals(partition(first.partitionKey()), partition(second.partitionKey()));
+    }
+
+    @Test
+    public void testDifferentUsersSpreadAcrossPartitions() {
+        Set<Integer> partitions = new HashSet<>();
+        for (int userId = 1; userId <= 100; userId++) {
+            partitions.add(partition(new UserRecordEvent(String.valueOf(userId)).partitionKey()));
+        }
+
+        assertEquals(PARTITIONS, partitions.size());
+    }
+
+    @Test
+    public void testMissingAggregateIdFallsBackToEventType() {
+        assertEquals("UserRecordEvent", new UserRecordEvent(null).partitionKey());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testKafkaPublisherUsesPartitionKeyAsRecordKey() {
+        KafkaTemplate<String, DomainEvent> kafkaTemplate = mock(KafkaTemplate.class);
+        UserRecordEvent event = new UserRecordEvent("42");
+        SettableListenableFuture<SendResult<String, DomainEvent>> sendFuture = new SettableListenableFuture<>();
+        sendFuture.set(new SendResult<>(new ProducerRecord<>("domain-events", "42", event),
+                new RecordMetadata(new TopicPartition("domain-events", 0), 0L, 0, 0L, 0, 0)));
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(sendFuture);
+        KafkaEventPublisher publisher = new KafkaEventPublisher(kafkaTemplate, Duration.ofSeconds(1));
+
+        publisher.publish(event);
+
+        verify(kafkaTemplate).send(any(), eq("42"), eq(event));
+    }
+
+    private static int partition(String key) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % PARTITIONS;
+    }
+
+    public static class UserRecordEvent extends DomainEvent {
+        public UserRecordEvent(String userId) {
+            super(userId);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.shared.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事件分发器测试
+ */
+public class EventDispatcherTest {
+
+    @Test
+    public void testRouteOnlyToMatchingHandlers() {
+        EventDispatcher dispatcher = new EventDispatcher();
+        RecordingHandler<OrderEvent> orderHandler = new RecordingHandler<>(OrderEvent.class);
+        RecordingHandler<UserEvent> userHandler = new RecordingHandler<>(UserEvent.class);
+        List<DomainEvent> generic = new ArrayList<>();
+        dispatcher.registerHandler(orderHandler);
+        dispatcher.registerHandler(userHandler);
+        dispatcher.registerHandler(generic::add);
+
+        dispatcher.dispatch(Arrays.asList(new OrderEvent(), new UserEvent(), new OrderEvent()));
+
+        assertEquals(2, orderHandler.events.size());
+        assertEquals(1, userHandler.events.size());
+        assertEquals(3, generic.size());
+    }
+
+    @Test
+    public void testSupportsResolvedOncePerEventType() {
+        EventDispatcher dispatcher = new EventDispatcher();
+        RecordingHandler<OrderEvent> handler = new RecordingHandler<>(OrderEvent.class);
+        dispatcher.registerHandler(handler);
+
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(Arrays.asList(new OrderEvent(), new UserEvent()));
+        }
+
+        assertEquals(10, handler.events.size());
+        assertEquals(2, handler.supportsCalls.get());
+    }
+
+    @Test
+    public void testRegistrationRebuildsDispatchTable() {
+        EventDispatcher dispatcher = new EventDispatcher();
+        dispatcher.dispatch(new OrderEvent());
+
+        RecordingHandler<OrderEvent> handler = new RecordingHandler<>(OrderEvent.class);
+        dispatcher.registerHandler(handler);
+        dispatcher.dispatch(new OrderEvent());
+
+        assertEquals(1, handler.events.size());
+    }
+
+    @Test
+    public void testHandlerFailureDoesNotAffectOthers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EventDispatcher dispatcher = new EventDispatcher(null, registry);
+        RecordingHandler<OrderEvent> handler = new RecordingHandler<>(OrderEvent.class);
+        dispatcher.registerHandler(new FailingHandler());
+        dispatcher.registerHandler(handler);
+
+        dispatcher.dispatch(Arrays.asList(new OrderEvent(), new OrderEvent()));
+
+        assertEquals(2, handler.events.size());
+        assertEquals(2.0, registry.get("event.handler.events")
+                .tag("handler", "FailingHandler").tag("outcome", "failure").counter().count());
+        assertEquals(2.0, registry.get("event.handler.events")
+                .tag("handler", "RecordingHandler").tag("outcome", "success").counter().count());
+        assertEquals(1, registry.get("event.handler.duration").tag("handler", "RecordingHandler").timer().count());
+    }
+
+    @Test
+    public void testAsyncHandlersKeepPerHandlerOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            EventDispatcher dispatcher = new EventDispatcher(executor, null);
+            CountDownLatch latch = new CountDownLatch(200);
+            List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+            dispatcher.registerHandler(event -> {
+                received.add(((OrderEvent) event).sequence);
+                latch.countDown();
+            });
+
+            for (int i = 0; i < 200; i++) {
+                dispatcher.dispatch(new OrderEvent(i));
+            }
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 200; i++) {
+                assertEquals(i, received.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncDispatchCompletesAfterHandlersFinish() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            EventDispatcher dispatcher = new EventDispatcher(executor, null);
+            CountDownLatch release = new CountDownLatch(1);
+            List<DomainEvent> handled = Collections.synchronizedList(new ArrayList<>());
+            dispatcher.registerHandler(event -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                handled.add(event);
+            });
+            dispatcher.registerHandler(handled::add);
+
+            CompletableFuture<Void> done = dispatcher.dispatch(Arrays.asList(new OrderEvent(), new OrderEvent()));
+
+            // 慢处理器未完成前整批不算完成，监听容器不能确认
+            Thread.sleep(100);
+            assertFalse(done.isDone());
+            release.countDown();
+            done.get(5, TimeUnit.SECONDS);
+            assertEquals(4, handled.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSaturatedExecutorRunsLaneInCallerWithoutRecursion() {
+        // 始终拒绝的执行器，等价于线程池饱和时的调用方执行策略
+        Executor callerRuns = Runnable::run;
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException("saturated");
+        };
+        for (Executor executor : Arrays.asList(callerRuns, rejecting)) {
+            EventDispatcher dispatcher = new EventDispatcher(executor, null);
+            List<Integer> received = new ArrayList<>();
+            dispatcher.registerHandler(event -> received.add(((OrderEvent) event).sequence));
+
+            List<DomainEvent> events = new ArrayList<>();
+            for (int i = 0; i < 20000; i++) {
+                events.add(new OrderEvent(i));
+            }
+            for (DomainEvent event : events) {
+                assertTrue(dispatcher.dispatch(event).isDone());
+            }
+
+            assertEquals(20000, received.size());
+            assertEquals(19999, received.get(19999));
+        }
+    }
+
+    private static class OrderEvent extends DomainEvent {
+        private final int sequence;
+
+        OrderEvent() {
+            this(0);
+        }
+
+        OrderEvent(int sequence) {
+            super("order");
+            this.sequence = sequence;
+        }
+    }
+
+    private static class UserEvent extends DomainEvent {
+        UserEvent() {
+            super("user");
+        }
+    }
+
+    private static class RecordingHandler<E extends DomainEvent> implements DomainEventHandler<E> {
+        private final Class<E> eventType;
+        private final List<E> events = new ArrayList<>();
+        private final AtomicInteger supportsCalls = new AtomicInteger();
+
+        RecordingHandler(Class<E> eventType) {
+            this.eventType = eventType;
+        }
+
+        @Override
+        public boolean supports(Class<? extends DomainEvent> type) {
+            supportsCalls.incrementAndGet();
+            return eventType.isAssignableFrom(type);
+        }
+
+        @Override
+        public void handle(E event) {
+            events.add(event);
+        }
+    }
+
+    private static class FailingHandler implements DomainEventHandler<OrderEvent> {
+        @Override
+        public boolean supports(Class<? extends DomainEvent> eventType) {
+            return OrderEvent.class.isAssignableFrom(eventType);
+        }
+
+        @Override
+        public void handle(OrderEvent event) {
+            throw new IllegalStateException("boom");
+        }
+    }
+}
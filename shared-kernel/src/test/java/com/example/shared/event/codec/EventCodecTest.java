@@ -0,0 +1,161 @@
+package com.example.shared.event.codec;
+
+import com.example.shared.event.DomainEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事件编解码器测试
+ */
+public class EventCodecTest {
+
+    private ObjectMapper legacyMapper;
+    private EventCodec codec;
+
+    @BeforeEach
+    public void setUp() {
+        legacyMapper = new ObjectMapper();
+        legacyMapper.registerModule(new JavaTimeModule());
+        legacyMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        legacyMapper.activateDefaultTyping(legacyMapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL);
+
+        EventTypeRegistry registry = new EventTypeRegistry(Collections.singletonList("com.example.shared.event"));
+        registry.register(MealLoggedEvent.class);
+        codec = new EventCodec(registry, EventCodec.legacyMapper(Collections.singletonList("com.example.shared.event")));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        MealLoggedEvent event = new MealLoggedEvent(42L, LocalDate.of(2025, 4, 21));
+
+        DomainEvent decoded = codec.decode(codec.encode(event));
+
+        assertTrue(decoded instanceof MealLoggedEvent);
+        MealLoggedEvent meal = (MealLoggedEvent) decoded;
+        assertEquals(event.getEventId(), meal.getEventId());
+        assertEquals(event.getTimestamp(), meal.getTimestamp());
+        assertEquals("42", meal.getAggregateId());
+        assertEquals(42L, meal.getUserId());
+        assertEquals(LocalDate.of(2025, 4, 21), meal.getDate());
+    }
+
+    @Test
+    public void testEnvelopeSmallerThanTypedJson() throws Exception {
+        MealLoggedEvent event = new MealLoggedEvent(42L, LocalDate.of(2025, 4, 21));
+
+        byte[] envelope = codec.encode(event);
+        byte[] legacy = legacyMapper.writeValueAsBytes(event);
+
+        assertTrue(envelope.length < legacy.length);
+        assertFalse(new String(envelope, "UTF-8").contains(MealLoggedEvent.class.getName()));
+    }
+
+    @Test
+    public void testDecodeLegacyJson() throws Exception {
+        MealLoggedEvent event = new MealLoggedEvent(7L, LocalDate.of(2025, 5, 1));
+
+        DomainEvent decoded = codec.decode(legacyMapper.writeValueAsBytes(event));
+
+        assertTrue(decoded instanceof MealLoggedEvent);
+        assertEquals(event.getEventId(), decoded.getEventId());
+    }
+
+    @Test
+    public void testRejectLegacyJsonWhenDisabled() throws Exception {
+        EventTypeRegistry registry = new EventTypeRegistry(Collections.singletonList("com.example.shared.event"));
+        EventCodec envelopeOnly = new EventCodec(registry, null);
+        byte[] data = legacyMapper.writeValueAsBytes(new MealLoggedEvent(7L, LocalDate.of(2025, 5, 1)));
+
+        assertThrows(IllegalArgumentException.class, () -> envelopeOnly.decode(data));
+    }
+
+    @Test
+    public void testRejectLegacyJsonOfUntrustedClass() {
+        byte[] data = "[\"java.net.URL\",\"http://example.com\"]".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(data));
+    }
+
+    @Test
+    public void testTrustedMapperRoundTripsOutboxPayload() throws Exception {
+        // 发件箱按DomainEvent读取带类型信息的JSON，类型校验与旧格式一致
+        ObjectMapper outboxMapper = EventCodec.legacyMapper(Collections.singletonList("com.example.shared.event"));
+        MealLoggedEvent event = new MealLoggedEvent(7L, LocalDate.of(2025, 5, 1));
+
+        DomainEvent decoded = outboxMapper.readValue(outboxMapper.writeValueAsString(event), DomainEvent.class);
+
+        assertTrue(decoded instanceof MealLoggedEvent);
+        assertEquals(event.getEventId(), decoded.getEventId());
+        assertEquals(LocalDate.of(2025, 5, 1), ((MealLoggedEvent) decoded).getDate());
+    }
+
+    @Test
+    public void testTrustedMapperRejectsOutboxPayloadOfUntrustedClass() throws Exception {
+        ObjectMapper outboxMapper = EventCodec.legacyMapper(Collections.singletonList("com.example.other"));
+        String payload = legacyMapper.writeValueAsString(new MealLoggedEvent(7L, LocalDate.of(2025, 5, 1)));
+
+        assertThrows(Exception.class, () -> outboxMapper.readValue(payload, DomainEvent.class));
+    }
+
+    @Test
+    public void testRejectUntrustedType() {
+        EventCodec strictCodec = new EventCodec(
+                new EventTypeRegistry(Collections.singletonList("com.example.other")), legacyMapper);
+        byte[] data = codec.encode(new UnregisteredEvent());
+
+        assertThrows(IllegalArgumentException.class, () -> strictCodec.decode(data));
+    }
+
+    @Test
+    public void testUnregisteredTypeFromTrustedPackage() {
+        UnregisteredEvent event = new UnregisteredEvent();
+
+        DomainEvent decoded = codec.decode(codec.encode(event));
+
+        assertTrue(decoded instanceof UnregisteredEvent);
+        assertEquals(event.getEventId(), decoded.getEventId());
+    }
+
+    @Test
+    public void testRejectDuplicateTypeId() {
+        EventTypeRegistry registry = new EventTypeRegistry(Collections.emptyList());
+        registry.register(MealLoggedEvent.class);
+
+        assertThrows(IllegalStateException.class, () -> registry.register(DuplicateEvent.class));
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @EventType("test.meal-logged")
+    public static class MealLoggedEvent extends DomainEvent {
+        private Long userId;
+        private LocalDate date;
+
+        public MealLoggedEvent(Long userId, LocalDate date) {
+            super(userId.toString());
+            this.userId = userId;
+            this.date = date;
+        }
+    }
+
+    @EventType("test.meal-logged")
+    public static class DuplicateEvent extends DomainEvent {
+    }
+
+    public static class UnregisteredEvent extends DomainEvent {
+        public UnregisteredEvent() {
+            super("unregistered");
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.shared.event.local;
+
+import com.example.shared.event.BatchDomainEventHandler;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.DomainEventHandler;
+import com.example.shared.event.EventPublishException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 进程内事件总线测试
+ */
+public class LocalEventBusTest {
+
+    @Test
+    public void testDeliverEventsInPublishOrder() throws Exception {
+        LocalEventRingBuffer ringBuffer = new LocalEventRingBuffer(16, WaitStrategy.BLOCKING);
+        LocalEventListenerContainer container = new LocalEventListenerContainer(ringBuffer, 8);
+        RecordingHandler handler = new RecordingHandler(100);
+        container.registerHandler(handler);
+        container.start();
+
+        LocalEventPublisher publisher = new LocalEventPublisher(ringBuffer, true);
+        for (int i = 0; i < 100; i++) {
+            publisher.publish(new TestEvent(0, i));
+        }
+
+        assertTrue(handler.await());
+        container.stop();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, handler.events.get(i).sequence);
+        }
+    }
+
+    @Test
+    public void testConcurrentProducersWithEachWaitStrategy() throws Exception {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            int producers = 4;
+            int eventsPerProducer = 5000;
+
+            LocalEventRingBuffer ringBuffer = new LocalEventRingBuffer(64, waitStrategy);
+            LocalEventListenerContainer container = new LocalEventListenerContainer(ringBuffer, 32);
+            RecordingHandler handler = new RecordingHandler(producers * eventsPerProducer);
+            container.registerHandler(handler);
+            container.start();
+
+            LocalEventPublisher publisher = new LocalEventPublisher(ringBuffer, true);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < eventsPerProducer; i++) {
+                        publisher.publish(new TestEvent(producer, i));
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertTrue(handler.await(), "events lost with " + waitStrategy);
+            container.stop();
+
+            // 每个生产者发布的事件按发布顺序到达，且不重复不丢失
+            int[] next = new int[producers];
+            for (TestEvent event : handler.events) {
+                assertEquals(next[event.producer]++, event.sequence, "out of order with " + waitStrategy);
+            }
+            for (int p = 0; p < producers; p++) {
+                assertEquals(eventsPerProducer, next[p]);
+            }
+        }
+    }
+
+    @Test
+    public void testBatchHandlerReceivesOnlySupportedEvents() throws Exception {
+        LocalEventRingBuffer ringBuffer = new LocalEventRingBuffer(16, WaitStrategy.SLEEPING);
+        LocalEventListenerContainer container = new LocalEventListenerContainer(ringBuffer, 16);
+        List<DomainEvent> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(3);
+        container.registerHandler(new BatchDomainEventHandler<TestEvent>() {
+            @Override
+            public boolean supports(Class<? extends DomainEvent> eventType) {
+                return TestEvent.class.isAssignableFrom(eventType);
+            }
+
+            @Override
+            public void handleBatch(List<TestEvent> events) {
+                for (TestEvent event : events) {
+                    received.add(event);
+                    latch.countDown();
+                }
+            }
+        });
+        container.start();
+
+        LocalEventPublisher publisher = new LocalEventPublisher(ringBuffer, true);
+        publisher.publish(new TestEvent(0, 0));
+        publisher.publish(new OtherEvent());
+        publisher.publish(new TestEvent(0, 1));
+        publisher.publish(new TestEvent(0, 2));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        container.stop();
+
+        assertEquals(3, received.size());
+        assertTrue(received.stream().allMatch(e -> e instanceof TestEvent));
+    }
+
+    @Test
+    public void testDiscardWhenConsumerDisabledAndDiscardConfigured() {
+        LocalEventRingBuffer ringBuffer = new LocalEventRingBuffer(4, WaitStrategy.BLOCKING);
+        LocalEventPublisher publisher = new LocalEventPublisher(ringBuffer, false, true);
+
+        // 没有消费者时发布不应因缓冲区写满而阻塞
+        for (int i = 0; i < 100; i++) {
+            publisher.publish(new TestEvent(0, i));
+        }
+
+        assertEquals(0, ringBuffer.backlog());
+    }
+
+    @Test
+    public void testPublishFailsWhenConsumerDisabled() {
+        LocalEventRingBuffer ringBuffer = new LocalEventRingBuffer(4, WaitStrategy.BLOCKING);
+        LocalEventPublisher publisher = new LocalEventPublisher(ringBuffer, false);
+
+        assertThrows(EventPublishException.class, () -> publisher.publish(new TestEvent(0, 0)));
+        assertEquals(0, ringBuffer.backlog());
+    }
+
+    @Test
+    public void testPublishFailsWhenBufferFull() {
+        LocalEventRingBuffer ringBuffer = new LocalEventRingBuffer(4, WaitStrategy.BLOCKING, Duration.ofMillis(50));
+        LocalEventPublisher publisher = new LocalEventPublisher(ringBuffer, true);
+
+        // 消费者尚未启动，写满后等待发布超时，发布方收到异常而不是事件被静默丢弃
+        for (int i = 0; i < 4; i++) {
+            publisher.publish(new TestEvent(0, i));
+        }
+
+        assertThrows(EventPublishException.class, () -> publisher.publish(new TestEvent(0, 4)));
+        assertEquals(4, ringBuffer.backlog());
+        assertEquals(1, ringBuffer.dropped());
+    }
+
+    @Test
+    public void testDropWhenFullAndConsumerStopped() {
+        LocalEventRingBuffer ringBuffer = new LocalEventRingBuffer(4, WaitStrategy.BLOCKING, Duration.ofMinutes(1));
+        LocalEventListenerContainer container = new LocalEventListenerContainer(ringBuffer, 8);
+        container.start();
+        container.stop();
+
+        // 消费者已停止，缓冲区写满后立即丢弃而不是等待发布超时
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            ringBuffer.publish(new TestEvent(0, i));
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(4, ringBuffer.backlog());
+        assertEquals(2, ringBuffer.dropped());
+    }
+
+    @Test
+    public void testDropAfterPublishTimeout() {
+        LocalEventRingBuffer ringBuffer = new LocalEventRingBuffer(2, WaitStrategy.BLOCKING, Duration.ofMillis(50));
+
+        assertTrue(ringBuffer.publish(new TestEvent(0, 0)));
+        assertTrue(ringBuffer.publish(new TestEvent(0, 1)));
+        assertFalse(ringBuffer.publish(new TestEvent(0, 2)));
+        assertEquals(1, ringBuffer.dropped());
+
+        // 丢弃的事件不占用序号，消费者仍能读取已发布的事件，之后的发布可以继续
+        List<DomainEvent> batch = new ArrayList<>();
+        assertEquals(2, ringBuffer.poll(batch, 8, 0));
+        assertTrue(ringBuffer.publish(new TestEvent(0, 3)));
+        batch.clear();
+        assertEquals(1, ringBuffer.poll(batch, 8, 0));
+        assertEquals(3, ((TestEvent) batch.get(0)).sequence);
+    }
+
+    @Test
+    public void testRejectBufferSizeNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new LocalEventRingBuffer(100, WaitStrategy.BLOCKING));
+    }
+
+    private static class TestEvent extends DomainEvent {
+        private final int producer;
+        private final int sequence;
+
+        TestEvent(int producer, int sequence) {
+            super(String.valueOf(producer));
+            this.producer = producer;
+            this.sequence = sequence;
+        }
+    }
+
+    private static class OtherEvent extends DomainEvent {
+        OtherEvent() {
+            super("other");
+        }
+    }
+
+    private static class RecordingHandler implements DomainEventHandler<TestEvent> {
+        private final List<TestEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch latch;
+
+        RecordingHandler(int expected) {
+            this.latch = new CountDownLatch(expected);
+        }
+
+        @Override
+        public boolean supports(Class<? extends DomainEvent> eventType) {
+            return TestEvent.class.isAssignableFrom(eventType);
+        }
+
+        @Override
+        public void handle(TestEvent event) {
+            events.add(event);
+            latch.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
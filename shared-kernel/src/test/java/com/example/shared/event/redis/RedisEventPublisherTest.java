@@ -0,0 +1,117 @@
+package com.example.shared.event.redis;
+
+import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.codec.EventCodec;
+import com.example.shared.event.codec.EventType;
+import com.example.shared.event.codec.EventTypeRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis Pub/Sub事件发布器测试
+ * 使用模拟的Redis连接验证批量发布和异步发布的管道行为
+ */
+public class RedisEventPublisherTest {
+
+    private static final String CHANNEL = "domain-events";
+    private static final byte[] RAW_CHANNEL = CHANNEL.getBytes(StandardCharsets.UTF_8);
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private RedisConnection connection;
+    private EventCodec codec;
+    private List<Runnable> publishTasks;
+    private RedisEventPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() {
+        EventTypeRegistry registry = new EventTypeRegistry(Collections.singletonList("com.example.shared.event"));
+        registry.register(PubSubTestEvent.class);
+        codec = new EventCodec(registry, null);
+
+        redisTemplate = mock(RedisTemplate.class);
+        connection = mock(RedisConnection.class);
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) new EventEnvelopeRedisSerializer(codec));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback) invocation.getArgument(0)).doInRedis(connection);
+            return Collections.emptyList();
+        });
+
+        // 发布线程的任务由测试手动执行，以便观察提交与发送之间的状态
+        publishTasks = new ArrayList<>();
+        publisher = new RedisEventPublisher(redisTemplate, null, CHANNEL, publishTasks::add,
+                new EventProperties.Publisher());
+    }
+
+    @Test
+    public void testPublishAllPipelinesOnePublishPerEvent() {
+        PubSubTestEvent first = new PubSubTestEvent("1");
+        PubSubTestEvent second = new PubSubTestEvent("2");
+
+        publisher.publishAll(Arrays.asList(first, second));
+
+        ArgumentCaptor<byte[]> messages = ArgumentCaptor.forClass(byte[].class);
+        verify(connection, times(2)).publish(eq(RAW_CHANNEL), messages.capture());
+        assertEquals(first.getEventId(), codec.decode(messages.getAllValues().get(0)).getEventId());
+        assertEquals(second.getEventId(), codec.decode(messages.getAllValues().get(1)).getEventId());
+        verify(redisTemplate, never()).convertAndSend(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPublishAsyncDoesNotBlockAndPipelinesQueuedEvents() {
+        CompletableFuture<Void> first = publisher.publishAsync(new PubSubTestEvent("1"));
+        CompletableFuture<Void> second = publisher.publishAsync(new PubSubTestEvent("2"));
+
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        verify(redisTemplate, never()).convertAndSend(any(), any());
+
+        while (!publishTasks.isEmpty()) {
+            publishTasks.remove(0).run();
+        }
+
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(connection, times(2)).publish(eq(RAW_CHANNEL), any(byte[].class));
+    }
+
+    @Test
+    public void testPublishAsyncIgnoresNullEvent() {
+        assertTrue(publisher.publishAsync(null).isDone());
+        assertTrue(publishTasks.isEmpty());
+    }
+
+    @EventType("test.pubsub")
+    public static class PubSubTestEvent extends DomainEvent {
+        public PubSubTestEvent() {
+        }
+
+        public PubSubTestEvent(String aggregateId) {
+            super(aggregateId);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.shared.event.redis;
+
+import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventDispatcher;
+import com.example.shared.event.codec.EventCodec;
+import com.example.shared.event.codec.EventType;
+import com.example.shared.event.codec.EventTypeRegistry;
+import com.example.shared.event.retry.DeadLetterStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis Streams事件监听容器测试
+ * 使用模拟的Redis连接验证解码、分发、确认和死信的行为
+ */
+public class RedisStreamEventListenerContainerTest {
+
+    private static final String STREAM = "domain-events";
+    private static final byte[] RAW_STREAM = STREAM.getBytes(StandardCharsets.UTF_8);
+    private static final String GROUP = "nutrition-service";
+    private static final String CONSUMER = "consumer-1";
+
+    private StringRedisTemplate stringRedisTemplate;
+    private RedisStreamCommands streamCommands;
+    private DeadLetterStore deadLetterStore;
+    private EventCodec codec;
+    private List<DomainEvent> received;
+    private RedisStreamEventListenerContainer container;
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        streamCommands = mock(RedisStreamCommands.class);
+        when(connection.streamCommands()).thenReturn(streamCommands);
+        when(stringRedisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> ((RedisCallback) invocation.getArgument(0)).doInRedis(connection));
+
+        EventTypeRegistry registry = new EventTypeRegistry(Collections.singletonList("com.example.shared.event"));
+        registry.register(StreamTestEvent.class);
+        codec = new EventCodec(registry, new ObjectMapper());
+
+        received = new CopyOnWriteArrayList<>();
+        EventDispatcher dispatcher = new EventDispatcher();
+        dispatcher.registerHandler(received::add);
+
+        EventProperties.RedisStream config = new EventProperties.RedisStream();
+        config.setConsumerName(CONSUMER);
+        config.setPendingIdle(Duration.ofSeconds(30));
+
+        deadLetterStore = mock(DeadLetterStore.class);
+        container = new RedisStreamEventListenerContainer(
+                stringRedisTemplate, codec, STREAM, GROUP, config, dispatcher, deadLetterStore);
+    }
+
+    @Test
+    public void testProcessDecodesDispatchesAndAcksBatch() {
+        StreamTestEvent first = new StreamTestEvent("1");
+        StreamTestEvent second = new StreamTestEvent("2");
+
+        container.process(Arrays.asList(record("1-0", codec.encode(first)), record("2-0", codec.encode(second))));
+
+        assertEquals(Arrays.asList(first.getEventId(), second.getEventId()),
+                Arrays.asList(received.get(0).getEventId(), received.get(1).getEventId()));
+        assertEquals(Arrays.asList(RecordId.of("1-0"), RecordId.of("2-0")), ackedIds());
+        verify(deadLetterStore, never()).storeUndecodable(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testUndecodableRecordIsDeadLetteredThenAcked() {
+        byte[] garbage = new byte[] {(byte) 0xDE, 1, 2, 3};
+        StreamTestEvent event = new StreamTestEvent("1");
+
+        container.process(Arrays.asList(record("1-0", garbage), record("2-0", codec.encode(event))));
+
+        assertEquals(1, received.size());
+        verify(deadLetterStore).storeUndecodable(eq(STREAM), eq("1-0"), eq(garbage), any(Exception.class));
+        assertEquals(Arrays.asList(RecordId.of("1-0"), RecordId.of("2-0")), ackedIds());
+    }
+
+    @Test
+    public void testRecordWithoutPayloadIsDeadLettered() {
+        Map<byte[], byte[]> fields = new HashMap<>();
+        fields.put("other".getBytes(StandardCharsets.UTF_8), new byte[] {1});
+        ByteRecord record = StreamRecords.rawBytes(fields).withStreamKey(RAW_STREAM).withId(RecordId.of("3-0"));
+
+        container.process(Collections.singletonList(record));
+
+        assertTrue(received.isEmpty());
+        verify(deadLetterStore).storeUndecodable(eq(STREAM), eq("3-0"), isNull(), any(Exception.class));
+        assertEquals(Collections.singletonList(RecordId.of("3-0")), ackedIds());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReclaimClaimsOnlyIdleMessagesAndAcksThem() {
+        StreamOperations<String, Object, Object> streamOps = mock(StreamOperations.class);
+        when(stringRedisTemplate.opsForStream()).thenReturn(streamOps);
+        Consumer dead = Consumer.from(GROUP, "dead-consumer");
+        when(streamOps.pending(eq(STREAM), eq(GROUP), eq(Range.unbounded()), anyLong()))
+                .thenReturn(new PendingMessages(GROUP, Arrays.asList(
+                        new PendingMessage(RecordId.of("5-0"), dead, Duration.ofMinutes(5), 1),
+                        new PendingMessage(RecordId.of("6-0"), dead, Duration.ofSeconds(1), 1))));
+        StreamTestEvent event = new StreamTestEvent("5");
+        when(streamCommands.xClaim(eq(RAW_STREAM), eq(GROUP), eq(CONSUMER), any(XClaimOptions.class)))
+                .thenReturn(Collections.singletonList(record("5-0", codec.encode(event))));
+
+        container.reclaimIfDue();
+
+        ArgumentCaptor<XClaimOptions> options = ArgumentCaptor.forClass(XClaimOptions.class);
+        verify(streamCommands).xClaim(eq(RAW_STREAM), eq(GROUP), eq(CONSUMER), options.capture());
+        assertEquals(Collections.singletonList(RecordId.of("5-0")), options.getValue().getIds());
+        assertEquals(Duration.ofSeconds(30), options.getValue().getMinIdleTime());
+        assertEquals(1, received.size());
+        assertEquals(event.getEventId(), received.get(0).getEventId());
+        assertEquals(Collections.singletonList(RecordId.of("5-0")), ackedIds());
+    }
+
+    private List<RecordId> ackedIds() {
+        ArgumentCaptor<RecordId> ids = ArgumentCaptor.forClass(RecordId.class);
+        verify(streamCommands).xAck(eq(RAW_STREAM), eq(GROUP), ids.capture());
+        return ids.getAllValues();
+    }
+
+    private static ByteRecord record(String id, byte[] payload) {
+        Map<byte[], byte[]> fields = new HashMap<>();
+        fields.put(RedisStreamEventPublisher.FIELD_PAYLOAD.getBytes(StandardCharsets.UTF_8), payload);
+        return StreamRecords.rawBytes(fields).withStreamKey(RAW_STREAM).withId(RecordId.of(id));
+    }
+
+    @EventType("test.stream")
+    public static class StreamTestEvent extends DomainEvent {
+        public StreamTestEvent() {
+        }
+
+        public StreamTestEvent(String aggregateId) {
+            super(aggregateId);
+        }
+    }
+}
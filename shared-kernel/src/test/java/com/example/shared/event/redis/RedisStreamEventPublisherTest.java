@@ -0,0 +1,177 @@
+package com.example.shared.event.redis;
+
+import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.EventPublishException;
+import com.example.shared.event.codec.EventCodec;
+import com.example.shared.event.codec.EventType;
+import com.example.shared.event.codec.EventTypeRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis Streams事件发布器测试
+ * 使用模拟的Redis连接验证批量发布和异步发布的管道行为
+ */
+public class RedisStreamEventPublisherTest {
+
+    private static final String STREAM = "domain-events";
+
+    private StringRedisTemplate stringRedisTemplate;
+    private RedisStreamCommands streamCommands;
+    private EventCodec codec;
+    private List<Runnable> publishTasks;
+    private EventProperties.Publisher config;
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        streamCommands = mock(RedisStreamCommands.class);
+        when(connection.streamCommands()).thenReturn(streamCommands);
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback) invocation.getArgument(0)).doInRedis(connection);
+            return Collections.emptyList();
+        });
+
+        EventTypeRegistry registry = new EventTypeRegistry(Collections.singletonList("com.example.shared.event"));
+        registry.register(PublishTestEvent.class);
+        codec = new EventCodec(registry, null);
+
+        // 发布线程的任务由测试手动执行，以便观察提交与发送之间的状态
+        publishTasks = new ArrayList<>();
+        config = new EventProperties.Publisher();
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testPublishAllPipelinesOneXAddPerEvent() {
+        PublishTestEvent first = new PublishTestEvent("1");
+        PublishTestEvent second = new PublishTestEvent("2");
+
+        publisher().publishAll(Arrays.asList(first, null, second));
+
+        ArgumentCaptor<MapRecord> records = ArgumentCaptor.forClass(MapRecord.class);
+        verify(streamCommands, times(2)).xAdd(records.capture(), any(XAddOptions.class));
+        assertEquals(first.getEventId(), decode(records.getAllValues().get(0)).getEventId());
+        assertEquals(second.getEventId(), decode(records.getAllValues().get(1)).getEventId());
+        verify(stringRedisTemplate, never()).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testPublishAsyncReturnsBeforeSendingAndPipelinesQueuedEvents() {
+        RedisStreamEventPublisher publisher = publisher();
+
+        CompletableFuture<Void> first = publisher.publishAsync(new PublishTestEvent("1"));
+        CompletableFuture<Void> second = publisher.publishAsync(new PublishTestEvent("2"));
+
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        verify(stringRedisTemplate, never()).executePipelined(any(RedisCallback.class));
+
+        runPublishTasks();
+
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        verify(stringRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(streamCommands, times(2)).xAdd(any(MapRecord.class), any(XAddOptions.class));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testPublishAsyncSplitsQueueIntoBatches() {
+        config.setAsyncBatchSize(2);
+        RedisStreamEventPublisher publisher = publisher();
+
+        for (int i = 0; i < 5; i++) {
+            publisher.publishAsync(new PublishTestEvent(String.valueOf(i)));
+        }
+        runPublishTasks();
+
+        verify(stringRedisTemplate, times(3)).executePipelined(any(RedisCallback.class));
+        verify(streamCommands, times(5)).xAdd(any(MapRecord.class), any(XAddOptions.class));
+    }
+
+    @Test
+    public void testPublishAsyncFailsFastWhenQueueIsFull() {
+        config.setAsyncQueueCapacity(1);
+        RedisStreamEventPublisher publisher = publisher();
+
+        CompletableFuture<Void> accepted = publisher.publishAsync(new PublishTestEvent("1"));
+        CompletableFuture<Void> rejected = publisher.publishAsync(new PublishTestEvent("2"));
+
+        assertFalse(accepted.isDone());
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertTrue(e.getCause() instanceof EventPublishException);
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testPublishAsyncCompletesExceptionallyWhenPipelineFails() {
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        RedisStreamEventPublisher publisher = publisher();
+
+        CompletableFuture<Void> future = publisher.publishAsync(new PublishTestEvent("1"));
+        runPublishTasks();
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof EventPublishException);
+    }
+
+    private RedisStreamEventPublisher publisher() {
+        return new RedisStreamEventPublisher(stringRedisTemplate, codec, STREAM, 1000, publishTasks::add, config);
+    }
+
+    private void runPublishTasks() {
+        while (!publishTasks.isEmpty()) {
+            publishTasks.remove(0).run();
+        }
+    }
+
+    private DomainEvent decode(MapRecord<byte[], byte[], byte[]> record) {
+        for (Map.Entry<byte[], byte[]> field : record.getValue().entrySet()) {
+            if (RedisStreamEventPublisher.FIELD_PAYLOAD.equals(new String(field.getKey(), StandardCharsets.UTF_8))) {
+                return codec.decode(field.getValue());
+            }
+        }
+        throw new AssertionError("Record has no payload field");
+    }
+
+    @EventType("test.publish")
+    public static class PublishTestEvent extends DomainEvent {
+        public PublishTestEvent() {
+        }
+
+        public PublishTestEvent(String aggregateId) {
+            super(aggregateId);
+        }
+    }
+}
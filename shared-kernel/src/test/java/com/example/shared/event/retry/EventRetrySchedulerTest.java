@@ -0,0 +1,206 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.config.properties.EventProperties;
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.DomainEventHandler;
+import com.example.shared.event.EventDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事件处理重试调度器测试
+ */
+public class EventRetrySchedulerTest {
+
+    private final RecordingDeadLetterStore deadLetters = new RecordingDeadLetterStore();
+    private EventRetryScheduler scheduler;
+
+    @AfterEach
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.destroy();
+        }
+    }
+
+    @Test
+    public void testBackoffGrowsExponentiallyUpToMax() {
+        EventProperties.Retry config = config(5);
+        config.setMaxBackoff(Duration.ofMillis(35));
+        scheduler = new EventRetryScheduler(config, deadLetters, null);
+
+        assertEquals(10, scheduler.backoffMillis(1));
+        assertEquals(20, scheduler.backoffMillis(2));
+        assertEquals(35, scheduler.backoffMillis(3));
+        assertEquals(35, scheduler.backoffMillis(10));
+    }
+
+    @Test
+    public void testRetrySucceedsWithoutDeadLetter() throws InterruptedException {
+        scheduler = new EventRetryScheduler(config(5), deadLetters, null);
+        EventDispatcher dispatcher = new EventDispatcher(null, null, scheduler);
+        FlakyHandler handler = new FlakyHandler(2);
+        dispatcher.registerHandler(handler);
+
+        dispatcher.dispatch(new TestEvent());
+
+        assertTrue(handler.succeeded.await(5, TimeUnit.SECONDS));
+        assertEquals(3, handler.calls.get());
+        assertTrue(deadLetters.events.isEmpty());
+        // 重试在处理器返回后才从等待数中扣除
+        waitUntil(() -> scheduler.pending() == 0);
+    }
+
+    @Test
+    public void testExhaustedEventGoesToDeadLetter() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        scheduler = new EventRetryScheduler(config(3), deadLetters, registry);
+        EventDispatcher dispatcher = new EventDispatcher(null, null, scheduler);
+        FlakyHandler handler = new FlakyHandler(Integer.MAX_VALUE);
+        dispatcher.registerHandler(handler);
+
+        TestEvent event = new TestEvent();
+        dispatcher.dispatch(event);
+
+        assertTrue(deadLetters.stored.await(5, TimeUnit.SECONDS));
+        assertEquals(3, handler.calls.get());
+        assertEquals(1, deadLetters.events.size());
+        assertSame(event, deadLetters.events.get(0));
+        assertEquals(3, deadLetters.attempts.get());
+        assertEquals(1.0, registry.get("event.dead-letter").tag("reason", "exhausted").counter().count());
+        assertEquals(2.0, registry.get("event.retry.scheduled").counter().count());
+    }
+
+    @Test
+    public void testOverflowGoesStraightToDeadLetter() {
+        EventProperties.Retry config = config(5);
+        config.setInitialBackoff(Duration.ofMinutes(1));
+        config.setMaxPending(1);
+        scheduler = new EventRetryScheduler(config, deadLetters, null);
+
+        scheduler.onFailure("handler", new TestEvent(), 1, new IllegalStateException());
+        scheduler.onFailure("handler", new TestEvent(), 1, new IllegalStateException());
+
+        assertEquals(1, scheduler.pending());
+        assertEquals(1, deadLetters.events.size());
+    }
+
+    @Test
+    public void testPendingRetrySurvivesSchedulerStop() throws InterruptedException {
+        RetryStore retryStore = new InMemoryRetryStore();
+        EventProperties.Retry config = config(5);
+        config.setInitialBackoff(Duration.ofMillis(200));
+        EventRetryScheduler stopped = new EventRetryScheduler(config, deadLetters, retryStore, null);
+        EventDispatcher dispatcher = new EventDispatcher(null, null, stopped);
+        FlakyHandler failing = new FlakyHandler(Integer.MAX_VALUE);
+        dispatcher.registerHandler(failing);
+
+        TestEvent event = new TestEvent();
+        dispatcher.dispatch(event);
+        // 监听容器此时已确认消息，进程在重试前停止
+        stopped.destroy();
+
+        assertEquals(1, failing.calls.get());
+        assertEquals(1, retryStore.due(Long.MAX_VALUE, 10).size());
+
+        // 重启后的实例从重试存储恢复并重试
+        config.setRecoveryInterval(Duration.ofMillis(50));
+        scheduler = new EventRetryScheduler(config, deadLetters, retryStore, null);
+        EventDispatcher restarted = new EventDispatcher(null, null, scheduler);
+        FlakyHandler recovered = new FlakyHandler(0);
+        restarted.registerHandler(recovered);
+
+        assertTrue(recovered.succeeded.await(5, TimeUnit.SECONDS));
+        assertEquals(event.getEventId(), recovered.handled.get(0).getEventId());
+        assertEquals(1, failing.calls.get());
+        assertTrue(deadLetters.events.isEmpty());
+        waitUntil(() -> retryStore.due(Long.MAX_VALUE, 10).isEmpty() && scheduler.pending() == 0);
+    }
+
+    @Test
+    public void testRecoveredRetryClaimedOnce() {
+        RetryStore retryStore = new InMemoryRetryStore();
+        retryStore.save(new PendingRetry("r1", "handler", new TestEvent(), 2, 0));
+
+        assertNotNull(retryStore.claim("r1", Duration.ofMinutes(1)));
+        assertNull(retryStore.claim("r1", Duration.ofMinutes(1)));
+
+        retryStore.remove("r1");
+        assertNull(retryStore.claim("r1", Duration.ofMinutes(1)));
+        assertTrue(retryStore.due(Long.MAX_VALUE, 10).isEmpty());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static EventProperties.Retry config(int maxAttempts) {
+        EventProperties.Retry config = new EventProperties.Retry();
+        config.setMaxAttempts(maxAttempts);
+        config.setInitialBackoff(Duration.ofMillis(10));
+        config.setMultiplier(2.0);
+        return config;
+    }
+
+    private static class TestEvent extends DomainEvent {
+        TestEvent() {
+            super("test");
+        }
+    }
+
+    private static class FlakyHandler implements DomainEventHandler<TestEvent> {
+        private final int failures;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<TestEvent> handled = new CopyOnWriteArrayList<>();
+        private final CountDownLatch succeeded = new CountDownLatch(1);
+
+        FlakyHandler(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public void handle(TestEvent event) {
+            if (calls.incrementAndGet() <= failures) {
+                throw new IllegalStateException("failure " + calls.get());
+            }
+            handled.add(event);
+            succeeded.countDown();
+        }
+
+        @Override
+        public boolean supports(Class<? extends DomainEvent> eventType) {
+            return TestEvent.class.isAssignableFrom(eventType);
+        }
+    }
+
+    private static class RecordingDeadLetterStore implements DeadLetterStore {
+        private final List<DomainEvent> events = new CopyOnWriteArrayList<>();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final CountDownLatch stored = new CountDownLatch(1);
+
+        @Override
+        public void store(DomainEvent event, String handler, int attempts, Throwable cause) {
+            events.add(event);
+            this.attempts.set(attempts);
+            stored.countDown();
+        }
+
+        @Override
+        public void storeUndecodable(String source, String recordId, byte[] payload, Throwable cause) {
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.event.DomainEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kafka死信存储测试
+ * 验证死信主题写入失败时退回到备用存储
+ */
+public class KafkaDeadLetterStoreTest {
+
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private DeadLetterStore fallback;
+    private KafkaDeadLetterStore store;
+    private SettableListenableFuture<SendResult<String, Object>> sendFuture;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        fallback = mock(DeadLetterStore.class);
+        sendFuture = new SettableListenableFuture<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(sendFuture);
+        store = new KafkaDeadLetterStore(kafkaTemplate, "domain-events.DLT", fallback);
+    }
+
+    @Test
+    public void testAcknowledgedSendDoesNotFallBack() {
+        TestEvent event = new TestEvent();
+        store.store(event, "handler", 3, new IllegalStateException("boom"));
+
+        sendFuture.set(null);
+
+        verify(fallback, never()).store(any(), any(), eq(3), any());
+    }
+
+    @Test
+    public void testFailedSendFallsBack() {
+        TestEvent event = new TestEvent();
+        IllegalStateException cause = new IllegalStateException("boom");
+        store.store(event, "handler", 3, cause);
+
+        sendFuture.setException(new RuntimeException("broker unavailable"));
+
+        verify(fallback).store(event, "handler", 3, cause);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSendThrowingFallsBack() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenThrow(new RuntimeException("producer closed"));
+        TestEvent event = new TestEvent();
+        IllegalStateException cause = new IllegalStateException("boom");
+
+        store.store(event, "handler", 3, cause);
+
+        verify(fallback).store(event, "handler", 3, cause);
+    }
+
+    public static class TestEvent extends DomainEvent {
+        public TestEvent() {
+            super("test");
+        }
+    }
+}
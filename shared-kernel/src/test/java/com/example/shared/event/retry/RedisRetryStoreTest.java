@@ -0,0 +1,107 @@
+package com.example.shared.event.retry;
+
+import com.example.shared.event.DomainEvent;
+import com.example.shared.event.codec.EventCodec;
+import com.example.shared.event.codec.EventType;
+import com.example.shared.event.codec.EventTypeRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis重试存储测试
+ * 使用模拟的Redis操作验证记录的写入、认领和删除
+ */
+public class RedisRetryStoreTest {
+
+    private static final String KEY = "domain-events:retry";
+
+    private StringRedisTemplate redisTemplate;
+    private HashOperations<String, Object, Object> hashOps;
+    private ZSetOperations<String, String> zSetOps;
+    private ValueOperations<String, String> valueOps;
+    private RedisRetryStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        EventTypeRegistry registry = new EventTypeRegistry(Collections.singletonList("com.example.shared.event"));
+        registry.register(RetryTestEvent.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        hashOps = mock(HashOperations.class);
+        zSetOps = mock(ZSetOperations.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hashOps);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        store = new RedisRetryStore(redisTemplate, new EventCodec(registry, null), KEY);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSavedRecordIsClaimedWithEvent() {
+        RetryTestEvent event = new RetryTestEvent("42");
+        store.save(new PendingRetry("r1", "handler", event, 3, 1000L));
+
+        ArgumentCaptor<Map<String, String>> fields = ArgumentCaptor.forClass(Map.class);
+        verify(hashOps).putAll(eq(KEY + ":r1"), fields.capture());
+        verify(zSetOps).add(KEY, "r1", 1000L);
+
+        when(valueOps.setIfAbsent(eq(KEY + ":r1:lock"), anyString(), any(Duration.class))).thenReturn(true);
+        when(hashOps.entries(KEY + ":r1")).thenReturn(new HashMap<>(fields.getValue()));
+
+        PendingRetry claimed = store.claim("r1", Duration.ofMinutes(1));
+
+        assertNotNull(claimed);
+        assertEquals("handler", claimed.getHandler());
+        assertEquals(3, claimed.getAttempt());
+        assertEquals(1000L, claimed.getDueAt());
+        assertEquals(event.getEventId(), claimed.getEvent().getEventId());
+    }
+
+    @Test
+    public void testClaimHeldByAnotherInstance() {
+        when(valueOps.setIfAbsent(eq(KEY + ":r1:lock"), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertNull(store.claim("r1", Duration.ofMinutes(1)));
+        verify(hashOps, never()).entries(anyString());
+    }
+
+    @Test
+    public void testClaimOfRemovedRecordCleansIndex() {
+        when(valueOps.setIfAbsent(eq(KEY + ":r1:lock"), anyString(), any(Duration.class))).thenReturn(true);
+        when(hashOps.entries(KEY + ":r1")).thenReturn(Collections.emptyMap());
+
+        assertNull(store.claim("r1", Duration.ofMinutes(1)));
+        verify(zSetOps).remove(KEY, "r1");
+        verify(redisTemplate).delete(KEY + ":r1:lock");
+    }
+
+    @EventType("test.retry")
+    public static class RetryTestEvent extends DomainEvent {
+        public RetryTestEvent() {
+        }
+
+        public RetryTestEvent(String aggregateId) {
+            super(aggregateId);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.shared.response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 响应字段投影测试
+ */
+public class FieldProjectionTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testParse_EmptyFields() {
+        assertNull(FieldProjection.parse(null));
+        assertNull(FieldProjection.parse(""));
+        assertNull(FieldProjection.parse(" , ,"));
+        assertNull(FieldProjection.parse("a..b"));
+    }
+
+    @Test
+    public void testParse_TooManyPaths() {
+        StringJoiner fields = new StringJoiner(",");
+        for (int i = 0; i <= FieldProjection.MAX_PATHS; i++) {
+            fields.add("f" + i);
+        }
+        assertNull(FieldProjection.parse(fields.toString()));
+    }
+
+    @Test
+    public void testApply_TopLevelFields() throws Exception {
+        JsonNode node = objectMapper.readTree("{\"id\":1,\"name\":\"apple\",\"calories\":52,\"description\":\"long\"}");
+
+        FieldProjection.parse("id, name").apply(node);
+
+        assertEquals("{\"id\":1,\"name\":\"apple\"}", node.toString());
+    }
+
+    @Test
+    public void testApply_NestedFieldsThroughArrays() throws Exception {
+        JsonNode node = objectMapper.readTree("{\"total\":2,\"records\":["
+                + "{\"id\":1,\"nutrition\":{\"calories\":52,\"protein\":0.3},\"remark\":\"a\"},"
+                + "{\"id\":2,\"nutrition\":{\"calories\":89,\"protein\":1.1},\"remark\":\"b\"}]}");
+
+        FieldProjection.parse("total,records.id,records.nutrition.calories").apply(node);
+
+        assertEquals("{\"total\":2,\"records\":[{\"id\":1,\"nutrition\":{\"calories\":52}},"
+                + "{\"id\":2,\"nutrition\":{\"calories\":89}}]}", node.toString());
+    }
+
+    @Test
+    public void testApply_WholeFieldWinsOverNestedPath() throws Exception {
+        JsonNode node = objectMapper.readTree("{\"id\":1,\"nutrition\":{\"calories\":52,\"protein\":0.3}}");
+
+        FieldProjection.parse("nutrition.calories,nutrition").apply(node);
+
+        assertEquals("{\"nutrition\":{\"calories\":52,\"protein\":0.3}}", node.toString());
+    }
+
+    @Test
+    public void testApply_UnknownAndScalarPaths() throws Exception {
+        JsonNode node = objectMapper.readTree("{\"id\":1,\"name\":\"apple\"}");
+
+        FieldProjection.parse("id.value,missing").apply(node);
+
+        assertEquals("{\"id\":1}", node.toString());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.shared.util;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT工具类测试
+ */
+public class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-key-should-be-at-least-256-bits-long";
+
+    @Test
+    public void testVerify_ValidToken() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, null);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", 42L);
+
+        Claims verified = jwtUtil.verify(jwtUtil.generateToken(claims, "alice"));
+
+        assertNotNull(verified);
+        assertEquals("alice", verified.getSubject());
+        assertEquals(42, ((Number) verified.get("userId")).intValue());
+        assertNotNull(verified.getId());
+    }
+
+    @Test
+    public void testVerify_CachesClaimsPerToken() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, null);
+        String token = jwtUtil.generateToken(new HashMap<>(), "alice");
+
+        assertSame(jwtUtil.verify(token), jwtUtil.verify(token));
+    }
+
+    @Test
+    public void testVerify_TamperedToken() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, null);
+        String token = jwtUtil.generateToken(new HashMap<>(), "alice");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(jwtUtil.verify(tampered));
+        assertNull(jwtUtil.verify("not-a-token"));
+    }
+
+    @Test
+    public void testVerify_ForeignKey() {
+        JwtUtil issuer = new JwtUtil("another-secret-key-should-be-at-least-256-bits", 60000, null);
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, null);
+
+        assertNull(jwtUtil.verify(issuer.generateToken(new HashMap<>(), "alice")));
+    }
+
+    @Test
+    public void testVerify_ExpiredToken() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, -1000, null);
+
+        assertNull(jwtUtil.verify(jwtUtil.generateToken(new HashMap<>(), "alice")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBlacklistToken_PublishFailureDoesNotFailLogout() {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenThrow(new RedisConnectionFailureException("down"));
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, redisTemplate);
+        String token = jwtUtil.generateToken(new HashMap<>(), "alice");
+        String jti = jwtUtil.parseToken(token).getId();
+
+        assertDoesNotThrow(() -> jwtUtil.blacklistToken(token));
+
+        verify(valueOperations).set(eq(JwtUtil.blacklistKey(jti)), eq("blacklisted"), anyLong(), eq(TimeUnit.MILLISECONDS));
+    }
+}